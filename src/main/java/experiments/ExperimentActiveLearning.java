@@ -12,6 +12,7 @@ import java.util.stream.IntStream;
 import lombok.Getter;
 import sampling.RandomSampler;
 import tools.data.Dataset;
+import tools.data.DatasetSnapshot;
 import tools.functions.singlevariate.FunctionParameters;
 import tools.functions.singlevariate.LinearScoreFunction;
 import tools.metrics.ExperimentLogger;
@@ -25,6 +26,7 @@ import tools.ranking.heuristics.UncertaintySampling;
 import tools.rules.DecisionRule;
 import tools.train.IterativeRankingLearn;
 import tools.train.iterative.KappalabIterative;
+import tools.utils.RandomUtil;
 import tools.utils.RuleUtil;
 
 public class ExperimentActiveLearning {
@@ -39,13 +41,18 @@ public class ExperimentActiveLearning {
 
     public static final int nbLearningIterations = 100;
 
+    // The seed of the master random stream, each fold drawing from its own child
+    // stream so that it is reproducible whatever the order of the folds
+    public static final long seed = 0;
+
     /**
      * Generates a list of oracles for the experiment.
      *
      * @param nbTransactions Number of transactions in the dataset.
+     * @param random         The random stream the oracles split theirs off.
      * @return List of oracles (comparators).
      */
-    private List<ArtificialOracle> getOracles(int nbTransactions) {
+    private List<ArtificialOracle> getOracles(int nbTransactions, RandomUtil random) {
         List<ArtificialOracle> oracleList = new ArrayList<>();
 
         ArtificialOracle OWAOracle = new OWAOracle(0.01, measureNames.length);
@@ -53,6 +60,9 @@ public class ExperimentActiveLearning {
 
         oracleList.add(ChiSquared);
         oracleList.add(OWAOracle);
+        for (ArtificialOracle oracle : oracleList) {
+            oracle.setRandom(random.split());
+        }
 
         return oracleList;
     }
@@ -157,7 +167,7 @@ public class ExperimentActiveLearning {
                 for (File file : files) {
                     // Only consider files with a .dat extension
                     if (file.isFile() && file.getName().endsWith(".dat")) {
-                        Dataset dataset = new Dataset(file.getName(), folderPath, getClassItems(datasetName));
+                        Dataset dataset = DatasetSnapshot.open(file.getName(), folderPath, getClassItems(datasetName));
                         datasets.add(dataset);
                     }
                 }
@@ -201,17 +211,22 @@ public class ExperimentActiveLearning {
     }
 
     public void run() throws Exception {
+        RandomUtil.setMasterSeed(seed);
         for (String datasetName : datasetNames) {
             List<Dataset> trainDatasets = readDatasetsFromFold(datasetName, "/train/");
             List<Dataset> testDatasets = readDatasetsFromFold(datasetName, "/test/");
+            RandomUtil parent = RandomUtil.newStream();
 
             int foldIdx = 1;
             for (Dataset trainDataset : trainDatasets) {
-                List<ArtificialOracle> trainOracles = getOracles(trainDataset.getNbTransactions());
-                List<ArtificialOracle> testOracles = getOracles(testDatasets.get(foldIdx).getNbTransactions());
+                RandomUtil foldRandom = parent.split();
+                List<ArtificialOracle> trainOracles = getOracles(trainDataset.getNbTransactions(), foldRandom);
+                List<ArtificialOracle> testOracles = getOracles(testDatasets.get(foldIdx).getNbTransactions(),
+                        foldRandom);
 
                 // Sampling the testing set of rules
-                RandomSampler sampler = new RandomSampler(testDatasets.get(foldIdx), 3, 3, getMeasureNames(), 0.1d);
+                RandomSampler sampler = new RandomSampler(testDatasets.get(foldIdx), getMeasureNames(), 0.1d);
+                sampler.setRandom(foldRandom.split());
                 List<DecisionRule> testRuleList = new ArrayList<>(
                         sampler.sample(1_000, testDatasets.get(foldIdx).getConsequentItemsSet(),
                                 testDatasets.get(foldIdx).getAntecedentItemsSet(), 10));
@@ -242,20 +257,28 @@ public class ExperimentActiveLearning {
     }
 
     public void runParallel() throws Exception {
+        RandomUtil.setMasterSeed(seed);
         for (String datasetName : datasetNames) {
             try {
                 List<Dataset> trainDatasets = readDatasetsFromFold(datasetName, "/train/");
                 List<Dataset> testDatasets = readDatasetsFromFold(datasetName, "/test/");
 
+                // The streams of the folds are split before they run in parallel
+                RandomUtil parent = RandomUtil.newStream();
+                RandomUtil[] foldRandoms = IntStream.range(0, trainDatasets.size())
+                        .mapToObj(foldIdx -> parent.split()).toArray(RandomUtil[]::new);
+
                 IntStream.range(0, trainDatasets.size()).parallel().forEach(foldIdx -> {
                     Dataset trainDataset = trainDatasets.get(foldIdx);
                     Dataset testDataset = testDatasets.get(foldIdx);
 
-                    List<ArtificialOracle> trainOracles = getOracles(trainDataset.getNbTransactions());
-                    List<ArtificialOracle> testOracles = getOracles(testDataset.getNbTransactions());
+                    RandomUtil foldRandom = foldRandoms[foldIdx];
+                    List<ArtificialOracle> trainOracles = getOracles(trainDataset.getNbTransactions(), foldRandom);
+                    List<ArtificialOracle> testOracles = getOracles(testDataset.getNbTransactions(), foldRandom);
 
                     // Sampling the testing set of rules
-                    RandomSampler sampler = new RandomSampler(testDatasets.get(foldIdx), 3, 3, getMeasureNames(), 0.1d);
+                    RandomSampler sampler = new RandomSampler(testDatasets.get(foldIdx), getMeasureNames(), 0.1d);
+                    sampler.setRandom(foldRandom.split());
                     List<DecisionRule> testRuleList = new ArrayList<>(
                             sampler.sample(1_000, testDatasets.get(foldIdx).getConsequentItemsSet(),
                                     testDatasets.get(foldIdx).getAntecedentItemsSet(), 10));
@@ -12,6 +12,7 @@ import java.util.stream.IntStream;
 import lombok.Getter;
 import sampling.RandomSampler;
 import tools.data.Dataset;
+import tools.data.DatasetSnapshot;
 import tools.functions.singlevariate.FunctionParameters;
 import tools.functions.singlevariate.LinearScoreFunction;
 import tools.metrics.ExperimentLogger;
@@ -24,6 +25,7 @@ import tools.ranking.heuristics.UncertaintySampling;
 import tools.rules.DecisionRule;
 import tools.train.IterativeRankingLearn;
 import tools.train.iterative.KappalabIterative;
+import tools.utils.RandomUtil;
 
 public class ExperimentActiveNormalization {
     public static final String dataDirectory = "data/folds/";
@@ -37,16 +39,24 @@ public class ExperimentActiveNormalization {
 
     public static final int nbLearningIterations = 100;
 
+    // The seed of the master random stream, each fold drawing from its own child
+    // stream so that it is reproducible whatever the order of the folds
+    public static final long seed = 0;
+
     /**
      * Generates a list of oracles for the experiment.
      *
      * @param nbTransactions Number of transactions in the dataset.
+     * @param random         The random stream the oracles split theirs off.
      * @return List of oracles (comparators).
      */
-    private List<ArtificialOracle> getOracles(int nbTransactions) {
+    private List<ArtificialOracle> getOracles(int nbTransactions, RandomUtil random) {
         List<ArtificialOracle> oracles = new ArrayList<>();
         oracles.add(new OWAOracle(0.01, measureNames.length));
         oracles.add(new ChiSquaredOracle(nbTransactions));
+        for (ArtificialOracle oracle : oracles) {
+            oracle.setRandom(random.split());
+        }
 
         return oracles;
     }
@@ -137,8 +147,9 @@ public class ExperimentActiveNormalization {
 
             if (files != null) {
                 for (File file : files) {
-                    if (file.isFile()) {
-                        Dataset dataset = new Dataset(file.getName(), folderPath, getClassItems(datasetName));
+                    // Only consider files with a .dat extension
+                    if (file.isFile() && file.getName().endsWith(".dat")) {
+                        Dataset dataset = DatasetSnapshot.open(file.getName(), folderPath, getClassItems(datasetName));
                         datasets.add(dataset);
                     }
                 }
@@ -180,17 +191,22 @@ public class ExperimentActiveNormalization {
     }
 
     public void run() throws Exception {
+        RandomUtil.setMasterSeed(seed);
         for (String datasetName : datasetNames) {
             List<Dataset> trainDatasets = readDatasetsFromFold(datasetName, "/train/");
             List<Dataset> testDatasets = readDatasetsFromFold(datasetName, "/test/");
+            RandomUtil parent = RandomUtil.newStream();
 
             int foldIdx = 1;
             for (Dataset trainDataset : trainDatasets) {
-                List<ArtificialOracle> trainOracles = getOracles(trainDataset.getNbTransactions());
-                List<ArtificialOracle> testOracles = getOracles(testDatasets.get(foldIdx).getNbTransactions());
+                RandomUtil foldRandom = parent.split();
+                List<ArtificialOracle> trainOracles = getOracles(trainDataset.getNbTransactions(), foldRandom);
+                List<ArtificialOracle> testOracles = getOracles(testDatasets.get(foldIdx).getNbTransactions(),
+                        foldRandom);
 
                 // Sampling the testing set of rules
-                RandomSampler sampler = new RandomSampler(testDatasets.get(foldIdx), 3, 3, getMeasureNames(), 0.1d);
+                RandomSampler sampler = new RandomSampler(testDatasets.get(foldIdx), getMeasureNames(), 0.1d);
+                sampler.setRandom(foldRandom.split());
                 List<DecisionRule> testRuleList = new ArrayList<>(
                         sampler.sample(1_000, testDatasets.get(foldIdx).getConsequentItemsSet(),
                                 testDatasets.get(foldIdx).getAntecedentItemsSet(), 10));
@@ -219,20 +235,28 @@ public class ExperimentActiveNormalization {
     }
 
     public void runParallel() throws Exception {
+        RandomUtil.setMasterSeed(seed);
         for (String datasetName : datasetNames) {
             try {
                 List<Dataset> trainDatasets = readDatasetsFromFold(datasetName, "/train/");
                 List<Dataset> testDatasets = readDatasetsFromFold(datasetName, "/test/");
 
+                // The streams of the folds are split before they run in parallel
+                RandomUtil parent = RandomUtil.newStream();
+                RandomUtil[] foldRandoms = IntStream.range(0, trainDatasets.size())
+                        .mapToObj(foldIdx -> parent.split()).toArray(RandomUtil[]::new);
+
                 IntStream.range(0, trainDatasets.size()).forEach(foldIdx -> {
                     Dataset trainDataset = trainDatasets.get(foldIdx);
                     Dataset testDataset = testDatasets.get(foldIdx);
 
-                    List<ArtificialOracle> trainOracles = getOracles(trainDataset.getNbTransactions());
-                    List<ArtificialOracle> testOracles = getOracles(testDataset.getNbTransactions());
+                    RandomUtil foldRandom = foldRandoms[foldIdx];
+                    List<ArtificialOracle> trainOracles = getOracles(trainDataset.getNbTransactions(), foldRandom);
+                    List<ArtificialOracle> testOracles = getOracles(testDataset.getNbTransactions(), foldRandom);
 
                     // Sampling the testing set of rules
-                    RandomSampler sampler = new RandomSampler(testDatasets.get(foldIdx), 3, 3, getMeasureNames(), 0.1d);
+                    RandomSampler sampler = new RandomSampler(testDatasets.get(foldIdx), getMeasureNames(), 0.1d);
+                    sampler.setRandom(foldRandom.split());
                     List<DecisionRule> testRuleList = new ArrayList<>(
                             sampler.sample(1_000, testDatasets.get(foldIdx).getConsequentItemsSet(),
                                     testDatasets.get(foldIdx).getAntecedentItemsSet(), 10));
@@ -40,7 +40,7 @@ public class InteractiveTicTacToe {
     private final String[] measureNames = { confidence, kruskal, cosine, addedValue, certainty };
     private final int nbCriteria = measureNames.length;
 
-    private final RandomUtil random = RandomUtil.getInstance();
+    private RandomUtil random;
 
     public static void main(String[] args) {
         try {
@@ -106,7 +106,8 @@ public class InteractiveTicTacToe {
     }
 
     public void run() throws Exception {
-        RandomUtil.getInstance().setSeed(seed);
+        RandomUtil.setMasterSeed(seed);
+        random = RandomUtil.newStream();
 
         Set<String> classItemValues = new HashSet<>();
         classItemValues.add("28");
@@ -11,22 +11,23 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 import sampling.BatchSampler;
+import sampling.CancellationToken;
 import sampling.SMAS;
 import sampling.UnrestrictedSampler;
 import sampling.Sampler;
+import sampling.diagnostics.StableTopKCriterion;
 import tools.alternatives.IAlternative;
 import tools.data.Dataset;
+import tools.data.DatasetSnapshot;
 import tools.functions.multivariate.CertaintyFunction;
 import tools.functions.multivariate.outRankingCertainties.BradleyTerry;
 import tools.functions.multivariate.outRankingCertainties.ScoreDifference;
@@ -35,7 +36,10 @@ import tools.functions.singlevariate.ISinglevariateFunction;
 import tools.functions.singlevariate.OWA.OWALexmin;
 import tools.normalization.Normalizer.NormalizationMethod;
 import tools.rules.DecisionRule;
+import tools.rules.MeasureEvaluator;
+import tools.rules.RuleBatch;
 import tools.utils.AlternativeUtil;
+import tools.utils.RandomUtil;
 import tools.utils.RuleUtil;
 
 public class SamplingMethodExperiment {
@@ -48,6 +52,15 @@ public class SamplingMethodExperiment {
 
     private static ISinglevariateFunction owa_score_function = new OWALexmin(0.01, allMeasureNames.length);
 
+    // The chains stop early once their top-K rules did not change for a tenth
+    // of the iterations, after at least a tenth of them
+    private static double minIterationsFraction = 0.1;
+    private static double patienceFraction = 0.1;
+
+    // The seed of the master random stream, each fold sampling from its own
+    // child stream so that it is reproducible whatever the order of the folds
+    private static long seed = 0;
+
     /**
      * Creates the out-ranking certainties using the provided scoring function.
      */
@@ -69,6 +82,7 @@ public class SamplingMethodExperiment {
                 maxIterations);
         smas.setScoringFunction(scoringFunction);
         smas.setNormalizationTechnique(NormalizationMethod.NO_NORMALIZATION);
+        smas.setStoppingCriterion(createStoppingCriterion(maxIterations));
         return smas;
     }
 
@@ -79,9 +93,18 @@ public class SamplingMethodExperiment {
                 maxIterations);
         BatchSampler.setScoringFunction(scoringFunction);
         BatchSampler.setNormalizationTechnique(NormalizationMethod.NO_NORMALIZATION);
+        BatchSampler.setStoppingCriterion(createStoppingCriterion(maxIterations));
         return BatchSampler;
     }
 
+    /**
+     * Creates the criterion stopping a chain once its top-K rules are stable.
+     */
+    private static StableTopKCriterion createStoppingCriterion(int maxIterations) {
+        return new StableTopKCriterion((long) (minIterationsFraction * maxIterations),
+                Math.max(1, (long) (patienceFraction * maxIterations)));
+    }
+
     private static String ruleToString(DecisionRule rule) {
         Set<String> antecedentValues = rule.getItemsInX();
         String consequentValues = rule.getY();
@@ -150,34 +173,37 @@ public class SamplingMethodExperiment {
     }
 
     /**
-     * Runs the experiment on a single fold of the dataset.
+     * Runs the experiment on a single fold of the dataset, each sampler drawing
+     * from a child stream of the random stream of the fold.
      */
-    private static void runOnFold(Dataset dataset, ISinglevariateFunction scoreFunction, String[] measureNames,
-            String datasetName, int foldIdx, int samplingIterations, String outputDirectory) {
+    static void runOnFold(Dataset dataset, ISinglevariateFunction scoreFunction, String[] measureNames,
+            String datasetName, int foldIdx, int samplingIterations, String outputDirectory, RandomUtil foldRandom) {
 
         // Process regular SMAS sampling
         processSamplingForCertainties(dataset, scoreFunction, measureNames, datasetName, foldIdx, samplingIterations,
-                outputDirectory);
+                outputDirectory, foldRandom);
 
         // Process Unrestricted Sampler
         // processUnrestrictedSampling(dataset, scoreFunction, datasetName, foldIdx,
         // samplingIterations, outputDirectory,
-        // measureNames);
+        // measureNames, foldRandom);
 
         // Process Batch Sampler
         processBatchSamplingForCertainties(dataset, scoreFunction, measureNames, datasetName, foldIdx,
                 samplingIterations,
-                outputDirectory);
+                outputDirectory, foldRandom);
     }
 
     private static void processSamplingForCertainties(Dataset dataset, ISinglevariateFunction scoreFunction,
-            String[] measureNames, String datasetName, int foldIdx, int samplingIterations, String outputDirectory) {
+            String[] measureNames, String datasetName, int foldIdx, int samplingIterations, String outputDirectory,
+            RandomUtil foldRandom) {
 
         CertaintyFunction[] outRankingCertainties = createOutRankingCertainties(scoreFunction);
 
         for (CertaintyFunction certaintyFunction : outRankingCertainties) {
             SMAS sampler = createSMAS(samplingIterations, dataset, certaintyFunction, scoreFunction, measureNames,
                     0.01d);
+            sampler.setRandom(foldRandom.split());
 
             // Run the sampling with a timeout
             List<DecisionRule> sample = executeSamplingWithTimeout(sampler, 30);
@@ -192,9 +218,11 @@ public class SamplingMethodExperiment {
     }
 
     private static void processUnrestrictedSampling(Dataset dataset, ISinglevariateFunction scoreFunction,
-            String datasetName, int foldIdx, int samplingIterations, String outputDirectory, String[] measureNames) {
+            String datasetName, int foldIdx, int samplingIterations, String outputDirectory, String[] measureNames,
+            RandomUtil foldRandom) {
 
         UnrestrictedSampler unrestrictedSampler = new UnrestrictedSampler(dataset, samplingIterations);
+        unrestrictedSampler.setRandom(foldRandom.split());
 
         // Run the unrestricted sampling with a timeout
         List<DecisionRule> unrestrictedSample = executeSamplingWithTimeout(unrestrictedSampler, 30);
@@ -210,13 +238,15 @@ public class SamplingMethodExperiment {
     }
 
     private static void processBatchSamplingForCertainties(Dataset dataset, ISinglevariateFunction scoreFunction,
-            String[] measureNames, String datasetName, int foldIdx, int samplingIterations, String outputDirectory) {
+            String[] measureNames, String datasetName, int foldIdx, int samplingIterations, String outputDirectory,
+            RandomUtil foldRandom) {
 
         CertaintyFunction[] outRankingCertainties = createOutRankingCertainties(scoreFunction);
 
         // for (CertaintyFunction certaintyFunction : outRankingCertainties) {
         BatchSampler sampler = createBatchSampler(samplingIterations, dataset, null, scoreFunction, measureNames,
                 0.01d);
+        sampler.setRandom(foldRandom.split());
 
         // Run the sampling with a timeout
         List<DecisionRule> sample = executeSamplingWithTimeout(sampler, 30);
@@ -232,19 +262,21 @@ public class SamplingMethodExperiment {
     }
 
     private static List<DecisionRule> executeSamplingWithTimeout(Sampler sampler, int timeoutInMinutes) {
-        ExecutorService executor = Executors.newSingleThreadExecutor();
-        Future<List<DecisionRule>> future = executor.submit(() -> sampler.sample());
+        // The sampler checks its deadline at each iteration and keeps the rules
+        // found so far when it is reached
+        sampler.setCancellationToken(CancellationToken.withTimeout(timeoutInMinutes, TimeUnit.MINUTES));
 
         List<DecisionRule> sample = new ArrayList<>();
         try {
-            sample = future.get(timeoutInMinutes, TimeUnit.MINUTES);
-        } catch (TimeoutException e) {
-            System.err.println("Sampling timed out after " + timeoutInMinutes + " minutes.");
-            future.cancel(true);
-        } catch (InterruptedException | ExecutionException e) {
+            sample = sampler.sample();
+            if (sampler.isTruncated()) {
+                System.err.println("Sampling timed out after " + timeoutInMinutes + " minutes, "
+                        + sample.size() + " rules kept.");
+            }
+        } catch (RuntimeException e) {
             e.printStackTrace();
         } finally {
-            executor.shutdownNow();
+            sampler.setCancellationToken(null);
         }
         return sample;
     }
@@ -260,18 +292,47 @@ public class SamplingMethodExperiment {
     }
 
     private static List<Double> computeApproxScores(List<DecisionRule> sample, ISinglevariateFunction scoreFunction) {
-        return sample.parallelStream()
-                .map(rule -> scoreFunction.computeScore(rule.getAlternative()))
-                .collect(Collectors.toList());
+        if (sample.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        // The vectors of the rules are scored together, row after row
+        int nbCriteria = sample.get(0).getAlternative().getVector().length;
+        double[] rows = new double[sample.size() * nbCriteria];
+        for (int r = 0; r < sample.size(); r++) {
+            System.arraycopy(sample.get(r).getAlternative().getVector(), 0, rows, r * nbCriteria, nbCriteria);
+        }
+        double[] scores = new double[sample.size()];
+        scoreFunction.computeScores(rows, nbCriteria, scores);
+
+        return Arrays.stream(scores).boxed().collect(Collectors.toList());
     }
 
     private static List<Double> computeValidRuleScores(List<DecisionRule> sample, Dataset dataset,
             String[] measureNames, ISinglevariateFunction scoreFunction) {
-        return sample.isEmpty()
-                ? new ArrayList<>()
-                : sample.parallelStream()
-                        .map(rule -> getValidRuleScore(rule, dataset, 0.01d, measureNames, scoreFunction))
-                        .collect(Collectors.toList());
+        // The measures of the valid rules are computed together, one measure at a
+        // time over the frequency columns of the rules
+        List<DecisionRule> validRules = sample.stream().filter(RuleUtil::isValid).collect(Collectors.toList());
+        double[][] measures = MeasureEvaluator.compile(measureNames)
+                .evaluate(RuleBatch.of(validRules, dataset.getNbTransactions()), 0.01d);
+
+        List<Double> validScores = IntStream.range(0, validRules.size()).parallel()
+                .mapToObj(r -> {
+                    double[] vector = new double[measures.length];
+                    for (int m = 0; m < measures.length; m++) {
+                        vector[m] = measures[m][r];
+                    }
+                    return scoreFunction.computeScore(vector, validRules.get(r));
+                })
+                .collect(Collectors.toList());
+
+        // Invalid rules have a score of 0
+        List<Double> scores = new ArrayList<>(sample.size());
+        int r = 0;
+        for (DecisionRule rule : sample) {
+            scores.add(RuleUtil.isValid(rule) ? validScores.get(r++) : 0d);
+        }
+        return scores;
     }
 
     private static Set<String> getClassItems(String datasetName) {
@@ -306,8 +367,9 @@ public class SamplingMethodExperiment {
 
             if (files != null) {
                 for (File file : files) {
-                    if (file.isFile()) {
-                        Dataset dataset = new Dataset(file.getName(), folderPath, getClassItems(datasetName));
+                    // Only consider files with a .dat extension
+                    if (file.isFile() && file.getName().endsWith(".dat")) {
+                        Dataset dataset = DatasetSnapshot.open(file.getName(), folderPath, getClassItems(datasetName));
                         datasets.add(dataset);
                     }
                 }
@@ -331,8 +393,9 @@ public class SamplingMethodExperiment {
 
             if (files != null) {
                 for (File file : files) {
-                    if (file.isFile()) {
-                        Dataset dataset = new Dataset(file.getName(), folderPath, getClassItems(datasetName));
+                    // Only consider files with a .dat extension
+                    if (file.isFile() && file.getName().endsWith(".dat")) {
+                        Dataset dataset = DatasetSnapshot.open(file.getName(), folderPath, getClassItems(datasetName));
                         datasets.add(dataset);
                     }
                 }
@@ -348,6 +411,7 @@ public class SamplingMethodExperiment {
 
     public static void runOnFolds() {
         ExecutorService executor = Executors.newFixedThreadPool(10);
+        RandomUtil.setMasterSeed(seed);
         try {
             for (int samplingIterations = 1; samplingIterations < 100_001; samplingIterations *= 10) {
                 for (String datasetName : datasetNames) {
@@ -356,12 +420,18 @@ public class SamplingMethodExperiment {
                     try {
                         List<Dataset> testDatasets = readDatasetsFromFold(datasetName, "/test/");
 
+                        // The streams of the folds are split before they run in parallel
+                        RandomUtil parent = RandomUtil.newStream();
+                        RandomUtil[] foldRandoms = IntStream.range(0, testDatasets.size())
+                                .mapToObj(foldIdx -> parent.split()).toArray(RandomUtil[]::new);
+
                         IntStream.range(0, testDatasets.size()).parallel().forEach(foldIdx -> {
                             Dataset testDataset = testDatasets.get(foldIdx);
 
                             try {
                                 runOnFold(testDataset, owa_score_function, allMeasureNames, datasetName, foldIdx,
-                                        samplingIterationsFinal, "sampling_experiment/samples/ratio_1to10/");
+                                        samplingIterationsFinal, "sampling_experiment/samples/ratio_1to10/",
+                                        foldRandoms[foldIdx]);
                             } catch (Exception e) {
                                 e.printStackTrace();
                             }
@@ -381,10 +451,16 @@ public class SamplingMethodExperiment {
     }
 
     public static void runOnDataset() throws IOException {
+        // The streams of the datasets are split before they run in parallel
+        RandomUtil.setMasterSeed(seed);
+        Map<String, RandomUtil> datasetRandoms = datasetNames.stream()
+                .collect(Collectors.toMap(datasetName -> datasetName, datasetName -> RandomUtil.newStream()));
+
         // Process dataset names in parallel
         datasetNames.parallelStream().forEach(datasetName -> {
+            RandomUtil parent = datasetRandoms.get(datasetName);
             try {
-                Dataset dataset = new Dataset(datasetName + ".dat", "data/dat-files/", getClassItems(datasetName));
+                Dataset dataset = DatasetSnapshot.open(datasetName + ".dat", "data/dat-files/", getClassItems(datasetName));
 
                 // Process sampling iterations in sequential order, but each dataset runs in
                 // parallel
@@ -398,12 +474,14 @@ public class SamplingMethodExperiment {
                             .limit(10)
                             .forEach(foldIdx -> {
                                 final int foldIdxFinal = foldIdx;
+                                final RandomUtil foldRandom = parent.split();
 
                                 executor.submit(() -> {
                                     System.out.println(
                                             "Dataset: " + datasetName + " - Iterations: " + samplingIterationsFinal);
                                     runOnFold(dataset, owa_score_function, allMeasureNames, datasetName, foldIdxFinal,
-                                            samplingIterationsFinal, "results/sampling_experiment/samples/ratio_1to1/");
+                                            samplingIterationsFinal, "results/sampling_experiment/samples/ratio_1to1/",
+                                            foldRandom);
                                 });
                             });
 
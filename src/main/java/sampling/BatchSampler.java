@@ -2,7 +2,6 @@ package sampling;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -10,6 +9,9 @@ import java.util.Set;
 import tools.data.Dataset;
 import tools.functions.singlevariate.ISinglevariateFunction;
 import tools.rules.DecisionRule;
+import tools.rules.RuleCursor;
+import tools.utils.LazyPermutation;
+import tools.utils.RandomUtil;
 
 public class BatchSampler extends SMAS {
 
@@ -19,50 +21,59 @@ public class BatchSampler extends SMAS {
     }
 
     @Override
-    protected void processAntecedents(DecisionRule rule, String[] antecedentItems, int[] antecedentShuffle) {
+    protected void processAntecedents(DecisionRule rule, int[] antecedentItems, LazyPermutation antecedentShuffle) {
 
         // Random skip to half the rule
         skipToHalf(rule);
+        invalidateCandidates();
 
-        for (int i = 0; i < antecedentShuffle.length; ++i) {
+        while (antecedentShuffle.hasNext()) {
             updateNormalization(rule);
 
             double originalScore = getValidRuleScore(rule);
 
-            rule.addToX(antecedentItems[antecedentShuffle[i]]);
+            // The proposal is scored from counts, its covers are only computed if it
+            // is accepted
+            proposeAntecedent(rule, antecedentItems[antecedentShuffle.next()]);
 
             double modifiedScore = getValidRuleScore(rule);
 
             if (isCertaintyHighEnough(modifiedScore, originalScore)) {
+                rule.acceptProposal();
                 break;
             }
 
-            rule.removeFromX(antecedentItems[antecedentShuffle[i]]);
+            rule.rejectProposal();
         }
     }
 
     private void skipToHalf(DecisionRule rule) {
-        Set<String> halfAntecedent = splitSet(rule.getItemsInX()).get(0);
+        Set<String> halfAntecedent = splitSet(rule.getItemsInX(), getRandom()).get(0);
 
         double originalScore = getValidRuleScore(rule);
 
+        RuleCursor cursor = new RuleCursor(rule);
         for (String item : halfAntecedent)
-            rule.removeFromX(item);
+            cursor.removeFromX(item);
 
         double modifiedScore = getValidRuleScore(rule);
 
+        // The removed items are put back by restoring the previous covers
         if (!isCertaintyHighEnough(modifiedScore, originalScore)) {
-            for (String item : halfAntecedent)
-                rule.addToX(item);
+            cursor.revertAll();
         }
     }
 
     public static <T> List<Set<T>> splitSet(Set<T> originalSet) {
+        return splitSet(originalSet, RandomUtil.newStream());
+    }
+
+    public static <T> List<Set<T>> splitSet(Set<T> originalSet, RandomUtil random) {
         // Convert the set to a list
         List<T> list = new ArrayList<>(originalSet);
 
         // Shuffle the list to randomize the order
-        Collections.shuffle(list);
+        random.shuffle(list);
 
         // Calculate the size of each subset
         int size = list.size() / 2;
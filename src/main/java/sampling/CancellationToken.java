@@ -0,0 +1,60 @@
+package sampling;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cooperative cancellation of a sampling run. A sampler checks its token at
+ * each iteration and, once it is cancelled or past its deadline, stops and
+ * returns the best rules found so far. A token can be shared by several
+ * samplers, for instance the chains of a parallel sampler.
+ */
+public class CancellationToken {
+
+    private volatile boolean cancelled;
+    private final long deadline; // In System.nanoTime() time, only if hasDeadline
+    private final boolean hasDeadline;
+
+    /**
+     * Creates a token without deadline, cancelled only by {@link #cancel()}.
+     */
+    public CancellationToken() {
+        this.deadline = 0;
+        this.hasDeadline = false;
+    }
+
+    private CancellationToken(long deadline) {
+        this.deadline = deadline;
+        this.hasDeadline = true;
+    }
+
+    /**
+     * @param timeout The time budget of the run.
+     * @param unit    The unit of the time budget.
+     * @return A token cancelled once the budget is spent.
+     */
+    public static CancellationToken withTimeout(long timeout, TimeUnit unit) {
+        return new CancellationToken(System.nanoTime() + unit.toNanos(timeout));
+    }
+
+    /**
+     * Asks the samplers using the token to stop.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * @return True if the token was cancelled or its deadline has passed.
+     */
+    public boolean isCancelled() {
+        return cancelled || (hasDeadline && System.nanoTime() - deadline >= 0);
+    }
+
+    /**
+     * @return The time left before the deadline in nanoseconds, 0 once it has
+     *         passed, Long.MAX_VALUE without deadline.
+     */
+    public long getRemainingNanos() {
+        return hasDeadline ? Math.max(0, deadline - System.nanoTime()) : Long.MAX_VALUE;
+    }
+}
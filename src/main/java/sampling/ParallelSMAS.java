@@ -0,0 +1,195 @@
+package sampling;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import lombok.Getter;
+import lombok.Setter;
+import sampling.diagnostics.ChainDiagnostics;
+import tools.data.Dataset;
+import tools.functions.multivariate.CertaintyFunction;
+import tools.functions.multivariate.outRankingCertainties.ScoreDifference;
+import tools.functions.singlevariate.ISinglevariateFunction;
+import tools.normalization.NormalizationSnapshot;
+import tools.rules.DecisionRule;
+import tools.rules.TopKRules;
+import tools.utils.RuleUtil;
+
+/**
+ * Runs several independent SMAS chains at once, one per thread, and merges
+ * their best rules. The chains share the dataset, and so its cover cache, the
+ * scoring functions, which must be safe to call from several threads, and the
+ * normalizer, whose statistics each chain merges every mergeInterval vectors.
+ * Each chain has its own current rule and its own random stream, split from the
+ * one of this sampler.
+ *
+ * The maximum number of iterations is split between the chains. The chains
+ * offer the rules they find to a single set of the topK best rules as they run,
+ * each rule keeping the score it had when it was found. Once they are all done,
+ * the rules kept are scored again with the same frozen normalization to be
+ * ordered. A stopping criterion applies to each chain on its own, while a
+ * cancellation token stops all of them, the run being truncated if any chain
+ * is. The merge interval is only set on the normalizer for the run.
+ */
+public class ParallelSMAS extends SMAS {
+
+    public static final int DEFAULT_MERGE_INTERVAL = 64;
+
+    private @Getter @Setter int nbChains;
+    private @Getter @Setter int mergeInterval = DEFAULT_MERGE_INTERVAL;
+    private @Getter List<SMAS> chains = new ArrayList<>();
+
+    public ParallelSMAS(int maximumIterations, Dataset dataset, CertaintyFunction outRankingCertainty,
+            ISinglevariateFunction scoringFunction, String[] measureNames, double smoothCounts, int topK,
+            int nbChains) {
+        super(maximumIterations, dataset, outRankingCertainty, scoringFunction, measureNames, smoothCounts, topK);
+        this.nbChains = nbChains;
+    }
+
+    public ParallelSMAS(int maximumIterations, Dataset dataset, ISinglevariateFunction scoringFunction,
+            String[] measureNames, int topK) {
+        this(maximumIterations, dataset, new ScoreDifference(scoringFunction), scoringFunction, measureNames,
+                DEFAULT_SMOOTH_COUNTS, topK, Runtime.getRuntime().availableProcessors());
+    }
+
+    @Override
+    public List<DecisionRule> sample() {
+        int nbChains = Math.max(1, Math.min(getNbChains(), getMaximumIterations()));
+        int previousMergeInterval = getNormalizer().getMergeInterval();
+        getNormalizer().setMergeInterval(getMergeInterval());
+        try {
+            return sample(nbChains);
+        } finally {
+            getNormalizer().setMergeInterval(previousMergeInterval);
+        }
+    }
+
+    private List<DecisionRule> sample(int nbChains) {
+        truncated = false;
+
+        // The chains stop on the token of the run, cancelled if this thread is
+        // interrupted while waiting for them
+        CancellationToken runToken = getCancellationToken() != null ? getCancellationToken()
+                : new CancellationToken();
+
+        TopKRules best = new TopKRules(getTopK());
+        chains = new ArrayList<>(nbChains);
+        List<Callable<List<DecisionRule>>> runs = new ArrayList<>(nbChains);
+        for (int chain = 0; chain < nbChains; chain++) {
+            // The remainder of the iterations goes to the first chains
+            int iterations = getMaximumIterations() / nbChains + (chain < getMaximumIterations() % nbChains ? 1 : 0);
+            SMAS sampler = createChain(iterations);
+            sampler.setCancellationToken(runToken);
+            sampler.setSharedTopRules(best);
+            chains.add(sampler);
+            runs.add(() -> {
+                try {
+                    return sampler.sample();
+                } finally {
+                    getNormalizer().flush();
+                }
+            });
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(nbChains);
+        boolean interrupted = false;
+        try {
+            List<Future<List<DecisionRule>>> futures = new ArrayList<>(nbChains);
+            for (Callable<List<DecisionRule>> run : runs) {
+                futures.add(executor.submit(run));
+            }
+            for (Future<List<DecisionRule>> future : futures) {
+                while (true) {
+                    try {
+                        future.get();
+                        break;
+                    } catch (InterruptedException e) {
+                        // The chains return their best rules so far
+                        interrupted = true;
+                        runToken.cancel();
+                    }
+                }
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("A sampling chain failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        for (SMAS chain : chains) {
+            truncated |= chain.isTruncated();
+        }
+        return mergeChains(best);
+    }
+
+    /**
+     * Creates a chain sharing the configuration, the dataset and the normalizer
+     * of this sampler.
+     *
+     * @param maximumIterations The number of iterations of the chain.
+     * @return The chain.
+     */
+    protected SMAS createChain(int maximumIterations) {
+        SMAS chain = new SMAS(maximumIterations, getDataset(), getOutRankingCertainty(), getScoringFunction(),
+                getMeasureNames(), getSmoothCounts(), getTopK());
+        // The chains take their streams from the one of this sampler, so that a
+        // seeded run gives the same streams
+        chain.setRandom(getRandom().split());
+        chain.setNormalizer(getNormalizer());
+        chain.setNormalizationTechnique(getNormalizationTechnique());
+        chain.setBatchProposals(isBatchProposals());
+        chain.setStoppingCriterion(getStoppingCriterion());
+        chain.setRecordScoreHistory(isRecordScoreHistory());
+        return chain;
+    }
+
+    /**
+     * @return The split-R̂ of the scores visited by the chains of the last run,
+     *         close to 1 once they mix.
+     */
+    public double getSplitRHat() {
+        List<ChainDiagnostics> chainDiagnostics = new ArrayList<>(chains.size());
+        for (SMAS chain : chains) {
+            chainDiagnostics.add(chain.getDiagnostics());
+        }
+        return ChainDiagnostics.getSplitRHat(chainDiagnostics);
+    }
+
+    /**
+     * Orders the best rules of the chains, all scored again with the statistics
+     * gathered by all the chains.
+     */
+    private List<DecisionRule> mergeChains(TopKRules best) {
+        NormalizationSnapshot normalization = getNormalizer().freeze(getNormalizationTechnique());
+        TopKRules ordered = new TopKRules(getTopK());
+        for (DecisionRule rule : best.getRules()) {
+            // A rule its chain no longer keeps was not expanded by it
+            if (rule.getCoverX() == null) {
+                rule.expandSimpleCopy(chains.get(0).getRule());
+            }
+            double score = RuleUtil.isValid(rule)
+                    ? getScoringFunction().computeScore(normalization.normalize(rule.getAlternative().getVector()),
+                            rule)
+                    : 0;
+            ordered.offer(rule, score);
+        }
+        scoreHistory.clear();
+        for (SMAS chain : chains) {
+            scoreHistory.addAll(chain.getScoreHistory());
+        }
+
+        List<DecisionRule> rules = ordered.getRules();
+        if (!rules.isEmpty()) {
+            setRule(rules.get(0));
+        }
+        return rules;
+    }
+}
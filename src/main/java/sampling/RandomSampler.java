@@ -22,6 +22,7 @@ import lombok.Setter;
 import tools.alternatives.IAlternative;
 import tools.data.Dataset;
 import tools.rules.DecisionRule;
+import tools.rules.RuleCursor;
 import tools.utils.RandomUtil;
 import tools.utils.RuleUtil;
 import tools.utils.SetUtil;
@@ -35,31 +36,34 @@ public class RandomSampler {
     private @Getter Dataset dataset;
     private @Getter String[] measureNames;
     private @Getter double smoothCounts;
-    private @Getter @Setter int maxSizeX;
-    private @Getter @Setter int maxSizeZ;
 
     // Random instance for this sampler
-    private RandomUtil random = new RandomUtil();
+    private @Getter @Setter RandomUtil random = RandomUtil.newStream();
 
     /**
-     * Constructs a RandomSampler with the provided dataset, max sizes for
-     * antecedent and consequent sets.
+     * Constructs a RandomSampler with the provided dataset.
      *
      * @param dataset      The dataset used for sampling.
-     * @param maxSizeX     The maximum size for the antecedent (X).
-     * @param maxSizeZ     The maximum size for the consequent (Z).
      * @param nbSamples    The number of samples to generate.
      * @param measureNames Array of measure names.
      * @param smoothCounts The smoothing count for alternatives.
      */
-    public RandomSampler(Dataset dataset, int maxSizeX, int maxSizeZ, String[] measureNames, double smoothCounts) {
+    public RandomSampler(Dataset dataset, String[] measureNames, double smoothCounts) {
         this.dataset = dataset;
-        this.maxSizeX = maxSizeX;
-        this.maxSizeZ = maxSizeZ;
         this.measureNames = measureNames;
         this.smoothCounts = smoothCounts;
     }
 
+    /**
+     * @deprecated The maximum sizes of the antecedent and consequent were never
+     *             enforced and are ignored, use
+     *             {@link #RandomSampler(Dataset, String[], double)}.
+     */
+    @Deprecated
+    public RandomSampler(Dataset dataset, int maxSizeX, int maxSizeZ, String[] measureNames, double smoothCounts) {
+        this(dataset, measureNames, smoothCounts);
+    }
+
     /**
      * Samples a set of valid decision rules.
      *
@@ -76,8 +80,7 @@ public class RandomSampler {
 
         // Sample rules until the desired number of rules is reached
         while (rulesSample.keySet().size() < numberOfRules) {
-            DecisionRule rule = new DecisionRule(new HashSet<>(), "", dataset, maxSizeX, maxSizeZ, smoothCounts,
-                    measureNames);
+            DecisionRule rule = new DecisionRule(new HashSet<>(), "", dataset, smoothCounts, measureNames);
 
             // Choose a random consequent item
             rule.setY(chooseRandomValue(rule, consequentItems, "consequent"));
@@ -134,7 +137,7 @@ public class RandomSampler {
 
         List<String> validValues = computeValidValues(rule, values, type);
 
-        if ("antecedent".equals(type) && !rule.getItemsInX().isEmpty()) {
+        if ("antecedent".equals(type) && rule.hasAntecedent()) {
             validValues.add(""); // Empty antecedent option
         }
 
@@ -142,8 +145,8 @@ public class RandomSampler {
     }
 
     private boolean isInitialValueFor(String type, DecisionRule rule) {
-        return ("antecedent".equals(type) && rule.getItemsInX().isEmpty())
-                || ("consequent".equals(type) && rule.getY().isEmpty());
+        return ("antecedent".equals(type) && !rule.hasAntecedent())
+                || ("consequent".equals(type) && !rule.hasConsequent());
     }
 
     /**
@@ -156,16 +159,16 @@ public class RandomSampler {
      */
     private List<String> computeValidValues(DecisionRule rule, Set<String> values, String type) {
         List<String> validValues = new ArrayList<>();
-        DecisionRule ruleCopy = RuleUtil.deepCopy(rule);
+        RuleCursor cursor = new RuleCursor(RuleUtil.deepCopy(rule));
 
         for (String value : values) {
-            RuleUtil.addItemToRule(ruleCopy, value, type);
+            cursor.addItem(value, type);
 
-            if (RuleUtil.isValid(ruleCopy)) {
+            if (RuleUtil.isValid(cursor.getRule())) {
                 validValues.add(value);
             }
 
-            RuleUtil.removeItemFromRule(ruleCopy, value, type, rule.getY());
+            cursor.revertAll();
         }
 
         return validValues;
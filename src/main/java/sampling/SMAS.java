@@ -1,13 +1,12 @@
 package sampling;
 
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
-import java.util.TreeSet;
 
 import lombok.Getter;
 import lombok.Setter;
-import tools.alternatives.Alternative;
+import sampling.diagnostics.ChainDiagnostics;
+import sampling.diagnostics.IStoppingCriterion;
 import tools.alternatives.IAlternative;
 import tools.data.Dataset;
 import tools.functions.multivariate.CertaintyFunction;
@@ -16,6 +15,8 @@ import tools.functions.singlevariate.ISinglevariateFunction;
 import tools.normalization.Normalizer;
 import tools.normalization.Normalizer.NormalizationMethod;
 import tools.rules.DecisionRule;
+import tools.rules.TopKRules;
+import tools.utils.LazyPermutation;
 import tools.utils.RandomUtil;
 import tools.utils.RuleUtil;
 
@@ -26,15 +27,47 @@ public class SMAS implements ISampler {
     protected @Getter @Setter int topK = 1;
     protected @Getter @Setter DecisionRule rule;
     protected @Getter @Setter Dataset dataset;
-    protected @Getter @Setter TreeSet<DecisionRule> topRules;
+    protected @Getter @Setter TopKRules topRules;
+    // The best rules of all the chains of a parallel run, offered along with the
+    // ones of this chain, if any
+    protected @Getter @Setter TopKRules sharedTopRules;
     protected @Getter @Setter CertaintyFunction outRankingCertainty;
     protected @Getter ISinglevariateFunction scoringFunction;
     protected @Getter @Setter String[] measureNames;
     protected @Getter @Setter double smoothCounts = 1e-6d;
-    protected @Getter RandomUtil random = new RandomUtil();
+    protected @Getter @Setter RandomUtil random = RandomUtil.newStream();
+    // The score of every iteration, only recorded on demand as it grows with
+    // the run, the diagnostics keeping their own summary in constant memory
     protected @Getter List<Double> scoreHistory = new ArrayList<>();
+    protected @Getter @Setter boolean recordScoreHistory = false;
     protected @Getter @Setter Normalizer.NormalizationMethod normalizationTechnique = NormalizationMethod.MIN_MAX_SCALING;
-    protected @Getter Normalizer normalizer = new Normalizer();
+    protected @Getter @Setter Normalizer normalizer = new Normalizer();
+
+    // The array receiving the normalized vectors of the chain, reused by every
+    // scoring
+    private double[] normalizedVector = new double[0];
+
+    // Batched mode: the counts of all the antecedent candidates are computed in a
+    // single pass over the covered transactions instead of one intersection per
+    // candidate, which pays off on datasets with many items
+    protected @Getter @Setter boolean batchProposals = false;
+    private int[] candidateFreqX, candidateFreqZ;
+    private boolean candidatesCounted;
+
+    // The orders in which the items are proposed, reused from one iteration to
+    // the next
+    private final LazyPermutation antecedentShuffle = new LazyPermutation();
+    private final LazyPermutation consequentShuffle = new LazyPermutation();
+
+    // Online diagnostics of the chain, and the criterion ending it before the
+    // maximum number of iterations, if any
+    protected @Getter ChainDiagnostics diagnostics = new ChainDiagnostics();
+    protected @Getter @Setter IStoppingCriterion stoppingCriterion;
+
+    // Cooperative cancellation, the rules found so far are returned when the run
+    // is stopped
+    protected @Getter @Setter CancellationToken cancellationToken;
+    protected @Getter boolean truncated;
 
     public SMAS(int maximumIterations, Dataset dataset, CertaintyFunction outRankingCertainty,
             ISinglevariateFunction scoringFunction, String[] measureNames, double smoothCounts, int topK) {
@@ -45,8 +78,7 @@ public class SMAS implements ISampler {
         this.measureNames = measureNames;
         this.smoothCounts = smoothCounts;
         this.topK = topK;
-        this.topRules = new TreeSet<>(Comparator.comparingDouble(this::getValidRuleScore).reversed()
-                .thenComparingInt(System::identityHashCode));
+        this.topRules = new TopKRules(topK);
     }
 
     public SMAS(int maximumIterations, Dataset dataset, ISinglevariateFunction scoringFunction, String[] measureNames,
@@ -58,31 +90,42 @@ public class SMAS implements ISampler {
     @Override
     public List<DecisionRule> sample() {
         initNormalization();
-        DecisionRule initialRule = getDataset().getRandomValidRules(1, smoothCounts, measureNames).get(0);
+        DecisionRule initialRule = getDataset().getRandomValidRules(1, smoothCounts, measureNames, getRandom()).get(0);
         setRule(initialRule);
 
-        // Erase the memory before each run
-        topRules = new TreeSet<>(Comparator.comparingDouble(this::getValidRuleScore).reversed());
-        
-        topRules.add(RuleUtil.simpleCopy(getRule()));
+        // Erase the memory before each run. The rules keep the score they had when
+        // they were found, which later updates of the normalization do not change
+        topRules = new TopKRules(topK);
+        offerTopRule(RuleUtil.simpleCopy(getRule()), getValidRuleScore(getRule()));
+        diagnostics = new ChainDiagnostics();
+        truncated = false;
 
         for (int i = 0; i < getMaximumIterations(); i++) {
+            if (isStopRequested()) {
+                truncated = true;
+                break;
+            }
+
             setRule(updateRule(getRule()));
             double currentScore = getValidRuleScore(getRule());
-            scoreHistory.add(currentScore);
+            if (recordScoreHistory) {
+                scoreHistory.add(currentScore);
+            }
 
+            boolean topKChanged = false;
             if (!topRules.contains(getRule())) {
-                topRules.add(RuleUtil.simpleCopy(getRule()));
+                topKChanged = offerTopRule(RuleUtil.simpleCopy(getRule()), currentScore);
+            }
 
-                if (topRules.size() > topK) {
-                    topRules.pollLast();
-                }
+            diagnostics.update(currentScore, topKChanged);
+            if (stoppingCriterion != null && stoppingCriterion.shouldStop(diagnostics)) {
+                break;
             }
         }
 
         // Expand the rules so they contain all the required data
         List<DecisionRule> finalRules = new ArrayList<>();
-        for (DecisionRule rule : topRules) {
+        for (DecisionRule rule : topRules.getRules()) {
             rule.expandSimpleCopy(initialRule);
             finalRules.add(rule);
         }
@@ -90,34 +133,67 @@ public class SMAS implements ISampler {
         return finalRules;
     }
 
+    /**
+     * Offers a copy of a rule to the best rules of this chain, and to the ones
+     * shared with the other chains if any.
+     *
+     * @param copy  The copy of the rule, which is not modified afterwards.
+     * @param score The score of the rule.
+     * @return True if the best rules of this chain changed.
+     */
+    protected boolean offerTopRule(DecisionRule copy, double score) {
+        if (sharedTopRules != null) {
+            sharedTopRules.offer(copy, score);
+        }
+        return topRules.offer(copy, score);
+    }
+
+    /**
+     * @return True if the run must stop, because its token was cancelled or its
+     *         thread interrupted.
+     */
+    protected boolean isStopRequested() {
+        return Thread.currentThread().isInterrupted()
+                || (cancellationToken != null && cancellationToken.isCancelled());
+    }
+
     @Override
     public double getValidRuleScore(DecisionRule rule) {
         if (RuleUtil.isValid(rule)) {
-            double[] unNormVector = rule.getAlternative().getVector();
-            double[] normVector = getNormalizer().normalize(unNormVector, getNormalizationTechnique(), false);
-            IAlternative normAlternative = new Alternative(normVector);
+            double[] normVector = normalize(rule.getAlternative().getVector());
 
-            return getScoringFunction().computeScore(normAlternative, rule);
+            return getScoringFunction().computeScore(normVector, rule);
         }
 
         return 0;
     }
 
     public double getAlternativeScore(IAlternative alternative) {
-        double[] unNormVector = alternative.getVector();
-        double[] normVector = getNormalizer().normalize(unNormVector, getNormalizationTechnique(), false);
-        IAlternative normAlternative = new Alternative(normVector);
+        double[] normVector = normalize(alternative.getVector());
 
-        return getScoringFunction().computeScore(normAlternative, rule);
+        return getScoringFunction().computeScore(normVector, rule);
 
     }
 
+    /**
+     * @param vector The vector of measures.
+     * @return The normalized vector, held in the buffer of the chain until the
+     *         next normalization.
+     */
+    protected double[] normalize(double[] vector) {
+        if (normalizedVector.length != vector.length) {
+            normalizedVector = new double[vector.length];
+        }
+        return getNormalizer().normalize(vector, getNormalizationTechnique(), normalizedVector);
+    }
+
     protected DecisionRule updateRule(DecisionRule rule) {
-        String[] antecedentItems = getDataset().getAntecedentItemsArray();
-        String[] consequentItems = getDataset().getConsequentItemsArray();
+        int[] antecedentItems = getDataset().getAntecedentItemIds();
+        int[] consequentItems = getDataset().getConsequentItemIds();
 
-        int[] antecedentShuffle = RandomUtil.randomShuffle(antecedentItems.length);
-        int[] consequentShuffle = RandomUtil.randomShuffle(consequentItems.length);
+        // The orders are only drawn as far as the proposals go
+        antecedentShuffle.reset(antecedentItems.length, getRandom());
+        consequentShuffle.reset(consequentItems.length, getRandom());
 
         processAntecedents(rule, antecedentItems, antecedentShuffle);
         processConsequents(rule, consequentItems, consequentShuffle);
@@ -125,36 +201,80 @@ public class SMAS implements ISampler {
         return rule;
     }
 
-    protected void processAntecedents(DecisionRule rule, String[] antecedentItems, int[] antecedentShuffle) {
-        for (int i = 0; i < antecedentShuffle.length; i++) {
+    protected void processAntecedents(DecisionRule rule, int[] antecedentItems, LazyPermutation antecedentShuffle) {
+        invalidateCandidates();
+
+        while (antecedentShuffle.hasNext()) {
             updateNormalization(rule);
 
             double originalScore = getValidRuleScore(rule);
-            rule.addToX(antecedentItems[antecedentShuffle[i]]);
+            // The proposal is scored from counts, its covers are only computed if it
+            // is accepted
+            proposeAntecedent(rule, antecedentItems[antecedentShuffle.next()]);
             double modifiedScore = getValidRuleScore(rule);
 
             if (isCertaintyHighEnough(modifiedScore, originalScore)) {
+                rule.acceptProposal();
                 break;
             }
 
-            rule.removeFromX(antecedentItems[antecedentShuffle[i]]);
+            rule.rejectProposal();
+        }
+    }
+
+    /**
+     * Proposes to add an antecedent item to the rule, taking its counts from the
+     * batched pass over the covered transactions in batched mode.
+     *
+     * @param rule   The current rule.
+     * @param itemId The id of the proposed antecedent item.
+     */
+    protected void proposeAntecedent(DecisionRule rule, int itemId) {
+        if (!isBatchProposals()) {
+            rule.proposeAddToX(itemId);
+            return;
+        }
+
+        if (!candidatesCounted) {
+            int nbItems = getDataset().getItemDictionary().size();
+            if (candidateFreqX == null || candidateFreqX.length != nbItems) {
+                candidateFreqX = new int[nbItems];
+                candidateFreqZ = new int[nbItems];
+            }
+            rule.countFrequenciesWith(candidateFreqX, candidateFreqZ);
+            candidatesCounted = true;
+        }
+
+        // An item already in X leaves it if the proposal is rejected, which changes
+        // the counts of the other candidates
+        if (rule.containsInX(itemId)) {
+            invalidateCandidates();
         }
+        rule.proposeAddToX(itemId, candidateFreqX[itemId], candidateFreqZ[itemId]);
+    }
+
+    /**
+     * Marks the batched counts as outdated, they are recomputed on the next
+     * proposal.
+     */
+    protected void invalidateCandidates() {
+        candidatesCounted = false;
     }
 
-    protected void processConsequents(DecisionRule rule, String[] consequentItems, int[] consequentShuffle) {
-        for (int i = 0; i < consequentShuffle.length; i++) {
+    protected void processConsequents(DecisionRule rule, int[] consequentItems, LazyPermutation consequentShuffle) {
+        while (consequentShuffle.hasNext()) {
             updateNormalization(rule);
 
             double originalScore = getValidRuleScore(rule);
-            String originalConsequent = rule.getY();
-            rule.setY(consequentItems[consequentShuffle[i]]);
+            rule.proposeSetY(consequentItems[consequentShuffle.next()]);
             double modifiedScore = getValidRuleScore(rule);
 
             if (isCertaintyHighEnough(modifiedScore, originalScore)) {
+                rule.acceptProposal();
                 break;
             }
 
-            rule.setY(originalConsequent);
+            rule.rejectProposal();
         }
     }
 
@@ -164,11 +284,11 @@ public class SMAS implements ISampler {
     }
 
     protected void updateNormalization(DecisionRule rule) {
-        getNormalizer().normalize(rule.getAlternative().getVector(), NormalizationMethod.NO_NORMALIZATION, true);
+        getNormalizer().update(rule.getAlternative().getVector());
     }
 
     protected void initNormalization() {
-        List<DecisionRule> validRules = getDataset().getRandomValidRules(100, smoothCounts, measureNames);
+        List<DecisionRule> validRules = getDataset().getRandomValidRules(100, smoothCounts, measureNames, getRandom());
 
         for (DecisionRule rule : validRules)
             updateNormalization(rule);
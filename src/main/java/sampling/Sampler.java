@@ -6,4 +6,16 @@ import tools.rules.DecisionRule;
 
 public interface Sampler {
     List<DecisionRule> sample();
+
+    /**
+     * @param cancellationToken The token checked at each iteration, null to run
+     *                          all the iterations.
+     */
+    void setCancellationToken(CancellationToken cancellationToken);
+
+    /**
+     * @return True if the last run was stopped by its cancellation token or by
+     *         an interruption of its thread before its last iteration.
+     */
+    boolean isTruncated();
 }
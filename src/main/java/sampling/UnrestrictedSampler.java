@@ -3,14 +3,20 @@ package sampling;
 import java.util.ArrayList;
 import java.util.List;
 
+import lombok.Getter;
+import lombok.Setter;
 import tools.data.Dataset;
 import tools.rules.DecisionRule;
+import tools.rules.RuleCursor;
 import tools.utils.RandomUtil;
 import tools.utils.RuleUtil;
 
 public class UnrestrictedSampler implements Sampler {
     private Dataset dataset;
     private int numIterations;
+    private @Getter @Setter RandomUtil random = RandomUtil.newStream();
+    private @Getter @Setter CancellationToken cancellationToken;
+    private @Getter boolean truncated;
 
     public UnrestrictedSampler(Dataset dataset, int numIterations) {
         this.dataset = dataset;
@@ -19,10 +25,18 @@ public class UnrestrictedSampler implements Sampler {
 
     public List<DecisionRule> sample() {
         // Initialize with a random rule
-        DecisionRule currentRule = dataset.getRandomValidRules(1, 1.0, new String[] { "support", "confidence" }).get(0);
+        DecisionRule currentRule = dataset.getRandomValidRules(1, 1.0, new String[] { "support", "confidence" }, random)
+                .get(0);
         List<DecisionRule> sample = new ArrayList<>();
+        truncated = false;
 
         for (int iter = 0; iter < numIterations; iter++) {
+            if (Thread.currentThread().isInterrupted()
+                    || (cancellationToken != null && cancellationToken.isCancelled())) {
+                truncated = true;
+                break;
+            }
+
             String[] conseauentsArray = dataset.getConsequentItemsArray();
 
             for (int i = 0; i < conseauentsArray.length; i++) {
@@ -30,7 +44,7 @@ public class UnrestrictedSampler implements Sampler {
 
                 double probability = getConditionalProb(currentRule, consequentValue, "consequent", 1000);
 
-                if (new RandomUtil().Bernoulli(probability)) {
+                if (random.Bernoulli(probability)) {
                     currentRule.setY(consequentValue);
                 }
             }
@@ -42,7 +56,7 @@ public class UnrestrictedSampler implements Sampler {
 
                 double probability = getConditionalProb(currentRule, antecedentValue, "antecedent", 1000);
 
-                if (new RandomUtil().Bernoulli(probability)) {
+                if (random.Bernoulli(probability)) {
                     currentRule.addToX(antecedentValue);
                 }
             }
@@ -70,14 +84,14 @@ public class UnrestrictedSampler implements Sampler {
      * @return The probability that the conditioned item is present.
      */
     public double getConditionalProb(DecisionRule J, String itemValue, String type, double csi) {
-        // Keeping the last class in memory
-        String lastClass = J.getY();
+        // The rule is moved through a cursor so that it can be restored as it was
+        RuleCursor cursor = new RuleCursor(J);
 
         // Returning the conditional probability P(J_s = 0 | J_-s)
         double without = Math.exp(csi * g(J));
 
         // Adding the item to the antecedent or consequent of the rule
-        RuleUtil.addItemToRule(J, itemValue, type);
+        cursor.addItem(itemValue, type);
 
         // Returning the conditional probability P(J_s = 1 | J_-s)
         double with = Math.exp(csi * g(J));
@@ -85,8 +99,8 @@ public class UnrestrictedSampler implements Sampler {
         // Computing the probability P(J_s = 1)
         double probability = with / (with + without);
 
-        // Removing the added item from the rule
-        RuleUtil.removeItemFromRule(J, itemValue, type, lastClass);
+        // Restoring the rule without recomputing its covers
+        cursor.revertAll();
 
         return probability;
     }
@@ -0,0 +1,182 @@
+package sampling.diagnostics;
+
+import java.util.List;
+
+import lombok.Getter;
+
+/**
+ * Streaming convergence diagnostics of the scores visited by a chain, in
+ * constant memory.
+ *
+ * The scores are summarized by their running mean and variance and by at most
+ * MAX_BATCHES batch means. Once all the batches are full, consecutive batches
+ * are merged two by two and the batch size doubles, so that the batches always
+ * cover the whole chain. The diagnostics are then computed from the batch
+ * means:
+ * - The effective sample size, from the variance of the batch means, which
+ * estimates the asymptotic variance of the mean of the chain
+ * - The Geweke z-score, comparing the mean of the first 10% of the chain with
+ * the mean of its last 50%
+ * - The split-R̂ of several chains, each chain being split in two halves whose
+ * draws are the batch means
+ *
+ * The number of iterations since the top-K rules of the chain last changed is
+ * also tracked, to stop a chain once its best rules are stable.
+ */
+public class ChainDiagnostics {
+
+    public static final int MAX_BATCHES = 32; // Even, so that the batches merge two by two
+
+    private @Getter long count;
+    private double mean;
+    private double m2; // Sum of the squared deviations from the mean
+
+    private final double[] batchMeans = new double[MAX_BATCHES];
+    private int nbBatches; // The number of full batches
+    private long batchSize = 1;
+    private double batchSum; // The sum of the scores of the batch being filled
+    private long batchCount;
+
+    private @Getter long iterationsSinceTopKChange;
+
+    /**
+     * Adds the score of an iteration.
+     *
+     * @param score       The score of the current rule.
+     * @param topKChanged True if the top-K rules changed at this iteration.
+     */
+    public void update(double score, boolean topKChanged) {
+        count++;
+        double delta = score - mean;
+        mean += delta / count;
+        m2 += delta * (score - mean);
+
+        batchSum += score;
+        if (++batchCount == batchSize) {
+            if (nbBatches == MAX_BATCHES) {
+                for (int b = 0; b < MAX_BATCHES / 2; b++) {
+                    batchMeans[b] = (batchMeans[2 * b] + batchMeans[2 * b + 1]) / 2;
+                }
+                nbBatches = MAX_BATCHES / 2;
+                batchSize *= 2;
+                // The batch just filled is half of a batch of the new size
+                batchCount = batchSize / 2;
+            } else {
+                batchMeans[nbBatches++] = batchSum / batchSize;
+                batchSum = 0;
+                batchCount = 0;
+            }
+        }
+
+        iterationsSinceTopKChange = topKChanged ? 0 : iterationsSinceTopKChange + 1;
+    }
+
+    /**
+     * @return The mean of the scores.
+     */
+    public double getMean() {
+        return mean;
+    }
+
+    /**
+     * @return The variance of the scores.
+     */
+    public double getVariance() {
+        return count > 1 ? m2 / (count - 1) : 0.0;
+    }
+
+    /**
+     * @return The number of independent scores the chain is worth, at most the
+     *         number of scores. It is the number of scores while there are too
+     *         few batches to estimate it.
+     */
+    public double getEffectiveSampleSize() {
+        double variance = getVariance();
+        if (nbBatches < 2 || variance == 0.0) {
+            return count;
+        }
+        double asymptoticVariance = batchSize * variance(batchMeans, 0, nbBatches);
+        if (asymptoticVariance == 0.0) {
+            return count;
+        }
+        return Math.min(count, count * variance / asymptoticVariance);
+    }
+
+    /**
+     * @return The Geweke z-score of the chain, close to 0 if the first 10% and
+     *         the last 50% of the chain have the same mean, NaN while there are
+     *         too few batches.
+     */
+    public double getGewekeZScore() {
+        int nbFirst = Math.max(2, nbBatches / 10);
+        int nbLast = nbBatches / 2;
+        if (nbLast < 2 || nbFirst + nbLast > nbBatches) {
+            return Double.NaN;
+        }
+        double firstMean = mean(batchMeans, 0, nbFirst);
+        double lastMean = mean(batchMeans, nbBatches - nbLast, nbBatches);
+        // The variance of the batch means is estimated on the last half, assumed
+        // stationary, the first segment holding too few batches to estimate it
+        double standardError = Math.sqrt(variance(batchMeans, nbBatches - nbLast, nbBatches)
+                * (1.0 / nbFirst + 1.0 / nbLast));
+        if (standardError == 0.0) {
+            return firstMean == lastMean ? 0.0 : Double.POSITIVE_INFINITY * Math.signum(firstMean - lastMean);
+        }
+        return (firstMean - lastMean) / standardError;
+    }
+
+    /**
+     * Computes the split-R̂ of several chains, each chain being split in two
+     * halves. The halves are truncated to the same number of batch means.
+     *
+     * @param chains The diagnostics of the chains.
+     * @return The potential scale reduction, close to 1 once the chains mix, NaN
+     *         while there are too few batches.
+     */
+    public static double getSplitRHat(List<ChainDiagnostics> chains) {
+        int length = Integer.MAX_VALUE;
+        for (ChainDiagnostics chain : chains) {
+            length = Math.min(length, chain.nbBatches / 2);
+        }
+        if (chains.isEmpty() || length < 2) {
+            return Double.NaN;
+        }
+
+        int nbHalves = 2 * chains.size();
+        double[] halfMeans = new double[nbHalves];
+        double withinVariance = 0;
+        for (int c = 0; c < chains.size(); c++) {
+            ChainDiagnostics chain = chains.get(c);
+            int start = chain.nbBatches - 2 * length; // The oldest batches are dropped
+            for (int h = 0; h < 2; h++) {
+                int from = start + h * length;
+                halfMeans[2 * c + h] = mean(chain.batchMeans, from, from + length);
+                withinVariance += variance(chain.batchMeans, from, from + length);
+            }
+        }
+        withinVariance /= nbHalves;
+        double betweenVariance = length * variance(halfMeans, 0, nbHalves);
+        if (withinVariance == 0.0) {
+            return betweenVariance == 0.0 ? 1.0 : Double.POSITIVE_INFINITY;
+        }
+        double pooledVariance = (length - 1.0) / length * withinVariance + betweenVariance / length;
+        return Math.sqrt(pooledVariance / withinVariance);
+    }
+
+    private static double mean(double[] values, int from, int to) {
+        double sum = 0;
+        for (int i = from; i < to; i++) {
+            sum += values[i];
+        }
+        return sum / (to - from);
+    }
+
+    private static double variance(double[] values, int from, int to) {
+        double mean = mean(values, from, to);
+        double sum = 0;
+        for (int i = from; i < to; i++) {
+            sum += (values[i] - mean) * (values[i] - mean);
+        }
+        return sum / (to - from - 1);
+    }
+}
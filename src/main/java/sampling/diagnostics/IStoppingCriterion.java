@@ -0,0 +1,15 @@
+package sampling.diagnostics;
+
+/**
+ * Decides when a chain has sampled enough, from its diagnostics, before it
+ * reaches its maximum number of iterations.
+ */
+public interface IStoppingCriterion {
+
+    /**
+     * @param diagnostics The diagnostics of the chain, updated at each iteration.
+     * @return True if the chain can stop.
+     */
+    boolean shouldStop(ChainDiagnostics diagnostics);
+
+}
@@ -0,0 +1,33 @@
+package sampling.diagnostics;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Stops a chain once its top-K rules have not changed for a number of
+ * iterations, after a minimum number of iterations and, optionally, once the
+ * scores visited are worth a minimum effective sample size.
+ */
+public class StableTopKCriterion implements IStoppingCriterion {
+
+    private @Getter @Setter long minIterations;
+    private @Getter @Setter long patience; // The iterations without a change of the top-K
+    private @Getter @Setter double minEffectiveSampleSize = 0;
+
+    /**
+     * @param minIterations The number of iterations before the chain can stop.
+     * @param patience      The number of iterations without a change of the top-K
+     *                      rules after which the chain stops.
+     */
+    public StableTopKCriterion(long minIterations, long patience) {
+        this.minIterations = minIterations;
+        this.patience = patience;
+    }
+
+    @Override
+    public boolean shouldStop(ChainDiagnostics diagnostics) {
+        return diagnostics.getCount() >= minIterations
+                && diagnostics.getIterationsSinceTopKChange() >= patience
+                && diagnostics.getEffectiveSampleSize() >= minEffectiveSampleSize;
+    }
+}
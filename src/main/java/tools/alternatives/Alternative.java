@@ -1,11 +1,9 @@
 package tools.alternatives;
 
 import java.util.Arrays;
-import java.util.Comparator;
-import java.util.stream.IntStream;
 
 import lombok.Getter;
-import lombok.Setter;
+import tools.utils.AlternativeUtil;
 
 /**
  * The alternative class is used to efficiently encode an alternative.
@@ -17,7 +15,6 @@ import lombok.Setter;
 public class Alternative implements IAlternative {
 
     @Getter
-    @Setter
     private double[] vector;
 
     /**
@@ -55,15 +52,21 @@ public class Alternative implements IAlternative {
         return new double[length];
     }
 
+    /**
+     * Sets the vector, which may be the same array with new values, the ordered
+     * permutation being computed again on the next request.
+     *
+     * @param vector The vector representing the alternative.
+     */
+    public void setVector(double[] vector) {
+        this.vector = vector;
+        this.orderedPermutation = null;
+    }
+
     @Override
     public int[] getOrderedPermutation() {
         if (orderedPermutation == null) {
-            orderedPermutation = IntStream
-                    .range(0, vector.length)
-                    .boxed()
-                    .sorted(Comparator.comparingDouble(i -> vector[i]))
-                    .mapToInt(i -> i)
-                    .toArray();
+            orderedPermutation = AlternativeUtil.orderPermutation(vector, 0, vector.length, new int[vector.length]);
         }
         return orderedPermutation;
     }
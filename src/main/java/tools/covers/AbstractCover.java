@@ -0,0 +1,56 @@
+package tools.covers;
+
+/**
+ * Base class of the cover containers. Two covers are equal when they contain
+ * the same transactions, whatever their containers.
+ */
+public abstract class AbstractCover implements ICover {
+
+    private int hash; // Cached hash code, 0 if not computed yet
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (!(obj instanceof ICover))
+            return false;
+        ICover other = (ICover) obj;
+        if (cardinality() != other.cardinality())
+            return false;
+
+        int i = nextSetBit(0);
+        int j = other.nextSetBit(0);
+        while (i >= 0) {
+            if (i != j)
+                return false;
+            i = nextSetBit(i + 1);
+            j = other.nextSetBit(j + 1);
+        }
+        return j < 0;
+    }
+
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if (h == 0) {
+            h = 1;
+            for (int i = nextSetBit(0); i >= 0; i = nextSetBit(i + 1)) {
+                h = 31 * h + i;
+            }
+            hash = h;
+        }
+        return h;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("{");
+        for (int i = nextSetBit(0); i >= 0; i = nextSetBit(i + 1)) {
+            if (builder.length() > 1) {
+                builder.append(", ");
+            }
+            builder.append(i);
+        }
+        return builder.append('}').toString();
+    }
+}
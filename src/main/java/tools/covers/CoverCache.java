@@ -0,0 +1,413 @@
+package tools.covers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+import lombok.Getter;
+
+/**
+ * Thread-safe cache of the covers of itemsets, shared by all the rules built on
+ * a dataset so that an itemset whose cover was computed by a rule, a chain or a
+ * thread is never recomputed by another one.
+ *
+ * The covers are stored in a trie ordered by item id, each node holding the
+ * cover of the itemset made of the items on its path. The cover of a missing
+ * itemset is derived from its longest cached prefix, one intersection per
+ * missing item, and the covers of the intermediate prefixes are cached on the
+ * way. A sampler adding the items of a rule one at a time thus only computes
+ * one intersection per step.
+ *
+ * The cache is bounded by the approximate memory of the covers it holds. When
+ * the bound is exceeded, the least recently used covers are evicted, leaves
+ * first, until a quarter of the memory is freed, so that evictions are
+ * amortized over many insertions.
+ *
+ * Recency is approximate: the clock ordering the nodes only ticks when a cover
+ * is stored, and a lookup stamps the nodes it visits with the current time
+ * without ticking it, so that hits write nothing shared. The covers looked up
+ * since the same insertion are thus equally recent.
+ */
+public class CoverCache {
+
+    public static final long DEFAULT_MAX_WEIGHT = 64L << 20; // 64 MB
+
+    // Approximate memory taken by a node besides its cover
+    private static final long NODE_OVERHEAD = 128;
+
+    private final Node root = new Node(-1, null);
+    private final @Getter long maxWeight; // The bound on the memory of the cached covers, in bytes
+    private final AtomicLong weight = new AtomicLong(); // The memory of the cached covers, in bytes
+    private final AtomicInteger size = new AtomicInteger(); // The number of cached covers
+    private final AtomicLong clock = new AtomicLong(); // Incremented on each insertion, to order the nodes
+
+    // Lookups and insertions share the lock, evictions take it exclusively so
+    // that no cover is added below a node being removed
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder prefixHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public CoverCache() {
+        this(DEFAULT_MAX_WEIGHT);
+    }
+
+    /**
+     * @param maxWeight The bound on the memory of the cached covers, in bytes.
+     */
+    public CoverCache(long maxWeight) {
+        this.maxWeight = maxWeight;
+    }
+
+    private static final class Node {
+        private final int itemId;
+        private final Node parent;
+        private final int depth;
+        private final ConcurrentHashMap<Integer, Node> children = new ConcurrentHashMap<>(4);
+        private volatile ICover cover; // The cover of the prefix, null if it is not cached
+        private volatile long weight;
+        private volatile long lastAccess;
+
+        private Node(int itemId, Node parent) {
+            this.itemId = itemId;
+            this.parent = parent;
+            this.depth = parent == null ? 0 : parent.depth + 1;
+        }
+
+        private Node getOrCreateChild(int itemId) {
+            Node child = children.get(itemId);
+            return child != null ? child : children.computeIfAbsent(itemId, id -> new Node(id, this));
+        }
+    }
+
+    /**
+     * @param key The key of the itemset.
+     * @return The cached cover of the itemset, or null if it is not in the cache.
+     */
+    public ICover get(ItemsetKey key) {
+        lock.readLock().lock();
+        try {
+            Node node = find(key);
+            ICover cover = node == null ? null : node.cover;
+            if (cover == null) {
+                misses.increment();
+            } else {
+                hits.increment();
+            }
+            return cover;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds the cover of an itemset to the cache, unless it is already there.
+     *
+     * @param key   The key of the itemset.
+     * @param cover The cover of the itemset.
+     */
+    public void put(ItemsetKey key, ICover cover) {
+        if (key.size() == 0) {
+            return;
+        }
+        boolean overweight;
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            long now = clock.get();
+            for (int k = 0; k < key.size(); k++) {
+                node = node.getOrCreateChild(key.getItemId(k));
+                touch(node, now);
+            }
+            overweight = store(node, cover);
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (overweight) {
+            evict();
+        }
+    }
+
+    /**
+     * Returns the cached cover of an itemset, computing and caching it on a miss.
+     * The computation is done outside of the trie, so two threads missing the same
+     * itemset at the same time may both compute it.
+     *
+     * @param key         The key of the itemset.
+     * @param computation The computation of the cover.
+     * @return The cover of the itemset.
+     */
+    public ICover get(ItemsetKey key, Supplier<ICover> computation) {
+        ICover cover = get(key);
+        if (cover == null) {
+            cover = computation.get();
+            put(key, cover);
+        }
+        return cover;
+    }
+
+    /**
+     * Returns the cover of an itemset, deriving it from its longest cached prefix
+     * on a miss. Each missing item is intersected in turn, the cover of every new
+     * prefix being cached. The covers of single items are already held by the
+     * caller, so they are neither cached nor weighed: a walk without a cached
+     * prefix starts from the cover of the first item.
+     *
+     * @param key        The key of the non-empty itemset.
+     * @param itemCovers The function giving the cover of an item from its id.
+     * @return The cover of the itemset.
+     */
+    public ICover get(ItemsetKey key, IntFunction<ICover> itemCovers) {
+        if (key.size() == 0) {
+            throw new IllegalArgumentException("The cover of the empty itemset is not cached.");
+        }
+        if (key.size() == 1) {
+            return itemCovers.apply(key.getItemId(0));
+        }
+        boolean overweight = false;
+        ICover cover;
+        lock.readLock().lock();
+        try {
+            // Walk down to the longest cached prefix
+            long now = clock.get();
+            Node node = root;
+            Node deepest = null;
+            ICover deepestCover = null;
+            for (int k = 0; k < key.size(); k++) {
+                node = node.children.get(key.getItemId(k));
+                if (node == null) {
+                    break;
+                }
+                touch(node, now);
+                ICover nodeCover = node.cover;
+                if (nodeCover != null) {
+                    deepest = node;
+                    deepestCover = nodeCover;
+                }
+            }
+
+            int depth = deepest == null ? 0 : deepest.depth;
+            if (depth == key.size()) {
+                hits.increment();
+                return deepestCover;
+            }
+            misses.increment();
+            if (depth > 0) {
+                prefixHits.increment();
+                node = deepest;
+                cover = deepestCover;
+            } else {
+                int itemId = key.getItemId(0);
+                node = root.getOrCreateChild(itemId);
+                touch(node, now);
+                cover = itemCovers.apply(itemId);
+                depth = 1;
+            }
+
+            // Intersect the missing items one at a time, caching each new prefix
+            for (int k = depth; k < key.size(); k++) {
+                int itemId = key.getItemId(k);
+                cover = CoverReducer.and(cover, itemCovers.apply(itemId));
+                node = node.getOrCreateChild(itemId);
+                touch(node, now);
+                overweight |= store(node, cover);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (overweight) {
+            evict();
+        }
+        return cover;
+    }
+
+    /**
+     * @return The node of the itemset, or null if there is none.
+     */
+    private Node find(ItemsetKey key) {
+        if (key.size() == 0) {
+            return null;
+        }
+        long now = clock.get();
+        Node node = root;
+        for (int k = 0; k < key.size() && node != null; k++) {
+            node = node.children.get(key.getItemId(k));
+            if (node != null) {
+                touch(node, now);
+            }
+        }
+        return node;
+    }
+
+    /**
+     * Stamps a node with the current time, writing it only if the node was not
+     * stamped since the last tick of the clock.
+     */
+    private static void touch(Node node, long now) {
+        if (node.lastAccess < now) {
+            node.lastAccess = now;
+        }
+    }
+
+    /**
+     * Stores a cover in a node unless it already has one.
+     *
+     * @return True if the cache now exceeds its memory bound.
+     */
+    private boolean store(Node node, ICover cover) {
+        long nodeWeight = cover.getSizeInBytes() + NODE_OVERHEAD;
+        if (nodeWeight > maxWeight) {
+            return false;
+        }
+        synchronized (node) {
+            if (node.cover != null) {
+                return false;
+            }
+            node.weight = nodeWeight;
+            node.cover = cover;
+            node.lastAccess = clock.incrementAndGet();
+        }
+        size.incrementAndGet();
+        return weight.addAndGet(nodeWeight) > maxWeight;
+    }
+
+    /**
+     * Evicts the least recently used covers, deepest first on ties so that the
+     * leaves leave before their prefixes, until a quarter of the memory bound is
+     * free. The nodes left without cover nor children are removed from the trie.
+     */
+    private void evict() {
+        lock.writeLock().lock();
+        try {
+            if (weight.get() <= maxWeight) {
+                return;
+            }
+            long target = maxWeight - maxWeight / 4;
+
+            List<Node> cached = new ArrayList<>(size.get());
+            collectCached(root, cached);
+            cached.sort((a, b) -> a.lastAccess != b.lastAccess ? Long.compare(a.lastAccess, b.lastAccess)
+                    : Integer.compare(b.depth, a.depth));
+
+            for (Node node : cached) {
+                if (weight.get() <= target) {
+                    break;
+                }
+                removeCover(node);
+                evictions.increment();
+                prune(node);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void collectCached(Node node, List<Node> cached) {
+        for (Node child : node.children.values()) {
+            if (child.cover != null) {
+                cached.add(child);
+            }
+            collectCached(child, cached);
+        }
+    }
+
+    private void removeCover(Node node) {
+        node.cover = null;
+        weight.addAndGet(-node.weight);
+        size.decrementAndGet();
+    }
+
+    /**
+     * Removes a node and its ancestors as long as they have neither a cover nor
+     * children.
+     */
+    private static void prune(Node node) {
+        while (node.parent != null && node.cover == null && node.children.isEmpty()) {
+            node.parent.children.remove(node.itemId, node);
+            node = node.parent;
+        }
+    }
+
+    /**
+     * Removes all the covers from the cache, the counters being kept.
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            root.children.clear();
+            weight.set(0);
+            size.set(0);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return The number of cached covers.
+     */
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * @return The approximate memory of the cached covers, in bytes.
+     */
+    public long getWeight() {
+        return weight.get();
+    }
+
+    /**
+     * @return The number of lookups that found their cover.
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * @return The number of lookups that did not find their cover.
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * @return The number of missed covers derived from a cached prefix rather
+     *         than from the covers of the items.
+     */
+    public long getPrefixHitCount() {
+        return prefixHits.sum();
+    }
+
+    /**
+     * @return The number of covers evicted to respect the memory bound.
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return The proportion of lookups that found their cover, 0 if there was
+     *         none.
+     */
+    public double getHitRate() {
+        long nbHits = getHitCount();
+        long nbLookups = nbHits + getMissCount();
+        return nbLookups == 0 ? 0 : (double) nbHits / nbLookups;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CoverCache[size=%d, weight=%d/%d, hits=%d, prefixHits=%d, misses=%d, evictions=%d]",
+                size(), getWeight(), maxWeight, getHitCount(), getPrefixHitCount(), getMissCount(),
+                getEvictionCount());
+    }
+}
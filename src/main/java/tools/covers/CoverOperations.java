@@ -0,0 +1,331 @@
+package tools.covers;
+
+import java.util.Arrays;
+
+import tools.utils.CoverUtil;
+
+/**
+ * Intersection kernels for each pair of cover containers, either materializing
+ * the intersection or only counting it.
+ */
+final class CoverOperations {
+
+    // Above this size ratio, sorted arrays are intersected by binary searches
+    private static final int GALLOPING_RATIO = 16;
+
+    private CoverOperations() {
+    }
+
+    /**
+     * Computes the intersection of two covers, dispatching on their containers.
+     *
+     * @param a The first cover.
+     * @param b The second cover.
+     * @return A new cover containing the transactions of both covers.
+     */
+    static ICover and(ICover a, ICover b) {
+        if (a instanceof SparseCover) {
+            return b instanceof SparseCover ? and((SparseCover) a, (SparseCover) b) : filter((SparseCover) a, b);
+        }
+        if (b instanceof SparseCover) {
+            return filter((SparseCover) b, a);
+        }
+        if (a instanceof DenseCover) {
+            return b instanceof DenseCover ? and((DenseCover) a, (DenseCover) b)
+                    : and((DenseCover) a, (RunLengthCover) b);
+        }
+        return b instanceof DenseCover ? and((DenseCover) b, (RunLengthCover) a)
+                : and((RunLengthCover) a, (RunLengthCover) b);
+    }
+
+    private static ICover and(DenseCover a, DenseCover b) {
+        long[] wordsA = a.getWords();
+        long[] wordsB = b.getWords();
+        long[] words = new long[Math.min(wordsA.length, wordsB.length)];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = wordsA[i] & wordsB[i];
+        }
+        return CoverUtil.fromWords(words, Math.min(a.getLength(), b.getLength()));
+    }
+
+    private static ICover and(DenseCover a, RunLengthCover b) {
+        long[] wordsA = a.getWords();
+        long[] words = new long[wordsA.length];
+        int[] starts = b.getStarts();
+        int[] ends = b.getEnds();
+        int limit = wordsA.length << 6;
+
+        for (int run = 0; run < starts.length && starts[run] < limit; run++) {
+            int from = starts[run];
+            int to = Math.min(ends[run], limit);
+            int firstWord = from >>> 6;
+            int lastWord = (to - 1) >>> 6;
+            for (int w = firstWord; w <= lastWord; w++) {
+                long mask = -1L;
+                if (w == firstWord) {
+                    mask &= -1L << from;
+                }
+                if (w == lastWord) {
+                    mask &= -1L >>> -to;
+                }
+                words[w] |= wordsA[w] & mask;
+            }
+        }
+        return CoverUtil.fromWords(words, Math.min(a.getLength(), b.getLength()));
+    }
+
+    private static ICover and(RunLengthCover a, RunLengthCover b) {
+        int[] startsA = a.getStarts(), endsA = a.getEnds();
+        int[] startsB = b.getStarts(), endsB = b.getEnds();
+        int capacity = startsA.length + startsB.length;
+        int[] starts = new int[capacity];
+        int[] ends = new int[capacity];
+        int nbRuns = 0;
+
+        int i = 0, j = 0;
+        while (i < startsA.length && j < startsB.length) {
+            int start = Math.max(startsA[i], startsB[j]);
+            int end = Math.min(endsA[i], endsB[j]);
+            if (start < end) {
+                starts[nbRuns] = start;
+                ends[nbRuns++] = end;
+            }
+            // Move past the run ending first
+            if (endsA[i] < endsB[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return CoverUtil.fromRuns(starts, ends, nbRuns, Math.min(a.getLength(), b.getLength()));
+    }
+
+    private static ICover and(SparseCover a, SparseCover b) {
+        if (a.cardinality() > b.cardinality()) {
+            SparseCover swap = a;
+            a = b;
+            b = swap;
+        }
+        int[] small = a.getIndexes();
+        int[] large = b.getIndexes();
+        int[] indexes = new int[small.length];
+        int count = 0;
+
+        if ((long) small.length * GALLOPING_RATIO < large.length) {
+            int from = 0;
+            for (int index : small) {
+                int position = Arrays.binarySearch(large, from, large.length, index);
+                if (position >= 0) {
+                    indexes[count++] = index;
+                    from = position + 1;
+                } else {
+                    from = -position - 1;
+                }
+                if (from == large.length) {
+                    break;
+                }
+            }
+        } else {
+            int i = 0, j = 0;
+            while (i < small.length && j < large.length) {
+                if (small[i] < large[j]) {
+                    i++;
+                } else if (small[i] > large[j]) {
+                    j++;
+                } else {
+                    indexes[count++] = small[i];
+                    i++;
+                    j++;
+                }
+            }
+        }
+        return new SparseCover(Arrays.copyOf(indexes, count), Math.min(a.getLength(), b.getLength()));
+    }
+
+    /**
+     * Keeps the transactions of a sorted array that are in the other cover.
+     */
+    private static ICover filter(SparseCover a, ICover b) {
+        int[] source = a.getIndexes();
+        int[] indexes = new int[source.length];
+        int count = 0;
+
+        if (b instanceof RunLengthCover) {
+            int[] starts = ((RunLengthCover) b).getStarts();
+            int[] ends = ((RunLengthCover) b).getEnds();
+            int run = 0;
+            for (int index : source) {
+                while (run < ends.length && ends[run] <= index) {
+                    run++;
+                }
+                if (run == ends.length) {
+                    break;
+                }
+                if (starts[run] <= index) {
+                    indexes[count++] = index;
+                }
+            }
+        } else {
+            for (int index : source) {
+                if (b.contains(index)) {
+                    indexes[count++] = index;
+                }
+            }
+        }
+        return new SparseCover(Arrays.copyOf(indexes, count), Math.min(a.getLength(), b.getLength()));
+    }
+
+    /**
+     * Counts the transactions of the intersection of two covers without
+     * allocating anything, dispatching on their containers.
+     *
+     * @param a The first cover.
+     * @param b The second cover.
+     * @return The cardinality of the intersection.
+     */
+    static int andCardinality(ICover a, ICover b) {
+        if (a instanceof SparseCover) {
+            return b instanceof SparseCover ? andCardinality((SparseCover) a, (SparseCover) b)
+                    : filterCardinality((SparseCover) a, b);
+        }
+        if (b instanceof SparseCover) {
+            return filterCardinality((SparseCover) b, a);
+        }
+        if (a instanceof DenseCover) {
+            return b instanceof DenseCover ? andCardinality((DenseCover) a, (DenseCover) b)
+                    : andCardinality((DenseCover) a, (RunLengthCover) b);
+        }
+        return b instanceof DenseCover ? andCardinality((DenseCover) b, (RunLengthCover) a)
+                : andCardinality((RunLengthCover) a, (RunLengthCover) b);
+    }
+
+    private static int andCardinality(DenseCover a, DenseCover b) {
+        long[] wordsA = a.getWords();
+        long[] wordsB = b.getWords();
+        int nbWords = Math.min(wordsA.length, wordsB.length);
+        int count = 0;
+        for (int i = 0; i < nbWords; i++) {
+            count += Long.bitCount(wordsA[i] & wordsB[i]);
+        }
+        return count;
+    }
+
+    private static int andCardinality(DenseCover a, RunLengthCover b) {
+        long[] wordsA = a.getWords();
+        int[] starts = b.getStarts();
+        int[] ends = b.getEnds();
+        int limit = wordsA.length << 6;
+        int count = 0;
+
+        for (int run = 0; run < starts.length && starts[run] < limit; run++) {
+            int from = starts[run];
+            int to = Math.min(ends[run], limit);
+            int firstWord = from >>> 6;
+            int lastWord = (to - 1) >>> 6;
+            if (firstWord == lastWord) {
+                count += Long.bitCount(wordsA[firstWord] & (-1L << from) & (-1L >>> -to));
+            } else {
+                count += Long.bitCount(wordsA[firstWord] & (-1L << from));
+                for (int w = firstWord + 1; w < lastWord; w++) {
+                    count += Long.bitCount(wordsA[w]);
+                }
+                count += Long.bitCount(wordsA[lastWord] & (-1L >>> -to));
+            }
+        }
+        return count;
+    }
+
+    private static int andCardinality(RunLengthCover a, RunLengthCover b) {
+        int[] startsA = a.getStarts(), endsA = a.getEnds();
+        int[] startsB = b.getStarts(), endsB = b.getEnds();
+        int count = 0;
+
+        int i = 0, j = 0;
+        while (i < startsA.length && j < startsB.length) {
+            int start = Math.max(startsA[i], startsB[j]);
+            int end = Math.min(endsA[i], endsB[j]);
+            if (start < end) {
+                count += end - start;
+            }
+            if (endsA[i] < endsB[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return count;
+    }
+
+    private static int andCardinality(SparseCover a, SparseCover b) {
+        int[] small = a.getIndexes();
+        int[] large = b.getIndexes();
+        if (small.length > large.length) {
+            int[] swap = small;
+            small = large;
+            large = swap;
+        }
+        int count = 0;
+
+        if ((long) small.length * GALLOPING_RATIO < large.length) {
+            int from = 0;
+            for (int index : small) {
+                int position = Arrays.binarySearch(large, from, large.length, index);
+                if (position >= 0) {
+                    count++;
+                    from = position + 1;
+                } else {
+                    from = -position - 1;
+                }
+                if (from == large.length) {
+                    break;
+                }
+            }
+        } else {
+            int i = 0, j = 0;
+            while (i < small.length && j < large.length) {
+                if (small[i] < large[j]) {
+                    i++;
+                } else if (small[i] > large[j]) {
+                    j++;
+                } else {
+                    count++;
+                    i++;
+                    j++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Counts the transactions of a sorted array that are in the other cover.
+     */
+    private static int filterCardinality(SparseCover a, ICover b) {
+        int[] source = a.getIndexes();
+        int count = 0;
+
+        if (b instanceof RunLengthCover) {
+            int[] starts = ((RunLengthCover) b).getStarts();
+            int[] ends = ((RunLengthCover) b).getEnds();
+            int run = 0;
+            for (int index : source) {
+                while (run < ends.length && ends[run] <= index) {
+                    run++;
+                }
+                if (run == ends.length) {
+                    break;
+                }
+                if (starts[run] <= index) {
+                    count++;
+                }
+            }
+        } else {
+            for (int index : source) {
+                if (b.contains(index)) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,161 @@
+package tools.covers;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.RecursiveTask;
+
+import tools.utils.CoverUtil;
+
+/**
+ * Intersection of several covers at once. The covers are intersected from the
+ * smallest to the largest, so that the intermediate covers shrink as fast as
+ * possible and the reduction stops as soon as one of them is empty. The bitmaps
+ * are intersected in a single pass over their words, split between the threads
+ * of the common fork/join pool when they are large enough.
+ */
+public final class CoverReducer {
+
+    // Below this number of words, splitting the bitmaps costs more than it saves.
+    // On 2 to 5 bitmaps, the fork/join pass is up to 20% slower than the plain
+    // loop at 16K words and twice as fast from 64K words (4M transactions).
+    static final int PARALLEL_THRESHOLD_WORDS = 1 << 14;
+
+    // Number of words intersected by a task without splitting further
+    private static final int LEAF_WORDS = 1 << 12;
+
+    private static final Comparator<ICover> BY_CARDINALITY = Comparator.comparingInt(ICover::cardinality);
+
+    private CoverReducer() {
+    }
+
+    /**
+     * Computes the intersection of two covers.
+     *
+     * @param a The first cover.
+     * @param b The second cover.
+     * @return A new cover containing the transactions of both covers.
+     */
+    public static ICover and(ICover a, ICover b) {
+        if (a instanceof DenseCover && b instanceof DenseCover
+                && ((DenseCover) a).getWords().length >= PARALLEL_THRESHOLD_WORDS) {
+            return andDense(new DenseCover[] { (DenseCover) a, (DenseCover) b }, 2);
+        }
+        return a.and(b);
+    }
+
+    /**
+     * Computes the intersection of covers, smallest first.
+     *
+     * @param covers The covers to intersect, which are left untouched.
+     * @param count  The number of covers to take from the array.
+     * @param length The number of transactions of the dataset.
+     * @return A new cover containing the transactions of all the covers, or all
+     *         the transactions if there is no cover.
+     */
+    public static ICover reduce(ICover[] covers, int count, int length) {
+        if (count == 0) {
+            return CoverUtil.createAllOnes(length);
+        }
+        ICover[] sorted = Arrays.copyOf(covers, count);
+        Arrays.sort(sorted, BY_CARDINALITY);
+
+        // The bitmaps are intersected together in one pass, the other containers
+        // filtering the result
+        ICover result = null;
+        int first = 0;
+        if (sorted[0] instanceof DenseCover && count > 1) {
+            DenseCover[] dense = new DenseCover[count];
+            int nbDense = 0;
+            for (int i = 0; i < count; i++) {
+                if (sorted[i] instanceof DenseCover) {
+                    dense[nbDense++] = (DenseCover) sorted[i];
+                    sorted[i] = null;
+                }
+            }
+            if (nbDense > 1) {
+                result = andDense(dense, nbDense);
+            } else {
+                sorted[0] = dense[0];
+            }
+        }
+        if (result == null) {
+            result = sorted[0];
+            first = 1;
+        }
+
+        for (int i = first; i < count && result.cardinality() > 0; i++) {
+            if (sorted[i] != null) {
+                result = result.and(sorted[i]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Intersects bitmaps in a single pass over their words.
+     */
+    private static ICover andDense(DenseCover[] covers, int count) {
+        long[][] words = new long[count][];
+        int nbWords = Integer.MAX_VALUE;
+        int length = Integer.MAX_VALUE;
+        for (int k = 0; k < count; k++) {
+            words[k] = covers[k].getWords();
+            nbWords = Math.min(nbWords, words[k].length);
+            length = Math.min(length, covers[k].getLength());
+        }
+
+        long[] result = new long[nbWords];
+        AndTask task = new AndTask(words, result, 0, nbWords);
+        if (nbWords >= PARALLEL_THRESHOLD_WORDS) {
+            task.invoke();
+        } else {
+            task.computeDirectly();
+        }
+        return CoverUtil.fromWords(result, length);
+    }
+
+    /**
+     * Intersects a range of words of the bitmaps, splitting it in halves until
+     * it is small enough.
+     */
+    private static final class AndTask extends RecursiveTask<Void> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final long[][] words;
+        private final long[] result;
+        private final int from, to;
+
+        private AndTask(long[][] words, long[] result, int from, int to) {
+            this.words = words;
+            this.result = result;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Void compute() {
+            if (to - from <= LEAF_WORDS) {
+                computeDirectly();
+                return null;
+            }
+            int middle = (from + to) >>> 1;
+            AndTask left = new AndTask(words, result, from, middle);
+            left.fork();
+            new AndTask(words, result, middle, to).compute();
+            left.join();
+            return null;
+        }
+
+        private void computeDirectly() {
+            long[] first = words[0];
+            for (int i = from; i < to; i++) {
+                long word = first[i];
+                for (int k = 1; k < words.length && word != 0; k++) {
+                    word &= words[k][i];
+                }
+                result[i] = word;
+            }
+        }
+    }
+}
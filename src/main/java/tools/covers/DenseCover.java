@@ -0,0 +1,85 @@
+package tools.covers;
+
+import java.util.function.IntConsumer;
+
+import lombok.Getter;
+
+/**
+ * Cover stored as a plain bitmap, one bit per transaction. Used for items that
+ * appear in a large part of the transactions (ex: class items).
+ */
+public class DenseCover extends AbstractCover {
+
+    private final @Getter long[] words; // Bit i of words[i >>> 6] is set if transaction i is in the cover
+    private final @Getter int length;
+    private final int cardinality;
+
+    /**
+     * @param words       The bitmap, which is not copied.
+     * @param length      The number of transactions of the dataset.
+     * @param cardinality The number of bits set in the bitmap.
+     */
+    public DenseCover(long[] words, int length, int cardinality) {
+        this.words = words;
+        this.length = length;
+        this.cardinality = cardinality;
+    }
+
+    @Override
+    public int cardinality() {
+        return cardinality;
+    }
+
+    @Override
+    public boolean contains(int index) {
+        int wordIndex = index >>> 6;
+        return wordIndex < words.length && (words[wordIndex] & (1L << index)) != 0;
+    }
+
+    @Override
+    public int nextSetBit(int fromIndex) {
+        int wordIndex = fromIndex >>> 6;
+        if (wordIndex >= words.length) {
+            return -1;
+        }
+
+        long word = words[wordIndex] & (-1L << fromIndex);
+        while (word == 0) {
+            if (++wordIndex == words.length) {
+                return -1;
+            }
+            word = words[wordIndex];
+        }
+        return (wordIndex << 6) + Long.numberOfTrailingZeros(word);
+    }
+
+    @Override
+    public int[] toArray() {
+        int[] indexes = new int[cardinality];
+        int k = 0;
+        for (int wordIndex = 0; wordIndex < words.length; wordIndex++) {
+            long word = words[wordIndex];
+            while (word != 0) {
+                indexes[k++] = (wordIndex << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+        }
+        return indexes;
+    }
+
+    @Override
+    public long getSizeInBytes() {
+        return 8L * words.length;
+    }
+
+    @Override
+    public void forEach(IntConsumer action) {
+        for (int wordIndex = 0; wordIndex < words.length; wordIndex++) {
+            long word = words[wordIndex];
+            while (word != 0) {
+                action.accept((wordIndex << 6) + Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package tools.covers;
+
+import java.util.function.IntConsumer;
+
+/**
+ * The cover of an itemset, i.e. the set of indexes of the transactions that
+ * contain it. Covers are immutable: operations return new covers, so they can
+ * be shared between rules, memoization maps and threads without being copied.
+ */
+public interface ICover {
+
+    /**
+     * @return The number of transactions of the dataset the cover refers to.
+     */
+    int getLength();
+
+    /**
+     * @return The number of transactions in the cover.
+     */
+    int cardinality();
+
+    /**
+     * @param index The index of a transaction.
+     * @return True if the transaction is in the cover.
+     */
+    boolean contains(int index);
+
+    /**
+     * @param fromIndex The index to start the search from (inclusive).
+     * @return The first transaction of the cover at or after fromIndex, or -1 if
+     *         there is none.
+     */
+    int nextSetBit(int fromIndex);
+
+    /**
+     * @return The indexes of the transactions in the cover, in increasing order.
+     */
+    int[] toArray();
+
+    /**
+     * @return The approximate memory taken by the container of the cover, used to
+     *         bound the memory of the cover caches.
+     */
+    long getSizeInBytes();
+
+    /**
+     * Calls the action on each transaction of the cover, in increasing order.
+     *
+     * @param action The action to call with the index of each transaction.
+     */
+    default void forEach(IntConsumer action) {
+        for (int i = nextSetBit(0); i >= 0; i = nextSetBit(i + 1)) {
+            action.accept(i);
+        }
+    }
+
+    /**
+     * Computes the intersection of two covers using the fastest kernel for the
+     * pair of containers.
+     *
+     * @param other The other cover.
+     * @return A new cover containing the transactions of both covers.
+     */
+    default ICover and(ICover other) {
+        return CoverOperations.and(this, other);
+    }
+
+    /**
+     * Computes the cardinality of the intersection of two covers without
+     * materializing it.
+     *
+     * @param other The other cover.
+     * @return The number of transactions in both covers.
+     */
+    default int andCardinality(ICover other) {
+        return CoverOperations.andCardinality(this, other);
+    }
+}
@@ -0,0 +1,74 @@
+package tools.covers;
+
+import java.util.Arrays;
+
+/**
+ * Canonical key of an itemset: the sorted ids of its items. Two itemsets
+ * containing the same items have equal keys, whatever the order in which the
+ * items were added.
+ */
+public final class ItemsetKey {
+
+    private final int[] itemIds; // The ids of the items in increasing order
+    private final int hash;
+
+    private ItemsetKey(int[] itemIds) {
+        this.itemIds = itemIds;
+        this.hash = Arrays.hashCode(itemIds);
+    }
+
+    /**
+     * @param itemIds The ids of the items, in any order, which are copied.
+     * @param count   The number of ids to take from the array.
+     * @return The key of the itemset.
+     */
+    public static ItemsetKey of(int[] itemIds, int count) {
+        int[] sorted = Arrays.copyOf(itemIds, count);
+        Arrays.sort(sorted);
+        return new ItemsetKey(sorted);
+    }
+
+    /**
+     * @param sortedItemIds The ids of the items in increasing order, which are
+     *                      not copied and must not be modified afterwards.
+     * @return The key of the itemset.
+     */
+    public static ItemsetKey ofSorted(int[] sortedItemIds) {
+        return new ItemsetKey(sortedItemIds);
+    }
+
+    /**
+     * @return The number of items in the itemset.
+     */
+    public int size() {
+        return itemIds.length;
+    }
+
+    /**
+     * @param index The position of the item in the key.
+     * @return The id of the item at this position, ids being in increasing order.
+     */
+    public int getItemId(int index) {
+        return itemIds[index];
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (!(obj instanceof ItemsetKey))
+            return false;
+        ItemsetKey other = (ItemsetKey) obj;
+        return hash == other.hash && Arrays.equals(itemIds, other.itemIds);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(itemIds);
+    }
+}
@@ -0,0 +1,87 @@
+package tools.covers;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+import lombok.Getter;
+
+/**
+ * Cover stored as runs of consecutive transactions. Used for items whose
+ * transactions are grouped in the file (ex: sorted datasets) and for the cover
+ * of the empty itemset.
+ */
+public class RunLengthCover extends AbstractCover {
+
+    private final @Getter int[] starts; // The first transaction of each run
+    private final @Getter int[] ends; // The transaction following each run
+    private final @Getter int length;
+    private final int cardinality;
+
+    /**
+     * @param starts The sorted starts of the disjoint runs, which are not copied.
+     * @param ends   The exclusive ends of the runs, which are not copied.
+     * @param length The number of transactions of the dataset.
+     */
+    public RunLengthCover(int[] starts, int[] ends, int length) {
+        this.starts = starts;
+        this.ends = ends;
+        this.length = length;
+
+        int count = 0;
+        for (int i = 0; i < starts.length; i++) {
+            count += ends[i] - starts[i];
+        }
+        this.cardinality = count;
+    }
+
+    @Override
+    public int cardinality() {
+        return cardinality;
+    }
+
+    @Override
+    public boolean contains(int index) {
+        int run = findRun(index);
+        return run < starts.length && starts[run] <= index;
+    }
+
+    @Override
+    public int nextSetBit(int fromIndex) {
+        int run = findRun(fromIndex);
+        return run < starts.length ? Math.max(fromIndex, starts[run]) : -1;
+    }
+
+    /**
+     * @return The first run ending after the index.
+     */
+    private int findRun(int index) {
+        int position = Arrays.binarySearch(ends, index);
+        return position < 0 ? -position - 1 : position + 1;
+    }
+
+    @Override
+    public int[] toArray() {
+        int[] indexes = new int[cardinality];
+        int k = 0;
+        for (int run = 0; run < starts.length; run++) {
+            for (int i = starts[run]; i < ends[run]; i++) {
+                indexes[k++] = i;
+            }
+        }
+        return indexes;
+    }
+
+    @Override
+    public long getSizeInBytes() {
+        return 8L * starts.length;
+    }
+
+    @Override
+    public void forEach(IntConsumer action) {
+        for (int run = 0; run < starts.length; run++) {
+            for (int i = starts[run]; i < ends[run]; i++) {
+                action.accept(i);
+            }
+        }
+    }
+}
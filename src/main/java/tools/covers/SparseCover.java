@@ -0,0 +1,61 @@
+package tools.covers;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+import lombok.Getter;
+
+/**
+ * Cover stored as the sorted array of its transactions. Used for the rare items
+ * and for the covers of long itemsets.
+ */
+public class SparseCover extends AbstractCover {
+
+    private final @Getter int[] indexes; // The transactions of the cover in increasing order
+    private final @Getter int length;
+
+    /**
+     * @param indexes The sorted transactions, which are not copied.
+     * @param length  The number of transactions of the dataset.
+     */
+    public SparseCover(int[] indexes, int length) {
+        this.indexes = indexes;
+        this.length = length;
+    }
+
+    @Override
+    public int cardinality() {
+        return indexes.length;
+    }
+
+    @Override
+    public boolean contains(int index) {
+        return Arrays.binarySearch(indexes, index) >= 0;
+    }
+
+    @Override
+    public int nextSetBit(int fromIndex) {
+        int position = Arrays.binarySearch(indexes, fromIndex);
+        if (position < 0) {
+            position = -position - 1;
+        }
+        return position < indexes.length ? indexes[position] : -1;
+    }
+
+    @Override
+    public int[] toArray() {
+        return indexes.clone();
+    }
+
+    @Override
+    public long getSizeInBytes() {
+        return 4L * indexes.length;
+    }
+
+    @Override
+    public void forEach(IntConsumer action) {
+        for (int index : indexes) {
+            action.accept(index);
+        }
+    }
+}
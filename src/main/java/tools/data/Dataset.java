@@ -1,11 +1,12 @@
 package tools.data;
 
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -13,11 +14,14 @@ import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
-import com.zaxxer.sparsebits.SparseBitSet;
-
 import lombok.Getter;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
 import lombok.Setter;
+import tools.covers.CoverCache;
+import tools.covers.ICover;
+import tools.covers.ItemsetKey;
 import tools.rules.DecisionRule;
+import tools.utils.CoverUtil;
 import tools.utils.RandomUtil;
 
 /**
@@ -39,7 +43,7 @@ public class Dataset {
     private String expDir;
 
     // Variables regarding the dataset
-    private @Setter @Getter Map<String, SparseBitSet> itemsMap; // The map value -> item coverage in the dataset
+    private @Setter @Getter Map<String, ICover> itemsMap; // The map value -> item coverage in the dataset
     private @Setter @Getter Set<String> consequentItemsSet; // The set of the values all the class items
     private @Setter @Getter Set<String> antecedentItemsSet; // The set of the values of all the antecedent items
     private @Setter @Getter String[] consequentItemsArray; // The array of the values all the class items
@@ -47,30 +51,30 @@ public class Dataset {
     private @Setter @Getter int nbAntecedentItems; // The number of different antecedent items
     private @Setter @Getter int nbConsequentItems; // The number of different consequent items
     private @Setter @Getter int nbTransactions; // The number of transactions in the transactional dataset
-    private @Setter @Getter String[][] transactions; // The array of transactions red from the dat file.
+    private @Setter String[][] transactions; // The array of transactions red from the dat file.
     private @Getter UnionFind equivalenceClasses; // The item equivalence classes
 
-    public Dataset(String filename, String expDir, Set<String> consequentItemsSet) throws IOException {
-        // Variables regarding the file
-        this.filename = filename;
-        this.expDir = expDir;
+    // Variables regarding the dictionary-encoded dataset
+    private @Getter ItemDictionary itemDictionary; // The reversible map label <-> item id
+    private @Getter int[] transactionOffsets; // Transaction t spans [offsets[t], offsets[t + 1]) in transactionItems
+    private @Getter int[] transactionItems; // The item ids of all the transactions, one after the other
+    private @Getter ICover[] itemCovers; // The array item id -> item coverage in the dataset
+    private @Getter int[] antecedentItemIds; // The ids of the antecedent items, in the order of antecedentItemsArray
+    private @Getter int[] consequentItemIds; // The ids of the consequent items, in the order of consequentItemsArray
+    private boolean[] consequentItemFlags; // True at the index of each consequent item id
 
-        // Initializing variables regarding the data
-        this.transactions = getTransactionalDataset();
-        this.nbTransactions = this.transactions.length;
-        getItemsFromTransactions();
+    // The covers of the itemsets computed by all the rules built on the dataset
+    private @Setter @Getter CoverCache coverCache = new CoverCache();
 
-        // Initializing consequent and antecedent items
-        setConsequentItemsSet(consequentItemsSet);
-        setConsequentItemsArray(getConsequentItemsSet().toArray(new String[0]));
-        initializeAntecedentItemsValues();
-
-        // Initializing the number of items for sampling
-        this.nbAntecedentItems = getAntecedentItemsSet().size();
-        this.nbConsequentItems = getConsequentItemsSet().size();
+    public Dataset(String filename, String expDir, Set<String> consequentItemsSet) throws IOException {
+        // The file is parsed in parallel, the transactions as values being only
+        // decoded if they are requested
+        this(filename, expDir, ParallelDatParser.parse(new File(expDir + filename)), consequentItemsSet);
+    }
 
-        // Find the equivalence classes
-        findEquivalenceClasses();
+    private Dataset(String filename, String expDir, ParallelDatParser parser, Set<String> consequentItemsSet) {
+        this(filename, expDir, parser.getItemDictionary(), parser.getTransactionOffsets(),
+                parser.getTransactionItems(), parser.getItemCovers(), consequentItemsSet);
     }
 
     public Dataset(String[][] transactionalDataset, Set<String> consequentItemsSet) {
@@ -78,10 +82,49 @@ public class Dataset {
         this.nbTransactions = transactionalDataset.length;
         getItemsFromTransactions();
 
-        // Initializing class and antecedent items
+        initializeItems(consequentItemsSet);
+    }
+
+    /**
+     * Builds a dataset from its dictionary-encoded form (ex: from a snapshot), the
+     * transactions as values being only decoded if they are requested.
+     *
+     * @param filename           The name of the file the data comes from
+     * @param expDir             The directory in which the file is situated
+     * @param itemDictionary     The dictionary of the item values
+     * @param transactionOffsets The offsets of the transactions in
+     *                           transactionItems
+     * @param transactionItems   The item ids of all the transactions
+     * @param itemCovers         The cover of each item, indexed by id
+     * @param consequentItemsSet The values that the class items can take
+     */
+    Dataset(String filename, String expDir, ItemDictionary itemDictionary, int[] transactionOffsets,
+            int[] transactionItems, ICover[] itemCovers, Set<String> consequentItemsSet) {
+        this.filename = filename;
+        this.expDir = expDir;
+
+        this.itemDictionary = itemDictionary;
+        this.transactionOffsets = transactionOffsets;
+        this.transactionItems = transactionItems;
+        this.itemCovers = itemCovers;
+        this.nbTransactions = transactionOffsets.length - 1;
+        initializeItemsMap();
+
+        initializeItems(consequentItemsSet);
+    }
+
+    /**
+     * Initializes everything that depends on the class items once the items and
+     * their covers are known.
+     *
+     * @param consequentItemsSet The values that the class items can take
+     */
+    private void initializeItems(Set<String> consequentItemsSet) {
+        // Initializing consequent and antecedent items
         setConsequentItemsSet(consequentItemsSet);
         setConsequentItemsArray(getConsequentItemsSet().toArray(new String[0]));
         initializeAntecedentItemsValues();
+        initializeItemIds();
 
         // Initializing the number of items for sampling
         this.nbAntecedentItems = getAntecedentItemsSet().size();
@@ -98,13 +141,18 @@ public class Dataset {
 
         this.equivalenceClasses = new UnionFind(neverSeen.toArray(new String[0]));
 
-        String[][] transactions = getTransactions();
-
         while (!neverSeen.isEmpty()) {
-            for (String[] transaction : transactions) {
-                String classRep = transaction[0];
+            for (int transactionIndex = 0; transactionIndex < nbTransactions; transactionIndex++) {
+                int start = transactionOffsets[transactionIndex];
+                int end = transactionOffsets[transactionIndex + 1];
+                if (start == end) {
+                    continue;
+                }
+
+                String classRep = itemDictionary.getLabel(transactionItems[start]);
 
-                for (String item : transaction) {
+                for (int k = start; k < end; k++) {
+                    String item = itemDictionary.getLabel(transactionItems[k]);
                     equivalenceClasses.union(item, classRep);
                     neverSeen.remove(item);
                 }
@@ -125,6 +173,114 @@ public class Dataset {
         setAntecedentItemsArray(getAntecedentItemsSet().toArray(new String[0]));
     }
 
+    /**
+     * Initializes the arrays of antecedent and consequent item ids so that they
+     * follow the order of the arrays of values. Class items that never appear in
+     * the transactions are added to the dictionary with an empty cover.
+     */
+    private void initializeItemIds() {
+        this.consequentItemIds = new int[getConsequentItemsArray().length];
+        for (int i = 0; i < consequentItemIds.length; i++) {
+            consequentItemIds[i] = itemDictionary.intern(getConsequentItemsArray()[i]);
+        }
+
+        this.antecedentItemIds = new int[getAntecedentItemsArray().length];
+        for (int i = 0; i < antecedentItemIds.length; i++) {
+            antecedentItemIds[i] = itemDictionary.getId(getAntecedentItemsArray()[i]);
+        }
+
+        // Absent class items get an empty cover
+        int nbItems = itemDictionary.size();
+        if (itemCovers.length < nbItems) {
+            int nbKnownItems = itemCovers.length;
+            itemCovers = Arrays.copyOf(itemCovers, nbItems);
+            for (int itemId = nbKnownItems; itemId < nbItems; itemId++) {
+                itemCovers[itemId] = CoverUtil.createEmpty(nbTransactions);
+            }
+        }
+
+        this.consequentItemFlags = new boolean[nbItems];
+        for (int itemId : consequentItemIds) {
+            consequentItemFlags[itemId] = true;
+        }
+    }
+
+    /**
+     * @param itemId The id of an item.
+     * @return The cover of the item in the dataset.
+     */
+    public ICover getItemCover(int itemId) {
+        return itemCovers[itemId];
+    }
+
+    /**
+     * @param itemId The id of an item.
+     * @return True if the item is a class item.
+     */
+    public boolean isConsequentItem(int itemId) {
+        return consequentItemFlags[itemId];
+    }
+
+    /**
+     * @param itemValue The value of an item.
+     * @return The id of the item or {@link ItemDictionary#UNKNOWN_ITEM} if it
+     *         does not appear in the dataset.
+     */
+    public int getItemId(String itemValue) {
+        return itemDictionary.getId(itemValue);
+    }
+
+    /**
+     * @param itemId The id of an item.
+     * @return The value of the item.
+     */
+    public String getItemValue(int itemId) {
+        return itemDictionary.getLabel(itemId);
+    }
+
+    /**
+     * @param itemValues The values of the items of an itemset.
+     * @return The key of the itemset in the cover cache.
+     */
+    public ItemsetKey getItemsetKey(Collection<String> itemValues) {
+        int[] itemIds = new int[itemValues.size()];
+        int count = 0;
+        for (String itemValue : itemValues) {
+            itemIds[count++] = itemDictionary.getId(itemValue);
+        }
+        return ItemsetKey.of(itemIds, count);
+    }
+
+    /**
+     * Returns the cover of an itemset from the cover cache, deriving it from its
+     * longest cached prefix if it is not there.
+     *
+     * @param itemValues The values of the items of the itemset.
+     * @return The cover of the itemset, containing all the transactions if it is
+     *         empty.
+     */
+    public ICover getItemsetCover(Collection<String> itemValues) {
+        return getItemsetCover(getItemsetKey(itemValues));
+    }
+
+    /**
+     * Returns the cover of an itemset from the cover cache, deriving it from its
+     * longest cached prefix if it is not there.
+     *
+     * @param key The key of the itemset.
+     * @return The cover of the itemset, containing all the transactions if it is
+     *         empty.
+     */
+    public ICover getItemsetCover(ItemsetKey key) {
+        if (key.size() == 0) {
+            return CoverUtil.createAllOnes(nbTransactions);
+        }
+        // Values absent from the dataset have an empty cover
+        return coverCache.get(key, itemId -> itemId == ItemDictionary.UNKNOWN_ITEM
+                ? CoverUtil.createEmpty(nbTransactions)
+                : itemCovers[itemId]);
+    }
+
     /**
      * This method is used to retrieve the transactional data from a dat file.
      *
@@ -161,22 +317,90 @@ public class Dataset {
     }
 
     /**
-     * Converts the transactional dataset into a set of unique items.
-     *
-     * @param transactions The transactional dataset.
-     * @return A set containing all the unique items from the transactional dataset.
+     * Encodes the transactional dataset with integer item ids, the transactions
+     * being stored one after the other in a single array (compressed sparse rows).
+     */
+    private void encodeTransactions() {
+        int nbValues = 0;
+        for (String[] transaction : transactions) {
+            nbValues += transaction.length;
+        }
+
+        this.itemDictionary = new ItemDictionary();
+        this.transactionOffsets = new int[transactions.length + 1];
+        this.transactionItems = new int[nbValues];
+
+        int position = 0;
+        for (int transactionIndex = 0; transactionIndex < transactions.length; transactionIndex++) {
+            transactionOffsets[transactionIndex] = position;
+            for (String itemValue : transactions[transactionIndex]) {
+                transactionItems[position++] = itemDictionary.intern(itemValue);
+            }
+        }
+        transactionOffsets[transactions.length] = position;
+    }
+
+    /**
+     * Converts the transactional dataset into a set of unique items and computes
+     * the cover of each of them. The covers are shared between the array indexed
+     * by item id and the map indexed by item value.
      */
     public void getItemsFromTransactions() {
-        this.itemsMap = new HashMap<>();
+        encodeTransactions();
 
-        // Iterate through transactions to identify unique items and their occurrences
+        // Iterate through transactions to identify the occurrences of each item
+        int nbItems = itemDictionary.size();
+        IntArrayList[] occurrences = new IntArrayList[nbItems];
+        for (int itemId = 0; itemId < nbItems; itemId++) {
+            occurrences[itemId] = new IntArrayList();
+        }
         for (int transactionIndex = 0; transactionIndex < transactions.length; transactionIndex++) {
-            String[] transaction = this.transactions[transactionIndex];
-            for (int itemIndex = 0; itemIndex < transaction.length; itemIndex++) {
-                String itemValue = String.valueOf(transaction[itemIndex]);
-                itemsMap.computeIfAbsent(itemValue, k -> new SparseBitSet()).set(transactionIndex);
+            for (int k = transactionOffsets[transactionIndex]; k < transactionOffsets[transactionIndex + 1]; k++) {
+                IntArrayList itemOccurrences = occurrences[transactionItems[k]];
+                if (itemOccurrences.isEmpty() || itemOccurrences.getInt(itemOccurrences.size() - 1) != transactionIndex) {
+                    itemOccurrences.add(transactionIndex);
+                }
             }
         }
+
+        this.itemCovers = new ICover[nbItems];
+        for (int itemId = 0; itemId < nbItems; itemId++) {
+            itemCovers[itemId] = CoverUtil.fromSortedIndexes(occurrences[itemId].elements(), occurrences[itemId].size(),
+                    transactions.length);
+        }
+
+        initializeItemsMap();
+    }
+
+    /**
+     * Initializes the map value -> cover from the covers indexed by item id.
+     */
+    private void initializeItemsMap() {
+        this.itemsMap = new HashMap<>(2 * itemCovers.length);
+        for (int itemId = 0; itemId < itemCovers.length; itemId++) {
+            itemsMap.put(itemDictionary.getLabel(itemId), itemCovers[itemId]);
+        }
+    }
+
+    /**
+     * Returns the transactions as arrays of values. When the dataset was built
+     * from its encoded form, they are decoded on the first call.
+     *
+     * @return The array of transactions.
+     */
+    public String[][] getTransactions() {
+        if (transactions == null) {
+            String[][] decoded = new String[nbTransactions][];
+            for (int transactionIndex = 0; transactionIndex < nbTransactions; transactionIndex++) {
+                int start = transactionOffsets[transactionIndex];
+                decoded[transactionIndex] = new String[transactionOffsets[transactionIndex + 1] - start];
+                for (int k = 0; k < decoded[transactionIndex].length; k++) {
+                    decoded[transactionIndex][k] = itemDictionary.getLabel(transactionItems[start + k]);
+                }
+            }
+            this.transactions = decoded;
+        }
+        return transactions;
     }
 
     /**
@@ -187,32 +411,40 @@ public class Dataset {
      * @return A list of random rules.
      */
     public List<DecisionRule> getRandomValidRules(int nbRules, double smoothCounts, String[] measureNames) {
-        /* Initializing the random instance */
-        RandomUtil random = new RandomUtil();
+        return getRandomValidRules(nbRules, smoothCounts, measureNames, RandomUtil.newStream());
+    }
 
-        int nbTransactions = this.getTransactions().length;
+    /**
+     * Returns a list of size nbRules of rules extracted from random transactions
+     * in the transactional dataset, drawn from the given random stream.
+     * 
+     * @param nbRules The desired number of rules.
+     * @param random  The random stream of the caller.
+     * @return A list of random rules.
+     */
+    public List<DecisionRule> getRandomValidRules(int nbRules, double smoothCounts, String[] measureNames,
+            RandomUtil random) {
+        int nbTransactions = getNbTransactions();
 
         List<DecisionRule> rules = new ArrayList<>();
 
         /* Selecting random transactions and converting them to rules */
         for (int i = 0; i < nbRules; i++) {
             int transactionIndex = random.nextInt(nbTransactions);
-            String[] transaction = this.getTransactions()[transactionIndex];
-
-            List<String> shuffledItems = new ArrayList<>(Arrays.asList(transaction));
-            Collections.shuffle(shuffledItems);
+            int start = transactionOffsets[transactionIndex];
+            int[] shuffle = random.permutation(transactionOffsets[transactionIndex + 1] - start);
 
             /* Creating a new rule and adding each item from the transaction to it */
-            DecisionRule selectedDecisionRule = new DecisionRule(new HashSet<>(), "", this, 100, 100, smoothCounts,
-                    measureNames);
+            DecisionRule selectedDecisionRule = new DecisionRule(new HashSet<>(), "", this, smoothCounts, measureNames);
 
-            for (String item : shuffledItems) {
+            for (int position : shuffle) {
+                int itemId = transactionItems[start + position];
                 /* Adding each item either to the consequent or to the antecedent of the rule */
-                if (getAntecedentItemsSet().contains(item)) {
+                if (!isConsequentItem(itemId)) {
                     if (random.Bernoulli(0.5))
-                        selectedDecisionRule.addToX(item);
+                        selectedDecisionRule.addToX(itemId);
                 } else {
-                    selectedDecisionRule.setY(item);
+                    selectedDecisionRule.setY(itemId);
                 }
             }
 
@@ -0,0 +1,395 @@
+package tools.data;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Set;
+
+import tools.covers.DenseCover;
+import tools.covers.ICover;
+import tools.covers.RunLengthCover;
+import tools.covers.SparseCover;
+
+/**
+ * Compact binary cache of an encoded dataset, written once from a dat file and
+ * then read back instead of re-tokenizing the text and hashing the labels.
+ *
+ * Each item cover is stored as the payload of its in-memory container: the
+ * words of a bitmap, the indexes of a sparse cover or the bounds of the runs.
+ * A dense item thus takes one bit per transaction instead of four bytes per
+ * occurrence, and loading a cover is a bulk copy from the memory mapping into
+ * its arrays, without rebuilding it. The covers are copied rather than used in
+ * place because the intersection kernels work on heap arrays. The transactions
+ * CSR is kept as well, since it holds the order of the items of each
+ * transaction, which the covers lose.
+ *
+ * The file is mapped in windows of at most {@link #WINDOW_BYTES}, a single
+ * mapping being limited to 2 GB.
+ *
+ * The snapshot is made of (all integers are big-endian):
+ * - a header: magic, version, number of transactions, number of items
+ * - the item dictionary: for each id, the length of the label followed by its
+ * UTF-8 bytes
+ * - the item covers: for each id, the container of the cover followed by its
+ * payload. A bitmap (0) stores its cardinality, its number of words and the
+ * words. A sparse cover (1) stores its cardinality and its indexes in
+ * increasing order. A run-length cover (2) stores its number of runs, the
+ * starts and the ends of the runs.
+ * - the transactions CSR: the nbTransactions + 1 offsets followed by the item
+ * ids of all the transactions
+ */
+public class DatasetSnapshot {
+
+    public static final String EXTENSION = ".snap";
+    public static final String DAT_EXTENSION = ".dat";
+
+    private static final int MAGIC = 0x44534e50; // "DSNP"
+    private static final int VERSION = 2;
+
+    private static final int DENSE = 0, SPARSE = 1, RUNS = 2;
+
+    // The largest part of the file mapped at once
+    static final int WINDOW_BYTES = 1 << 30;
+
+    private DatasetSnapshot() {
+    }
+
+    /**
+     * Opens a dataset, from its snapshot if there is an up to date one next to the
+     * dat file and by parsing the dat file otherwise.
+     *
+     * @param filename           The name of the dat file
+     * @param expDir             The directory in which the file is situated
+     * @param consequentItemsSet The values that the class items can take
+     * @return The dataset
+     * @throws IOException If neither the snapshot nor the dat file can be read
+     */
+    public static Dataset open(String filename, String expDir, Set<String> consequentItemsSet) throws IOException {
+        File datFile = new File(expDir + filename);
+        File snapshotFile = new File(expDir + getSnapshotName(filename));
+
+        if (snapshotFile.isFile() && (!datFile.exists() || snapshotFile.lastModified() >= datFile.lastModified())) {
+            return read(snapshotFile, filename, expDir, consequentItemsSet);
+        }
+        return new Dataset(filename, expDir, consequentItemsSet);
+    }
+
+    /**
+     * Writes the encoded form of the dataset into a snapshot file.
+     *
+     * @param dataset      The dataset to write
+     * @param snapshotFile The file to write the snapshot to
+     * @throws IOException If the file cannot be written
+     */
+    public static void write(Dataset dataset, File snapshotFile) throws IOException {
+        ItemDictionary dictionary = dataset.getItemDictionary();
+        ICover[] itemCovers = dataset.getItemCovers();
+        int[] offsets = dataset.getTransactionOffsets();
+        int[] items = dataset.getTransactionItems();
+
+        // Only the items of the data are written, the absent class items are added
+        // back when the snapshot is read
+        int nbItems = dataset.getItemsMap().size();
+        int nbTransactions = dataset.getNbTransactions();
+
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(snapshotFile), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(nbTransactions);
+            out.writeInt(nbItems);
+
+            for (int itemId = 0; itemId < nbItems; itemId++) {
+                byte[] label = dictionary.getLabel(itemId).getBytes(StandardCharsets.UTF_8);
+                out.writeInt(label.length);
+                out.write(label);
+            }
+
+            for (int itemId = 0; itemId < nbItems; itemId++) {
+                writeCover(out, itemCovers[itemId]);
+            }
+
+            for (int i = 0; i <= nbTransactions; i++) {
+                out.writeInt(offsets[i]);
+            }
+            for (int i = 0; i < offsets[nbTransactions]; i++) {
+                out.writeInt(items[i]);
+            }
+        }
+    }
+
+    /**
+     * Writes the container of a cover followed by its payload.
+     */
+    private static void writeCover(DataOutputStream out, ICover cover) throws IOException {
+        if (cover instanceof DenseCover) {
+            long[] words = ((DenseCover) cover).getWords();
+            out.writeInt(DENSE);
+            out.writeInt(cover.cardinality());
+            out.writeInt(words.length);
+            for (long word : words) {
+                out.writeLong(word);
+            }
+        } else if (cover instanceof RunLengthCover) {
+            RunLengthCover runs = (RunLengthCover) cover;
+            out.writeInt(RUNS);
+            out.writeInt(runs.getStarts().length);
+            for (int start : runs.getStarts()) {
+                out.writeInt(start);
+            }
+            for (int end : runs.getEnds()) {
+                out.writeInt(end);
+            }
+        } else {
+            int[] indexes = cover.toArray();
+            out.writeInt(SPARSE);
+            out.writeInt(indexes.length);
+            for (int index : indexes) {
+                out.writeInt(index);
+            }
+        }
+    }
+
+    /**
+     * Reads a snapshot file, the dataset taking the name of the dat file it was
+     * created from.
+     *
+     * @param snapshotFile       The snapshot file
+     * @param consequentItemsSet The values that the class items can take
+     * @return The dataset
+     * @throws IOException If the file cannot be read or is not a snapshot
+     */
+    public static Dataset read(File snapshotFile, Set<String> consequentItemsSet) throws IOException {
+        String name = snapshotFile.getName();
+        String filename = name.substring(0, name.length() - EXTENSION.length()) + DAT_EXTENSION;
+        File parent = snapshotFile.getAbsoluteFile().getParentFile();
+        return read(snapshotFile, filename, parent.getPath() + File.separator, consequentItemsSet);
+    }
+
+    private static Dataset read(File snapshotFile, String filename, String expDir, Set<String> consequentItemsSet)
+            throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(snapshotFile, "r");
+                FileChannel channel = file.getChannel()) {
+            MappedReader reader = new MappedReader(channel);
+
+            if (reader.readInt() != MAGIC) {
+                throw new IOException(snapshotFile + " is not a dataset snapshot");
+            }
+            int version = reader.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version " + version + " in " + snapshotFile);
+            }
+            int nbTransactions = reader.readInt();
+            int nbItems = reader.readInt();
+
+            // Item dictionary
+            ItemDictionary dictionary = new ItemDictionary(nbItems);
+            byte[] label = new byte[64];
+            for (int itemId = 0; itemId < nbItems; itemId++) {
+                int length = reader.readInt();
+                if (length > label.length) {
+                    label = new byte[Math.max(length, 2 * label.length)];
+                }
+                reader.readBytes(label, length);
+                dictionary.intern(new String(label, 0, length, StandardCharsets.UTF_8));
+            }
+
+            // Item covers
+            ICover[] itemCovers = new ICover[nbItems];
+            for (int itemId = 0; itemId < nbItems; itemId++) {
+                itemCovers[itemId] = readCover(reader, nbTransactions, snapshotFile);
+            }
+
+            // Transactions CSR
+            int[] offsets = new int[nbTransactions + 1];
+            reader.readInts(offsets, offsets.length);
+            int[] items = new int[offsets[nbTransactions]];
+            reader.readInts(items, items.length);
+
+            return new Dataset(filename, expDir, dictionary, offsets, items, itemCovers, consequentItemsSet);
+        }
+    }
+
+    /**
+     * Reads a cover in the container it was written from.
+     */
+    private static ICover readCover(MappedReader reader, int nbTransactions, File snapshotFile) throws IOException {
+        int container = reader.readInt();
+        switch (container) {
+            case DENSE:
+                int cardinality = reader.readInt();
+                long[] words = new long[reader.readInt()];
+                reader.readLongs(words, words.length);
+                return new DenseCover(words, nbTransactions, cardinality);
+            case SPARSE:
+                int[] indexes = new int[reader.readInt()];
+                reader.readInts(indexes, indexes.length);
+                return new SparseCover(indexes, nbTransactions);
+            case RUNS:
+                int nbRuns = reader.readInt();
+                int[] starts = new int[nbRuns];
+                int[] ends = new int[nbRuns];
+                reader.readInts(starts, nbRuns);
+                reader.readInts(ends, nbRuns);
+                return new RunLengthCover(starts, ends, nbTransactions);
+            default:
+                throw new IOException("Unknown cover container " + container + " in " + snapshotFile);
+        }
+    }
+
+    /**
+     * Sequential reader of a file mapped one window at a time, so that files
+     * larger than a single mapping can be read.
+     */
+    static final class MappedReader {
+        private final FileChannel channel;
+        private final long size;
+        private final int windowBytes;
+        private long windowStart; // The position in the file of the current window
+        private MappedByteBuffer window;
+
+        MappedReader(FileChannel channel) throws IOException {
+            this(channel, WINDOW_BYTES);
+        }
+
+        MappedReader(FileChannel channel, int windowBytes) throws IOException {
+            this.channel = channel;
+            this.size = channel.size();
+            this.windowBytes = windowBytes;
+            map(0);
+        }
+
+        private void map(long position) throws IOException {
+            windowStart = position;
+            window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(windowBytes, size - position));
+        }
+
+        /**
+         * Moves the window so that the next bytes can be read from it.
+         *
+         * @param nbBytes The number of bytes about to be read, at most the size of
+         *                a window.
+         */
+        private void require(int nbBytes) throws IOException {
+            if (window.remaining() < nbBytes) {
+                long position = windowStart + window.position();
+                if (size - position < nbBytes) {
+                    throw new IOException("Truncated snapshot");
+                }
+                map(position);
+            }
+        }
+
+        int readInt() throws IOException {
+            require(Integer.BYTES);
+            return window.getInt();
+        }
+
+        void readBytes(byte[] destination, int length) throws IOException {
+            for (int done = 0; done < length;) {
+                require(1);
+                int count = Math.min(length - done, window.remaining());
+                window.get(destination, done, count);
+                done += count;
+            }
+        }
+
+        void readInts(int[] destination, int length) throws IOException {
+            for (int done = 0; done < length;) {
+                require(Integer.BYTES);
+                int count = Math.min(length - done, window.remaining() / Integer.BYTES);
+                window.asIntBuffer().get(destination, done, count);
+                window.position(window.position() + count * Integer.BYTES);
+                done += count;
+            }
+        }
+
+        void readLongs(long[] destination, int length) throws IOException {
+            for (int done = 0; done < length;) {
+                require(Long.BYTES);
+                int count = Math.min(length - done, window.remaining() / Long.BYTES);
+                window.asLongBuffer().get(destination, done, count);
+                window.position(window.position() + count * Long.BYTES);
+                done += count;
+            }
+        }
+    }
+
+    /**
+     * Converts a dat file into its snapshot, written next to it.
+     *
+     * @param datFile The dat file
+     * @return The snapshot file
+     * @throws IOException If the dat file cannot be read or the snapshot written
+     */
+    public static File convert(File datFile) throws IOException {
+        File parent = datFile.getAbsoluteFile().getParentFile();
+        Dataset dataset = new Dataset(datFile.getName(), parent.getPath() + File.separator,
+                Collections.emptySet());
+
+        File snapshotFile = new File(parent, getSnapshotName(datFile.getName()));
+        write(dataset, snapshotFile);
+        return snapshotFile;
+    }
+
+    /**
+     * Converts all the dat files of a directory tree whose snapshot is missing or
+     * older than the dat file.
+     *
+     * @param root The root of the tree
+     * @return The number of converted files
+     * @throws IOException If a file cannot be converted
+     */
+    public static int convertTree(File root) throws IOException {
+        File[] files = root.listFiles();
+        if (files == null) {
+            return 0;
+        }
+
+        int nbConverted = 0;
+        for (File file : files) {
+            if (file.isDirectory()) {
+                nbConverted += convertTree(file);
+            } else if (file.getName().endsWith(DAT_EXTENSION)) {
+                File snapshotFile = new File(file.getParentFile(), getSnapshotName(file.getName()));
+                if (!snapshotFile.exists() || snapshotFile.lastModified() < file.lastModified()) {
+                    convert(file);
+                    nbConverted++;
+                }
+            }
+        }
+        return nbConverted;
+    }
+
+    /**
+     * @param filename The name of the dat file
+     * @return The name of its snapshot
+     */
+    public static String getSnapshotName(String filename) {
+        if (filename.endsWith(DAT_EXTENSION)) {
+            filename = filename.substring(0, filename.length() - DAT_EXTENSION.length());
+        }
+        return filename + EXTENSION;
+    }
+
+    /**
+     * Converts the dat files of the given directories (data/dat-files and
+     * data/folds by default) into snapshots.
+     */
+    public static void main(String[] args) throws IOException {
+        String[] roots = args.length > 0 ? args : new String[] { "data/dat-files", "data/folds" };
+        for (String root : roots) {
+            long start = System.currentTimeMillis();
+            int nbConverted = convertTree(new File(root));
+            System.out.println(root + ": " + nbConverted + " snapshots written in "
+                    + (System.currentTimeMillis() - start) + " ms");
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package tools.data;
+
+import java.util.Arrays;
+
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+
+/**
+ * Reversible dictionary between item labels (as read from a dat file) and
+ * dense integer identifiers.
+ * Identifiers are attributed in order of first appearance, starting at 0, so
+ * they can directly be used to index arrays of covers or counters.
+ */
+public class ItemDictionary {
+
+    // Value returned by getId when the label is unknown
+    public static final int UNKNOWN_ITEM = -1;
+
+    private final Object2IntOpenHashMap<String> ids; // The map label -> id
+    private String[] labels; // The array id -> label
+    private int size;
+
+    public ItemDictionary() {
+        this(16);
+    }
+
+    public ItemDictionary(int expectedSize) {
+        this.ids = new Object2IntOpenHashMap<>(expectedSize);
+        this.ids.defaultReturnValue(UNKNOWN_ITEM);
+        this.labels = new String[Math.max(expectedSize, 1)];
+    }
+
+    /**
+     * Builds a dictionary from an array of labels, the id of each label being its
+     * index in the array.
+     *
+     * @param labels The labels ordered by id.
+     * @return The corresponding dictionary.
+     */
+    public static ItemDictionary fromLabels(String[] labels) {
+        ItemDictionary dictionary = new ItemDictionary(labels.length);
+        for (String label : labels) {
+            dictionary.intern(label);
+        }
+        return dictionary;
+    }
+
+    /**
+     * Returns the id of the label, attributing a new one if the label has never
+     * been seen before.
+     *
+     * @param label The item label.
+     * @return The id of the item.
+     */
+    public int intern(String label) {
+        int id = ids.getInt(label);
+        if (id == UNKNOWN_ITEM) {
+            id = size++;
+            if (id == labels.length) {
+                labels = Arrays.copyOf(labels, labels.length * 2);
+            }
+            labels[id] = label;
+            ids.put(label, id);
+        }
+        return id;
+    }
+
+    /**
+     * @param label The item label.
+     * @return The id of the item or {@link #UNKNOWN_ITEM} if it is not in the
+     *         dictionary.
+     */
+    public int getId(String label) {
+        return ids.getInt(label);
+    }
+
+    /**
+     * @param id The item id.
+     * @return The label of the item.
+     */
+    public String getLabel(int id) {
+        return labels[id];
+    }
+
+    /**
+     * @return The number of items in the dictionary.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return A copy of the labels ordered by id.
+     */
+    public String[] getLabels() {
+        return Arrays.copyOf(labels, size);
+    }
+}
@@ -0,0 +1,345 @@
+package tools.data;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import lombok.Getter;
+import tools.covers.ICover;
+import tools.utils.CoverUtil;
+
+/**
+ * Parser of dat files (one transaction per line, items separated by
+ * whitespaces) into the dictionary-encoded form of a dataset.
+ *
+ * The file is split into byte ranges ending on a newline which are parsed in
+ * parallel: each worker tokenizes its range directly from the mapped bytes into
+ * a local dictionary and builds the local postings of its items. The chunks are
+ * then merged in file order, so the item ids are attributed in order of first
+ * appearance in the file, exactly as with the sequential encoding.
+ *
+ * Unlike splitting each line on whitespace, the parser never produces an empty
+ * item: leading whitespaces are skipped and a blank line is an empty
+ * transaction, where the split gave them an item "".
+ */
+@Getter
+public class ParallelDatParser {
+
+    // Files smaller than this are parsed by a single worker
+    private static final long MIN_CHUNK_SIZE = 1 << 20;
+    // Upper bound on the size of a chunk, a mapping being limited to 2GB
+    private static final long MAX_CHUNK_SIZE = 1 << 28;
+
+    private ItemDictionary itemDictionary; // The reversible map label <-> item id
+    private int[] transactionOffsets; // Transaction t spans [offsets[t], offsets[t + 1]) in transactionItems
+    private int[] transactionItems; // The item ids of all the transactions, one after the other
+    private ICover[] itemCovers; // The array item id -> item coverage in the dataset
+
+    private ParallelDatParser() {
+    }
+
+    /**
+     * Parses a dat file using all the available processors.
+     *
+     * @param file The dat file
+     * @return The parsed dataset
+     * @throws IOException If the file cannot be read
+     */
+    public static ParallelDatParser parse(File file) throws IOException {
+        long nbChunks = Math.min(Runtime.getRuntime().availableProcessors(), file.length() / MIN_CHUNK_SIZE);
+        return parse(file, (int) Math.max(nbChunks, 1));
+    }
+
+    /**
+     * Parses a dat file.
+     *
+     * @param file     The dat file
+     * @param nbChunks The number of byte ranges to split the file into
+     * @return The parsed dataset
+     * @throws IOException If the file cannot be read
+     */
+    public static ParallelDatParser parse(File file, int nbChunks) throws IOException {
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+                FileChannel channel = randomAccessFile.getChannel()) {
+            long[] boundaries = computeBoundaries(channel, nbChunks);
+
+            List<Chunk> chunks = IntStream.range(0, boundaries.length - 1).parallel()
+                    .mapToObj(i -> {
+                        try {
+                            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, boundaries[i],
+                                    boundaries[i + 1] - boundaries[i]);
+                            return new Chunk(buffer);
+                        } catch (IOException e) {
+                            throw new IllegalStateException("Could not map " + file, e);
+                        }
+                    })
+                    .collect(Collectors.toList());
+
+            ParallelDatParser parser = new ParallelDatParser();
+            parser.merge(chunks);
+            return parser;
+        }
+    }
+
+    /**
+     * Splits the file into byte ranges, each one (except the last) ending right
+     * after a newline.
+     *
+     * @return The boundaries of the ranges, from 0 to the size of the file
+     */
+    private static long[] computeBoundaries(FileChannel channel, int nbChunks) throws IOException {
+        long size = channel.size();
+        nbChunks = (int) Math.max(Math.max(nbChunks, 1), (size + MAX_CHUNK_SIZE - 1) / MAX_CHUNK_SIZE);
+
+        long[] boundaries = new long[nbChunks + 1];
+        ByteBuffer window = ByteBuffer.allocate(4096);
+        for (int i = 1; i < nbChunks; i++) {
+            long position = Math.max(size / nbChunks * i, boundaries[i - 1]);
+            boundaries[i] = nextLineStart(channel, window, position, size);
+        }
+        boundaries[nbChunks] = size;
+        return boundaries;
+    }
+
+    /**
+     * @return The position following the first newline at or after the given
+     *         position, or the size of the file if there is none.
+     */
+    private static long nextLineStart(FileChannel channel, ByteBuffer window, long position, long size)
+            throws IOException {
+        while (position < size) {
+            window.clear();
+            int read = channel.read(window, position);
+            for (int i = 0; i < read; i++) {
+                if (window.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += Math.max(read, 1);
+        }
+        return size;
+    }
+
+    /**
+     * Merges the chunks in file order into the global dictionary, transactions
+     * CSR and item covers.
+     */
+    private void merge(List<Chunk> chunks) {
+        int nbChunks = chunks.size();
+
+        // Global position of each chunk, in transactions and in values
+        int[] transactionBases = new int[nbChunks + 1];
+        int[] valueBases = new int[nbChunks + 1];
+        for (int c = 0; c < nbChunks; c++) {
+            transactionBases[c + 1] = transactionBases[c] + chunks.get(c).nbTransactions;
+            valueBases[c + 1] = valueBases[c] + chunks.get(c).items.size();
+        }
+
+        // Local ids to global ids, in order of first appearance
+        this.itemDictionary = new ItemDictionary();
+        int[][] localToGlobal = new int[nbChunks][];
+        for (int c = 0; c < nbChunks; c++) {
+            Chunk chunk = chunks.get(c);
+            localToGlobal[c] = new int[chunk.nbTokens];
+            byte[] label = new byte[64];
+            for (int localId = 0; localId < chunk.nbTokens; localId++) {
+                int length = chunk.tokenLengths[localId];
+                if (length > label.length) {
+                    label = new byte[Math.max(length, 2 * label.length)];
+                }
+                for (int k = 0; k < length; k++) {
+                    label[k] = chunk.buffer.get(chunk.tokenStarts[localId] + k);
+                }
+                localToGlobal[c][localId] = itemDictionary.intern(new String(label, 0, length, StandardCharsets.UTF_8));
+            }
+        }
+
+        // Transactions CSR
+        int nbTransactions = transactionBases[nbChunks];
+        this.transactionOffsets = new int[nbTransactions + 1];
+        this.transactionItems = new int[valueBases[nbChunks]];
+        IntStream.range(0, nbChunks).parallel().forEach(c -> {
+            Chunk chunk = chunks.get(c);
+            int[] offsets = chunk.offsets.elements();
+            for (int t = 0; t < chunk.nbTransactions; t++) {
+                transactionOffsets[transactionBases[c] + t] = valueBases[c] + offsets[t];
+            }
+            int[] items = chunk.items.elements();
+            int[] mapping = localToGlobal[c];
+            for (int k = 0; k < chunk.items.size(); k++) {
+                transactionItems[valueBases[c] + k] = mapping[items[k]];
+            }
+        });
+        transactionOffsets[nbTransactions] = transactionItems.length;
+
+        // Item covers, each one being built by a single worker from the postings of
+        // all the chunks
+        int nbItems = itemDictionary.size();
+        int[][] globalToLocal = new int[nbChunks][nbItems];
+        for (int c = 0; c < nbChunks; c++) {
+            Arrays.fill(globalToLocal[c], -1);
+            for (int localId = 0; localId < localToGlobal[c].length; localId++) {
+                globalToLocal[c][localToGlobal[c][localId]] = localId;
+            }
+        }
+
+        this.itemCovers = new ICover[nbItems];
+        IntStream.range(0, nbItems).parallel().forEach(itemId -> {
+            IntArrayList occurrences = new IntArrayList();
+            for (int c = 0; c < nbChunks; c++) {
+                int localId = globalToLocal[c][itemId];
+                if (localId >= 0) {
+                    IntArrayList postings = chunks.get(c).postings[localId];
+                    int[] transactions = postings.elements();
+                    for (int k = 0; k < postings.size(); k++) {
+                        occurrences.add(transactionBases[c] + transactions[k]);
+                    }
+                }
+            }
+            ICover cover = CoverUtil.fromSortedIndexes(occurrences.elements(), occurrences.size(), nbTransactions);
+            itemCovers[itemId] = cover;
+        });
+    }
+
+    /**
+     * A range of the file parsed by a single worker. Tokens are hashed and
+     * compared directly on the mapped bytes, a token being only turned into a
+     * String once per chunk when the chunks are merged.
+     */
+    private static final class Chunk {
+        private final ByteBuffer buffer;
+
+        // Open addressing table of the tokens, storing local id + 1 (0 is empty)
+        private int[] table = new int[1024];
+        private int[] tokenStarts = new int[256];
+        private int[] tokenLengths = new int[256];
+        private int[] tokenHashes = new int[256];
+        private int nbTokens;
+
+        private final IntArrayList offsets = new IntArrayList();
+        private final IntArrayList items = new IntArrayList();
+        private IntArrayList[] postings = new IntArrayList[256]; // Local id -> local transactions
+        private int nbTransactions;
+
+        Chunk(ByteBuffer buffer) {
+            this.buffer = buffer;
+            parse();
+        }
+
+        private void parse() {
+            int position = 0;
+            int limit = buffer.limit();
+
+            while (position < limit) {
+                // One transaction per line
+                offsets.add(items.size());
+                while (position < limit) {
+                    byte b = buffer.get(position);
+                    if (b == '\n') {
+                        position++;
+                        break;
+                    }
+                    if (isWhitespace(b)) {
+                        position++;
+                        continue;
+                    }
+
+                    int start = position;
+                    int hash = 0;
+                    while (position < limit && !isWhitespace(b = buffer.get(position)) && b != '\n') {
+                        hash = 31 * hash + b;
+                        position++;
+                    }
+
+                    int localId = intern(start, position - start, hash);
+                    items.add(localId);
+                    IntArrayList itemPostings = postings[localId];
+                    if (itemPostings.isEmpty() || itemPostings.getInt(itemPostings.size() - 1) != nbTransactions) {
+                        itemPostings.add(nbTransactions);
+                    }
+                }
+                nbTransactions++;
+            }
+            offsets.add(items.size());
+        }
+
+        private static boolean isWhitespace(byte b) {
+            return b == ' ' || b == '\t' || b == '\r' || b == '\f' || b == 0x0B;
+        }
+
+        /**
+         * @return The local id of the token, attributing a new one if it has never
+         *         been seen in the chunk.
+         */
+        private int intern(int start, int length, int hash) {
+            int mask = table.length - 1;
+            int slot = mix(hash) & mask;
+            while (table[slot] != 0) {
+                int localId = table[slot] - 1;
+                if (tokenHashes[localId] == hash && sameBytes(tokenStarts[localId], tokenLengths[localId], start,
+                        length)) {
+                    return localId;
+                }
+                slot = (slot + 1) & mask;
+            }
+
+            int localId = nbTokens++;
+            if (localId == tokenStarts.length) {
+                int capacity = 2 * tokenStarts.length;
+                tokenStarts = Arrays.copyOf(tokenStarts, capacity);
+                tokenLengths = Arrays.copyOf(tokenLengths, capacity);
+                tokenHashes = Arrays.copyOf(tokenHashes, capacity);
+                postings = Arrays.copyOf(postings, capacity);
+            }
+            tokenStarts[localId] = start;
+            tokenLengths[localId] = length;
+            tokenHashes[localId] = hash;
+            postings[localId] = new IntArrayList();
+            table[slot] = localId + 1;
+
+            // Keep the load factor under 1/2
+            if (2 * nbTokens > table.length) {
+                rehash();
+            }
+            return localId;
+        }
+
+        private void rehash() {
+            table = new int[2 * table.length];
+            int mask = table.length - 1;
+            for (int localId = 0; localId < nbTokens; localId++) {
+                int slot = mix(tokenHashes[localId]) & mask;
+                while (table[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = localId + 1;
+            }
+        }
+
+        private boolean sameBytes(int start1, int length1, int start2, int length2) {
+            if (length1 != length2) {
+                return false;
+            }
+            for (int k = 0; k < length1; k++) {
+                if (buffer.get(start1 + k) != buffer.get(start2 + k)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static int mix(int hash) {
+            int h = hash * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+}
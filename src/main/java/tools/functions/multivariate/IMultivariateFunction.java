@@ -1,5 +1,6 @@
 package tools.functions.multivariate;
 
+import tools.alternatives.Alternative;
 import tools.alternatives.IAlternative;
 import tools.rules.DecisionRule;
 
@@ -7,6 +8,22 @@ public interface IMultivariateFunction {
 
     double computeScore(IAlternative[] alternatives);
 
+    /**
+     * Computes the score of vectors of measures, as
+     * {@link #computeScore(IAlternative[])} does, without wrapping them in
+     * alternatives when the function does not need it.
+     *
+     * @param vectors The vectors of measures.
+     * @return The computed score.
+     */
+    default double computeScore(double[][] vectors) {
+        IAlternative[] alternatives = new IAlternative[vectors.length];
+        for (int i = 0; i < vectors.length; i++) {
+            alternatives[i] = new Alternative(vectors[i]);
+        }
+        return computeScore(alternatives);
+    }
+
     double computeScore(double score0, double score1);
 
     double computeScore(DecisionRule[] rules);
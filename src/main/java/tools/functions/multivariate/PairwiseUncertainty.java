@@ -22,6 +22,11 @@ public class PairwiseUncertainty implements CertaintyFunction{
         return 1 - Math.abs(1 - 2*getTheta().computeScore(alternatives));
     }
 
+    @Override
+    public double computeScore(double[][] vectors) {
+        return 1 - Math.abs(1 - 2*getTheta().computeScore(vectors));
+    }
+
     @Override
     public double computeScore(DecisionRule[] rules) {
         return 1 - Math.abs(1 - 2*getTheta().computeScore(rules));
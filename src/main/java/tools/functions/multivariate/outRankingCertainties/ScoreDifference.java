@@ -32,6 +32,11 @@ public class ScoreDifference implements CertaintyFunction {
         return computeScore(score0, score1);
     }
 
+    @Override
+    public double computeScore(double[][] vectors) {
+        return computeScore(scoreFunction.computeScore(vectors[0]), scoreFunction.computeScore(vectors[1]));
+    }
+
     public double computeScore(DecisionRule[] rules) {
         return computeScore(new IAlternative[] {rules[0].getAlternative(), rules[1].getAlternative()});
     }
@@ -31,6 +31,11 @@ public class Thurstone implements CertaintyFunction {
         return normalDistribution.cumulativeProbability(score0);
     }
 
+    @Override
+    public double computeScore(double[][] vectors) {
+        return computeScore(scoreFunction.computeScore(vectors[0]), scoreFunction.computeScore(vectors[1]));
+    }
+
     @Override
     public double computeScore(DecisionRule[] rules) {
         return computeScore(new IAlternative[] { rules[0].getAlternative(), rules[1].getAlternative() });
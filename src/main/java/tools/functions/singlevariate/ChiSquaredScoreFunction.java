@@ -3,8 +3,9 @@ package tools.functions.singlevariate;
 import lombok.Getter;
 import lombok.Setter;
 import tools.alternatives.IAlternative;
+import tools.rules.ContingencyTable;
 import tools.rules.DecisionRule;
-import tools.rules.RuleMeasures;
+import tools.rules.Measure;
 
 public class ChiSquaredScoreFunction implements ISinglevariateFunction {
     public static String TYPE = "ChiSquared";
@@ -24,7 +25,7 @@ public class ChiSquaredScoreFunction implements ISinglevariateFunction {
 
     @Override
     public double computeScore(DecisionRule rule) {
-        double phi =  new RuleMeasures(rule, nbTransactions, 1e-6d).computeMeasures(new String[]{RuleMeasures.phi})[0];
+        double phi = Measure.PHI.compute(new ContingencyTable().set(rule, nbTransactions, 1e-6d));
         return phi;
     }
 
@@ -1,7 +1,5 @@
 package tools.functions.singlevariate.Choquet;
 
-import java.util.BitSet;
-
 import lombok.Getter;
 import lombok.Setter;
 import tools.alternatives.IAlternative;
@@ -33,23 +31,14 @@ public class ChoquetMobiusScoreFunction implements ISinglevariateFunction {
      */
     private @Getter MobiusCapacity capacity;
 
-    public ChoquetMobiusScoreFunction(MobiusCapacity capacity) {
-        this.capacity = capacity;
-    }
-
     /**
-     * Computes the minimum value of an alternative in a specific capacity set.
-     *
-     * @param capacitySet The capacity set to consider.
-     * @param alternative The alternative for which the minimum value is computed.
-     * @return The minimum value of the alternative in the specified capacity set.
+     * The Choquet integral of the capacity compiled into flat arrays.
      */
-    private double getMinVal(BitSet capacitySet, IAlternative alternative) {
-        double minVal = Double.MAX_VALUE;
-        for (int i = capacitySet.nextSetBit(0); i > -1; i = capacitySet.nextSetBit(i + 1)) {
-            minVal = Math.min(minVal, alternative.getVector()[i]);
-        }
-        return minVal;
+    private final MobiusEvaluator evaluator;
+
+    public ChoquetMobiusScoreFunction(MobiusCapacity capacity) {
+        this.capacity = capacity;
+        this.evaluator = MobiusEvaluator.compile(capacity);
     }
 
     /**
@@ -61,13 +50,27 @@ public class ChoquetMobiusScoreFunction implements ISinglevariateFunction {
      */
     @Override
     public double computeScore(IAlternative alternative) {
-        double score = 0;
-        BitSet[] orderedCapacitySets = capacity.getOrderedCapacitySets();
-        for (int i = 1; i < orderedCapacitySets.length; i++) {
-            BitSet capacitySet = orderedCapacitySets[i];
-            score += getMinVal(capacitySet, alternative) * capacity.getCapacityValue(capacitySet);
-        }
-        return score;
+        return evaluator.evaluate(alternative.getVector());
+    }
+
+    @Override
+    public double computeScore(double[] vector) {
+        return evaluator.evaluate(vector);
+    }
+
+    @Override
+    public double computeScore(double[] vector, DecisionRule rule) {
+        return computeScore(rule);
+    }
+
+    @Override
+    public void computeScores(double[][] rows, double[] out) {
+        evaluator.evaluate(rows, out);
+    }
+
+    @Override
+    public void computeScores(double[] rows, int nbCriteria, double[] out) {
+        evaluator.evaluate(rows, nbCriteria, out);
     }
 
     @Override
@@ -1,12 +1,11 @@
 package tools.functions.singlevariate.Choquet;
 
-import java.util.BitSet;
-
 import lombok.Getter;
 import lombok.Setter;
 import tools.alternatives.IAlternative;
 import tools.functions.singlevariate.ISinglevariateFunction;
 import tools.rules.DecisionRule;
+import tools.utils.AlternativeUtil;
 import tools.utils.kappalab.NormalizedCapacity;
 
 public class ChoquetScoreFunction implements ISinglevariateFunction {
@@ -27,15 +26,51 @@ public class ChoquetScoreFunction implements ISinglevariateFunction {
 
     @Override
     public double computeScore(IAlternative alternative) {
-        int nbCriteria = alternative.getVector().length;
-        BitSet capacitySet = new BitSet(nbCriteria);
-        capacitySet.set(0, nbCriteria);
+        double[] vector = alternative.getVector();
+        return score(vector, 0, vector.length);
+    }
+
+    @Override
+    public double computeScore(double[] vector) {
+        return score(vector, 0, vector.length);
+    }
+
+    @Override
+    public double computeScore(double[] vector, DecisionRule rule) {
+        return computeScore(rule);
+    }
+
+    @Override
+    public void computeScores(double[][] rows, double[] out) {
+        for (int r = 0; r < rows.length; r++) {
+            out[r] = score(rows[r], 0, rows[r].length);
+        }
+    }
+
+    @Override
+    public void computeScores(double[] rows, int nbCriteria, double[] out) {
+        for (int r = 0; r < out.length; r++) {
+            out[r] = score(rows, r * nbCriteria, nbCriteria);
+        }
+    }
+
+    /**
+     * Computes the Choquet integral of the row starting at the offset. The row is
+     * ordered into the permutation buffer of the thread, and the capacity set of
+     * the criteria above the current value is kept as a running bitmask indexing
+     * the capacity values, so that nothing is allocated.
+     */
+    private double score(double[] rows, int offset, int nbCriteria) {
+        int[] permutation = AlternativeUtil.orderPermutation(rows, offset, nbCriteria,
+                AlternativeUtil.getScratchPermutation(nbCriteria));
+        int capacityMask = (1 << nbCriteria) - 1;
         double score = 0d;
         double prevValue = 0d;
         for (int i = 0; i < nbCriteria; i++) {
-            score += (alternative.getOrderedValue(i) - prevValue) * capacity.getCapacityValue(capacitySet);
-            capacitySet.set(alternative.getOrderedPermutation()[i], false);
-            prevValue = alternative.getOrderedValue(i);
+            double value = rows[offset + permutation[i]];
+            score += (value - prevValue) * capacity.getCapacityValue(capacityMask);
+            capacityMask &= ~(1 << permutation[i]);
+            prevValue = value;
         }
         return score;
     }
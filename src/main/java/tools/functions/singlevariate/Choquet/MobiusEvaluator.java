@@ -0,0 +1,148 @@
+package tools.functions.singlevariate.Choquet;
+
+import java.util.Arrays;
+
+import tools.utils.kappalab.MobiusCapacity;
+
+/**
+ * Choquet integral of a Möbius capacity compiled into flat arrays. The terms of
+ * the capacity are split by size: the singletons become one weight per
+ * criterion, the pairs become two index arrays and an array of interaction
+ * weights, and the larger sets, only present when the additivity is above 2,
+ * keep their bitmask. A score is then
+ * Σ m_i x_i + Σ m_ij min(x_i, x_j) + Σ m_S min_{i in S} x_i
+ * computed in plain loops over these arrays. Terms with a zero weight are
+ * dropped when compiling.
+ */
+public final class MobiusEvaluator {
+
+    private final int nbCriteria;
+
+    private final double[] singletonWeights; // Indexed by criterion
+
+    private final int[] pairFirst, pairSecond;
+    private final double[] pairWeights;
+
+    private final int[] setMasks; // The sets of more than two criteria
+    private final double[] setWeights;
+
+    private MobiusEvaluator(int nbCriteria, double[] singletonWeights, int[] pairFirst, int[] pairSecond,
+            double[] pairWeights, int[] setMasks, double[] setWeights) {
+        this.nbCriteria = nbCriteria;
+        this.singletonWeights = singletonWeights;
+        this.pairFirst = pairFirst;
+        this.pairSecond = pairSecond;
+        this.pairWeights = pairWeights;
+        this.setMasks = setMasks;
+        this.setWeights = setWeights;
+    }
+
+    /**
+     * @param capacity The Möbius capacity.
+     * @return The evaluator of the Choquet integral of the capacity.
+     */
+    public static MobiusEvaluator compile(MobiusCapacity capacity) {
+        int nbCriteria = capacity.getNbCriteria();
+        int[] masks = capacity.getOrderedCapacityMasks();
+        double[] values = capacity.getOrderedCapacityValues();
+
+        double[] singletonWeights = new double[nbCriteria];
+        int[] pairFirst = new int[masks.length];
+        int[] pairSecond = new int[masks.length];
+        double[] pairWeights = new double[masks.length];
+        int[] setMasks = new int[masks.length];
+        double[] setWeights = new double[masks.length];
+        int nbPairs = 0;
+        int nbSets = 0;
+
+        for (int k = 0; k < masks.length; k++) {
+            int mask = masks[k];
+            double value = values[k];
+            // The empty set does not contribute to the integral
+            if (mask == 0 || value == 0d) {
+                continue;
+            }
+            switch (Integer.bitCount(mask)) {
+                case 1:
+                    singletonWeights[Integer.numberOfTrailingZeros(mask)] += value;
+                    break;
+                case 2:
+                    pairFirst[nbPairs] = Integer.numberOfTrailingZeros(mask);
+                    pairSecond[nbPairs] = 31 - Integer.numberOfLeadingZeros(mask);
+                    pairWeights[nbPairs++] = value;
+                    break;
+                default:
+                    setMasks[nbSets] = mask;
+                    setWeights[nbSets++] = value;
+            }
+        }
+
+        return new MobiusEvaluator(nbCriteria, singletonWeights, Arrays.copyOf(pairFirst, nbPairs),
+                Arrays.copyOf(pairSecond, nbPairs), Arrays.copyOf(pairWeights, nbPairs),
+                Arrays.copyOf(setMasks, nbSets), Arrays.copyOf(setWeights, nbSets));
+    }
+
+    /**
+     * @param vector The vector of measures.
+     * @return The Choquet score of the vector.
+     */
+    public double evaluate(double[] vector) {
+        return evaluate(vector, 0);
+    }
+
+    /**
+     * Computes the scores of several vectors of measures.
+     *
+     * @param rows The vectors of measures, one per row.
+     * @param out  The array receiving the score of each row.
+     */
+    public void evaluate(double[][] rows, double[] out) {
+        for (int r = 0; r < rows.length; r++) {
+            out[r] = evaluate(rows[r], 0);
+        }
+    }
+
+    /**
+     * Computes the scores of several vectors of measures stored one after the
+     * other in a single array.
+     *
+     * @param rows      The vectors of measures, row after row.
+     * @param rowLength The number of measures of a row, at least the number of
+     *                  criteria of the capacity.
+     * @param out       The array receiving the score of each row, whose length
+     *                  is the number of rows.
+     */
+    public void evaluate(double[] rows, int rowLength, double[] out) {
+        for (int r = 0; r < out.length; r++) {
+            out[r] = evaluate(rows, r * rowLength);
+        }
+    }
+
+    /**
+     * @return The Choquet score of the row starting at the offset.
+     */
+    private double evaluate(double[] rows, int offset) {
+        double score = 0;
+        for (int i = 0; i < singletonWeights.length; i++) {
+            score += singletonWeights[i] * rows[offset + i];
+        }
+        for (int p = 0; p < pairWeights.length; p++) {
+            score += pairWeights[p] * Math.min(rows[offset + pairFirst[p]], rows[offset + pairSecond[p]]);
+        }
+        for (int s = 0; s < setWeights.length; s++) {
+            double minVal = Double.MAX_VALUE;
+            for (int mask = setMasks[s]; mask != 0; mask &= mask - 1) {
+                minVal = Math.min(minVal, rows[offset + Integer.numberOfTrailingZeros(mask)]);
+            }
+            score += setWeights[s] * minVal;
+        }
+        return score;
+    }
+
+    /**
+     * @return The number of criteria of the capacity.
+     */
+    public int getNbCriteria() {
+        return nbCriteria;
+    }
+}
@@ -1,5 +1,8 @@
 package tools.functions.singlevariate;
 
+import java.util.Arrays;
+
+import tools.alternatives.Alternative;
 import tools.alternatives.IAlternative;
 import tools.rules.DecisionRule;
 
@@ -11,7 +14,58 @@ public interface ISinglevariateFunction {
 
     double computeScore(IAlternative alternative, DecisionRule rule);
 
+    /**
+     * Computes the score of a vector of measures. Functions working on the vector
+     * alone override it so that no alternative is built around the vector.
+     *
+     * @param vector The vector of measures.
+     * @return The computed score.
+     */
+    default double computeScore(double[] vector) {
+        return computeScore(new Alternative(vector));
+    }
+
+    /**
+     * Computes the score of a vector of measures of a rule, as
+     * {@link #computeScore(IAlternative, DecisionRule)} does.
+     *
+     * @param vector The vector of measures, usually normalized.
+     * @param rule   The rule the vector was computed from.
+     * @return The computed score.
+     */
+    default double computeScore(double[] vector, DecisionRule rule) {
+        return computeScore(new Alternative(vector), rule);
+    }
+
+    /**
+     * Computes the scores of several vectors of measures.
+     *
+     * @param rows The vectors of measures, one per row.
+     * @param out  The array receiving the score of each row.
+     */
+    default void computeScores(double[][] rows, double[] out) {
+        for (int r = 0; r < rows.length; r++) {
+            out[r] = computeScore(rows[r]);
+        }
+    }
+
+    /**
+     * Computes the scores of several vectors of measures stored one after the
+     * other in a single array.
+     *
+     * @param rows       The vectors of measures, row after row.
+     * @param nbCriteria The number of measures of a row.
+     * @param out        The array receiving the score of each row, whose length
+     *                   is the number of rows.
+     */
+    default void computeScores(double[] rows, int nbCriteria, double[] out) {
+        for (int r = 0; r < out.length; r++) {
+            // A fresh row, as the score function may keep it
+            out[r] = computeScore(Arrays.copyOfRange(rows, r * nbCriteria, (r + 1) * nbCriteria));
+        }
+    }
+
     String getName();
 
     void setName(String name);
-}
\ No newline at end of file
+}
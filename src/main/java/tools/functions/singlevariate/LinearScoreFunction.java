@@ -42,12 +42,43 @@ public class LinearScoreFunction implements ISinglevariateFunction {
      */
     @Override
     public double computeScore(IAlternative alternative) {
+        return computeScore(alternative.getVector());
+    }
+
+    @Override
+    public double computeScore(double[] vector) {
+        return score(vector, 0, vector.length);
+    }
+
+    @Override
+    public double computeScore(double[] vector, DecisionRule rule) {
+        return computeScore(rule);
+    }
+
+    @Override
+    public void computeScores(double[][] rows, double[] out) {
+        for (int r = 0; r < rows.length; r++) {
+            out[r] = score(rows[r], 0, rows[r].length);
+        }
+    }
+
+    @Override
+    public void computeScores(double[] rows, int nbCriteria, double[] out) {
+        for (int r = 0; r < out.length; r++) {
+            out[r] = score(rows, r * nbCriteria, nbCriteria);
+        }
+    }
+
+    /**
+     * @return The weighted sum of the measures of the row starting at the offset.
+     */
+    private double score(double[] rows, int offset, int nbCriteria) {
         double score = 0;
-        for (int i = 0; i < alternative.getVector().length; i++) {
+        for (int i = 0; i < nbCriteria; i++) {
             if (!weightsInitialized)
-                score += alternative.getVector()[i];
+                score += rows[offset + i];
             else
-                score += weights[i] * alternative.getVector()[i];
+                score += weights[i] * rows[offset + i];
         }
         return score;
     }
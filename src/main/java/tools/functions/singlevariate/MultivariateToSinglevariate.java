@@ -11,7 +11,6 @@ import java.util.TreeSet;
 
 import lombok.Getter;
 import lombok.Setter;
-import tools.alternatives.Alternative;
 import tools.alternatives.IAlternative;
 import tools.functions.multivariate.IMultivariateFunction;
 import tools.normalization.Normalizer;
@@ -33,6 +32,9 @@ public class MultivariateToSinglevariate implements ISinglevariateFunction {
 
     private @Getter @Setter int maxHistSize = 1000;
 
+    // Buffers receiving the normalized vectors of the pair being scored
+    private double[][] normVectors = new double[2][0];
+
     public MultivariateToSinglevariate(String name, IMultivariateFunction pairwiseUncertainty,
             List<DecisionRule> initialRules, int maxHistSize) {
         this.Name = name;
@@ -121,18 +123,17 @@ public class MultivariateToSinglevariate implements ISinglevariateFunction {
     }
 
     private void updateNormalization(IAlternative alternative) {
-        getNormalizer().normalize(alternative.getVector(), NormalizationMethod.NO_NORMALIZATION, true);
+        getNormalizer().update(alternative.getVector());
     }
 
     public double getAlternativeScore(IAlternative[] alternatives) {
-        double[] unNormVector0 = alternatives[0].getVector();
-        double[] normVector0 = getNormalizer().normalize(unNormVector0, NormalizationMethod.MIN_MAX_SCALING, false);
-        IAlternative normAlternative0 = new Alternative(normVector0);
-
-        double[] unNormVector1 = alternatives[1].getVector();
-        double[] normVector1 = getNormalizer().normalize(unNormVector1, NormalizationMethod.MIN_MAX_SCALING, false);
-        IAlternative normAlternative1 = new Alternative(normVector1);
+        int length = alternatives[0].getVector().length;
+        if (normVectors[0].length != length) {
+            normVectors = new double[2][length];
+        }
+        getNormalizer().normalize(alternatives[0].getVector(), NormalizationMethod.MIN_MAX_SCALING, normVectors[0]);
+        getNormalizer().normalize(alternatives[1].getVector(), NormalizationMethod.MIN_MAX_SCALING, normVectors[1]);
 
-        return pairwiseUncertainty.computeScore(new IAlternative[] { normAlternative0, normAlternative1 });
+        return pairwiseUncertainty.computeScore(normVectors);
     }
 }
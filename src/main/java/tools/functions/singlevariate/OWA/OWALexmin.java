@@ -34,6 +34,26 @@ public class OWALexmin implements ISinglevariateFunction {
         return func.computeScore(a);
     }
 
+    @Override
+    public double computeScore(double[] vector) {
+        return func.computeScore(vector);
+    }
+
+    @Override
+    public double computeScore(double[] vector, DecisionRule rule) {
+        return func.computeScore(vector);
+    }
+
+    @Override
+    public void computeScores(double[][] rows, double[] out) {
+        func.computeScores(rows, out);
+    }
+
+    @Override
+    public void computeScores(double[] rows, int nbCriteria, double[] out) {
+        func.computeScores(rows, nbCriteria, out);
+    }
+
     @Override
     public double computeScore(DecisionRule rule) {
         return computeScore(rule.getAlternative());
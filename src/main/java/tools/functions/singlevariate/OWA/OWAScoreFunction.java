@@ -23,10 +23,39 @@ public class OWAScoreFunction implements ISinglevariateFunction {
 
     @Override
     public double computeScore(IAlternative alternative) {
-        assert alternative.getVector().length == weights.length;
+        return computeScore(alternative.getVector());
+    }
+
+    @Override
+    public double computeScore(double[] vector) {
+        assert vector.length == weights.length;
+        return score(vector, 0);
+    }
+
+    @Override
+    public double computeScore(double[] vector, DecisionRule rule) {
+        return computeScore(vector);
+    }
+
+    @Override
+    public void computeScores(double[][] rows, double[] out) {
+        for (int r = 0; r < rows.length; r++) {
+            out[r] = computeScore(rows[r]);
+        }
+    }
+
+    @Override
+    public void computeScores(double[] rows, int nbCriteria, double[] out) {
+        assert nbCriteria == weights.length;
+        for (int r = 0; r < out.length; r++) {
+            out[r] = score(rows, r * nbCriteria);
+        }
+    }
+
+    private double score(double[] rows, int offset) {
         double score = 0;
         for (int i = 0; i < weights.length; i++) {
-            score += weights[i] * alternative.getVector()[i];
+            score += weights[i] * rows[offset + i];
         }
         return score;
     }
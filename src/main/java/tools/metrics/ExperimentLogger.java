@@ -5,15 +5,14 @@ import java.beans.PropertyChangeListener;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
-import tools.normalization.Normalizer;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 
-import tools.alternatives.Alternative;
-import tools.alternatives.IAlternative;
 import tools.functions.singlevariate.ISinglevariateFunction;
 import tools.normalization.Normalizer.NormalizationMethod;
 import tools.oracles.ArtificialOracle;
@@ -31,7 +30,6 @@ public class ExperimentLogger implements PropertyChangeListener {
     private int foldIdx;
     private List<DecisionRule> testRuleSet;
     private NormalizationMethod normMethod;
-    private Normalizer normalizer;
     private int iteration = 0;
 
     public ExperimentLogger(ArtificialOracle oracle, String learningAlgName, String loggingPath, String datasetName,
@@ -56,15 +54,6 @@ public class ExperimentLogger implements PropertyChangeListener {
         } else {
             // System.out.println("Logging path already exists: " + loggingPath);
         }
-
-        this.normalizer = new Normalizer();
-        initNormalization();
-    }
-
-    private void initNormalization() {
-        for (DecisionRule rule : testRuleSet)
-            this.normalizer.normalize(rule.getAlternative().getVector(), NormalizationMethod.NO_NORMALIZATION, true);
-
     }
 
     /**
@@ -126,9 +115,7 @@ public class ExperimentLogger implements PropertyChangeListener {
         String filename = datasetName + "_" + foldIdx + "_"
                 + learningAlgName + "_" + this.oracle.getScoreFunction().getName();
 
-        List<Double> approxScore = testRuleSet.parallelStream()
-                .map(rule -> getValidRuleScore(rule, func))
-                .collect(Collectors.toList());
+        List<Double> approxScore = computeApproxScores(func);
 
         List<Double> oracleScore = testRuleSet.parallelStream()
                 .map(rule -> oracle.computeScore(rule))
@@ -138,12 +125,23 @@ public class ExperimentLogger implements PropertyChangeListener {
         iteration += 1;
     }
 
-    private double getValidRuleScore(DecisionRule rule, ISinglevariateFunction scoreFunction) {
-        double[] unNormVector = rule.getAlternative().getVector();
-        double[] normVector = this.normalizer.normalize(unNormVector, this.normMethod, false);
+    private List<Double> computeApproxScores(ISinglevariateFunction scoreFunction) {
+        if (testRuleSet.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        // The vectors of the rules are scored together, row after row. They are
+        // not normalized, the learned functions scoring the vector of the rule
+        // whatever the vector they are given
+        int nbCriteria = testRuleSet.get(0).getAlternative().getVector().length;
+        double[] rows = new double[testRuleSet.size() * nbCriteria];
+        for (int r = 0; r < testRuleSet.size(); r++) {
+            System.arraycopy(testRuleSet.get(r).getAlternative().getVector(), 0, rows, r * nbCriteria, nbCriteria);
+        }
+        double[] scores = new double[testRuleSet.size()];
+        scoreFunction.computeScores(rows, nbCriteria, scores);
 
-        IAlternative normAlternative = new Alternative(normVector);
-        return scoreFunction.computeScore(normAlternative, rule);
+        return Arrays.stream(scores).boxed().collect(Collectors.toList());
     }
 
     private String ruleToString(DecisionRule rule) {
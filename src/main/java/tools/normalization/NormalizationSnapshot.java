@@ -0,0 +1,94 @@
+package tools.normalization;
+
+import lombok.Getter;
+import tools.normalization.Normalizer.NormalizationMethod;
+
+/**
+ * Immutable normalization frozen from the statistics of a {@link Normalizer} at
+ * a given version. Every method but the empirical CDF is a per-coordinate affine
+ * transform, value * scale + offset, the tanh estimator applying its squashing
+ * on top of it. The empirical CDF is looked up in a quantile table per
+ * coordinate. A snapshot can be read by any number of threads without locking,
+ * and is not affected by later updates of the normalizer.
+ */
+public final class NormalizationSnapshot {
+
+    private final @Getter NormalizationMethod method;
+    private final @Getter long version; // The version of the statistics it was frozen from
+    private final double[] scale, offset;
+    private final QuantileTable[] quantiles; // Only for the empirical CDF, null if a coordinate has no value
+
+    NormalizationSnapshot(NormalizationMethod method, long version, double[] scale, double[] offset,
+            QuantileTable[] quantiles) {
+        this.method = method;
+        this.version = version;
+        this.scale = scale;
+        this.offset = offset;
+        this.quantiles = quantiles;
+    }
+
+    /**
+     * @param vector The vector to normalize.
+     * @return The normalized vector, in a new array.
+     */
+    public double[] normalize(double[] vector) {
+        return normalize(vector, new double[vector.length]);
+    }
+
+    /**
+     * @param vector The vector to normalize.
+     * @param out    The array receiving the normalized vector, which may be the
+     *               vector itself.
+     * @return The output array.
+     */
+    public double[] normalize(double[] vector, double[] out) {
+        normalize(vector, 0, out, 0);
+        return out;
+    }
+
+    /**
+     * Normalizes several vectors stored one after the other in a single array.
+     *
+     * @param rows The vectors, row after row.
+     * @param out  The array receiving the normalized vectors, of the same length.
+     */
+    public void normalizeRows(double[] rows, double[] out) {
+        if (getDimensions() == 0) {
+            return;
+        }
+        for (int offset = 0; offset < rows.length; offset += getDimensions()) {
+            normalize(rows, offset, out, offset);
+        }
+    }
+
+    private void normalize(double[] vector, int from, double[] out, int to) {
+        int dimensions = getDimensions();
+        switch (method) {
+            case NO_NORMALIZATION:
+                System.arraycopy(vector, from, out, to, dimensions);
+                break;
+            case EMPIRICAL_CDF:
+                for (int i = 0; i < dimensions; i++) {
+                    out[to + i] = quantiles[i] != null ? quantiles[i].cdf(vector[from + i]) : 0.0;
+                }
+                break;
+            case TANH_ESTIMATOR:
+                for (int i = 0; i < dimensions; i++) {
+                    out[to + i] = 0.5 * Math.tanh(0.01 * (vector[from + i] * scale[i] + offset[i])) + 0.5;
+                }
+                break;
+            default:
+                for (int i = 0; i < dimensions; i++) {
+                    out[to + i] = vector[from + i] * scale[i] + offset[i];
+                }
+                break;
+        }
+    }
+
+    /**
+     * @return The number of coordinates of the vectors.
+     */
+    public int getDimensions() {
+        return scale.length;
+    }
+}
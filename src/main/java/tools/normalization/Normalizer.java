@@ -1,10 +1,13 @@
 package tools.normalization;
 
 import java.util.*;
-import java.util.stream.IntStream;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import com.tdunning.math.stats.TDigest;
 
+import lombok.Getter;
+import lombok.Setter;
+
 /**
  * This class takes in a vector of doubles and, given a normalization method,
  * returns a new normalized vector.
@@ -29,6 +32,27 @@ import com.tdunning.math.stats.TDigest;
  * seen.
  * This class has a 'save' parameter for the normalize function.
  * If 'save' is true, then all the required historical values are updated.
+ *
+ * A normalizer can be shared by several threads, for instance the chains of a
+ * parallel sampler. The statistics are guarded by the normalizer, and the
+ * values used by the affine methods are copied by each change into an
+ * immutable {@link AffineStats} published through a volatile field, so
+ * normalizing with them takes no lock. With a merge interval above
+ * one, each thread accumulates its updates in its own statistics and merges
+ * them into the shared ones every mergeInterval vectors, or when it calls
+ * {@link #flush()}, so that updating takes no lock either.
+ *
+ * The median and empirical CDF methods read a table of breakpoints per
+ * coordinate instead of the digests, see {@link QuantileTable}. Building the
+ * tables reads every digest, so they are built again lazily: once the
+ * statistics changed a tenth as many times as when the tables were built, and
+ * at least every quantileRebuildInterval changes. The tables thus follow every
+ * change while the statistics are young, when each vector moves the quantiles
+ * most, and lag behind by at most quantileRebuildInterval changes afterwards.
+ * The median and CDF read meanwhile miss at most a tenth of the changes of the
+ * statistics, which only shift them slightly once many vectors were seen. An
+ * interval of 1 keeps the tables up to date at the cost of rebuilding them
+ * after every change. Frozen snapshots always read up-to-date tables.
  */
 public class Normalizer {
 
@@ -44,7 +68,7 @@ public class Normalizer {
         EMPIRICAL_CDF
     }
 
-    class CoordinateStats {
+    public static class CoordinateStats {
         double min = Double.POSITIVE_INFINITY;
         double max = Double.NEGATIVE_INFINITY;
         private double sum = 0.0;
@@ -79,6 +103,27 @@ public class Normalizer {
             statsDirty = true;
         }
 
+        /**
+         * Adds the values seen by other statistics to these ones, as if they had
+         * been updated with them.
+         *
+         * @param other The statistics to merge, which are left untouched.
+         */
+        public void merge(CoordinateStats other) {
+            if (other.count == 0) {
+                return;
+            }
+            count += other.count;
+            sum += other.sum;
+            sumSq += other.sumSq;
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+            maxAbs = Math.max(maxAbs, other.maxAbs);
+            maxDigits = Math.max(maxDigits, other.maxDigits);
+            tDigest.add(other.tDigest);
+            statsDirty = true;
+        }
+
         private void recomputeStats() {
             if (statsDirty && count > 0) {
                 mean = sum / count;
@@ -115,94 +160,457 @@ public class Normalizer {
             return tDigest.cdf(value);
         }
 
+        public int getCount() {
+            return count;
+        }
+
+    }
+
+    /**
+     * The quantile tables of the coordinates, built at a given version of the
+     * statistics.
+     */
+    private static final class QuantileTables {
+        private final long version;
+        private final QuantileTable[] tables; // Null for a coordinate without values
+
+        private QuantileTables(long version, QuantileTable[] tables) {
+            this.version = version;
+            this.tables = tables;
+        }
+    }
+
+    /**
+     * The values read by the affine methods, copied from the statistics at a
+     * given version. The arrays are never modified once the values are
+     * published.
+     */
+    private static final class AffineStats {
+        private final long version;
+        private final double[] mins, maxs, maxAbs, means, stddevs, decimalScales;
+
+        private AffineStats(long version, List<CoordinateStats> coordinateStats) {
+            int dimensions = coordinateStats.size();
+            this.version = version;
+            this.mins = new double[dimensions];
+            this.maxs = new double[dimensions];
+            this.maxAbs = new double[dimensions];
+            this.means = new double[dimensions];
+            this.stddevs = new double[dimensions];
+            this.decimalScales = new double[dimensions];
+            for (int i = 0; i < dimensions; i++) {
+                CoordinateStats stats = coordinateStats.get(i);
+                mins[i] = stats.min;
+                maxs[i] = stats.max;
+                maxAbs[i] = stats.maxAbs;
+                means[i] = stats.getMean();
+                stddevs[i] = stats.getStddev();
+                decimalScales[i] = Math.pow(10, stats.maxDigits);
+            }
+        }
     }
 
-    private List<CoordinateStats> coordinateStats;
-    private int dimensions;
+    /**
+     * The updates of a thread not merged yet into the shared statistics.
+     */
+    private static final class PendingStats {
+        private CoordinateStats[] coordinateStats;
+        private int count; // The number of vectors accumulated
+    }
+
+    // The shared statistics, guarded by the normalizer
+    private final List<CoordinateStats> coordinateStats;
+    private volatile int dimensions;
+    private volatile long version; // Incremented by each change of the shared statistics
+
+    // The values read by the affine methods, replaced by each change
+    private volatile AffineStats affine;
+
+    // The number of vectors a thread accumulates before merging them
+    private volatile @Getter int mergeInterval = 1;
+    private final ThreadLocal<PendingStats> pending = ThreadLocal.withInitial(PendingStats::new);
+
+    // The largest number of changes of the statistics before the quantile tables
+    // are built again, 1 to keep them up to date
+    public static final int DEFAULT_QUANTILE_REBUILD_INTERVAL = 256;
+    private static final int QUANTILE_STALENESS_RATIO = 10;
+    private volatile @Getter @Setter int quantileRebuildInterval = DEFAULT_QUANTILE_REBUILD_INTERVAL;
+    private volatile QuantileTables quantiles;
+
+    // The last snapshot frozen for each method
+    private final AtomicReferenceArray<NormalizationSnapshot> snapshots = new AtomicReferenceArray<>(
+            NormalizationMethod.values().length);
 
     public Normalizer() {
         coordinateStats = new ArrayList<>();
+        affine = new AffineStats(version, coordinateStats);
     }
 
+    /**
+     * Normalizes a vector into a new array.
+     *
+     * @param vector The vector to normalize.
+     * @param method The normalization method.
+     * @param save   If true, the statistics are first updated with the vector.
+     * @return The normalized vector.
+     */
     public double[] normalize(double[] vector, NormalizationMethod method, boolean save) {
+        if (save) {
+            update(vector);
+        } else {
+            checkDimensions(vector);
+        }
+        return normalize(vector, method, new double[dimensions]);
+    }
+
+    /**
+     * Updates the statistics of each coordinate with a vector. With a merge
+     * interval above one, the vector is only seen by the other threads, and by
+     * the normalizations, once the updates of the calling thread are merged.
+     *
+     * @param vector The vector seen.
+     */
+    public void update(double[] vector) {
+        checkDimensions(vector);
+        if (mergeInterval <= 1) {
+            synchronized (this) {
+                for (int i = 0; i < dimensions; i++) {
+                    coordinateStats.get(i).update(vector[i]);
+                }
+                publishChange();
+            }
+            return;
+        }
+
+        PendingStats threadStats = pending.get();
+        if (threadStats.coordinateStats == null) {
+            threadStats.coordinateStats = new CoordinateStats[dimensions];
+            for (int i = 0; i < dimensions; i++) {
+                threadStats.coordinateStats[i] = new CoordinateStats();
+            }
+        }
+        for (int i = 0; i < dimensions; i++) {
+            threadStats.coordinateStats[i].update(vector[i]);
+        }
+        if (++threadStats.count >= mergeInterval) {
+            flush();
+        }
+    }
+
+    /**
+     * Merges the updates accumulated by the calling thread into the shared
+     * statistics.
+     */
+    public void flush() {
+        PendingStats threadStats = pending.get();
+        if (threadStats.count == 0) {
+            return;
+        }
+        merge(threadStats.coordinateStats);
+        threadStats.coordinateStats = null;
+        threadStats.count = 0;
+    }
+
+    /**
+     * Merges statistics gathered elsewhere, for instance by another normalizer,
+     * into the shared statistics.
+     *
+     * @param other The statistics of each coordinate, left untouched.
+     */
+    public void merge(List<CoordinateStats> other) {
+        merge(other.toArray(new CoordinateStats[0]));
+    }
+
+    private void merge(CoordinateStats[] other) {
+        if (other.length == 0) {
+            return;
+        }
         if (dimensions == 0) {
-            dimensions = vector.length;
-        } else if (vector.length != dimensions) {
+            checkDimensions(new double[other.length]);
+        } else if (other.length != dimensions) {
             throw new IllegalArgumentException("Vector length must be consistent.");
         }
-
-        while (coordinateStats.size() < dimensions) {
-            coordinateStats.add(new CoordinateStats());
+        synchronized (this) {
+            for (int i = 0; i < dimensions; i++) {
+                coordinateStats.get(i).merge(other[i]);
+            }
+            publishChange();
         }
+    }
 
-        double[] result = new double[dimensions];
+    /**
+     * Sets the number of vectors a thread accumulates before merging them into
+     * the shared statistics. The updates already accumulated by the calling
+     * thread are merged.
+     *
+     * @param mergeInterval The number of vectors, 1 to merge each vector at once.
+     */
+    public void setMergeInterval(int mergeInterval) {
+        flush();
+        this.mergeInterval = mergeInterval;
+    }
 
-        IntStream.range(0, dimensions).forEach(i -> {
-            double value = vector[i];
-            CoordinateStats stats = coordinateStats.get(i);
+    /**
+     * @return The version of the shared statistics, incremented by each change.
+     */
+    public long getVersion() {
+        return version;
+    }
 
-            if (save) {
-                stats.update(value);
+    /**
+     * Normalizes a vector into the given array with the current statistics, which
+     * are left untouched. The method is dispatched once for the whole vector. The
+     * affine methods read the values of the statistics without locking, all the
+     * coordinates being read from the same version.
+     *
+     * @param vector The vector to normalize.
+     * @param method The normalization method.
+     * @param out    The array receiving the normalized vector, which may be the
+     *               vector itself.
+     * @return The output array.
+     */
+    public double[] normalize(double[] vector, NormalizationMethod method, double[] out) {
+        checkDimensions(vector);
+        int dimensions = this.dimensions;
+        AffineStats affine = this.affine;
+        double[] mins = affine.mins, maxs = affine.maxs, means = affine.means, stddevs = affine.stddevs;
+
+        switch (method) {
+            case MIN_MAX_SCALING:
+                for (int i = 0; i < dimensions; i++) {
+                    double min = mins[i];
+                    double max = maxs[i];
+                    out[i] = max != min ? (vector[i] - min) / (max - min) : 0.0;
+                }
+                break;
+            case MEAN_NORMALIZATION:
+                for (int i = 0; i < dimensions; i++) {
+                    double min = mins[i];
+                    double max = maxs[i];
+                    out[i] = max != min ? (vector[i] - means[i]) / (max - min) : 0.0;
+                }
+                break;
+            case MAX_ABSOLUTE_SCALING:
+                for (int i = 0; i < dimensions; i++) {
+                    double maxAbs = affine.maxAbs[i];
+                    out[i] = maxAbs != 0.0 ? vector[i] / maxAbs : 0.0;
+                }
+                break;
+            case MEDIAN_NORMALIZATION:
+                QuantileTable[] medianTables = getQuantileTables(quantileRebuildInterval).tables;
+                for (int i = 0; i < dimensions; i++) {
+                    double median = medianTables[i] != null ? medianTables[i].getMedian() : Double.NaN;
+                    out[i] = median != 0.0 ? vector[i] / median : 0.0;
+                }
+                break;
+            case DECIMAL_SCALING:
+                for (int i = 0; i < dimensions; i++) {
+                    double scalingFactor = affine.decimalScales[i];
+                    out[i] = scalingFactor != 0.0 ? vector[i] / scalingFactor : 0.0;
+                }
+                break;
+            case TANH_ESTIMATOR:
+                for (int i = 0; i < dimensions; i++) {
+                    double stddev = stddevs[i];
+                    out[i] = stddev != 0.0 ? 0.5 * (Math.tanh(0.01 * ((vector[i] - means[i]) / stddev))) + 0.5
+                            : 0.5;
+                }
+                break;
+            case Z_NORMALIZATION:
+                for (int i = 0; i < dimensions; i++) {
+                    double stddev = stddevs[i];
+                    out[i] = stddev != 0.0 ? (vector[i] - means[i]) / stddev : 0.0;
+                }
+                break;
+            case EMPIRICAL_CDF:
+                QuantileTable[] cdfTables = getQuantileTables(quantileRebuildInterval).tables;
+                for (int i = 0; i < dimensions; i++) {
+                    out[i] = cdfTables[i] != null ? cdfTables[i].cdf(vector[i]) : 0.0;
+                }
+                break;
+
+            default:
+                System.arraycopy(vector, 0, out, 0, dimensions); // No normalization applied
+                break;
+        }
+
+        return out;
+    }
+
+    /**
+     * Freezes the current statistics into an immutable normalization, which
+     * normalizes with precomputed per-coordinate scales and offsets and can be
+     * shared between threads. The updates not merged yet by their thread are not
+     * taken into account. The snapshot is built again only if the statistics
+     * changed since the last one of the same method.
+     *
+     * @param method The normalization method.
+     * @return The snapshot of the normalization.
+     */
+    public NormalizationSnapshot freeze(NormalizationMethod method) {
+        NormalizationSnapshot snapshot = snapshots.get(method.ordinal());
+        if (snapshot != null && snapshot.getVersion() == version) {
+            return snapshot;
+        }
+        synchronized (this) {
+            snapshot = snapshots.get(method.ordinal());
+            if (snapshot == null || snapshot.getVersion() != version) {
+                snapshot = buildSnapshot(method);
+                snapshots.set(method.ordinal(), snapshot);
             }
+            return snapshot;
+        }
+    }
+
+    /**
+     * Derives the scale and offset of each coordinate from its statistics, with
+     * the same guards against empty ranges as {@link #normalize(double[],
+     * NormalizationMethod, double[])}. Must be called holding the lock.
+     */
+    private NormalizationSnapshot buildSnapshot(NormalizationMethod method) {
+        double[] scale = new double[dimensions];
+        double[] offset = new double[dimensions];
+        // The median is read from the same tables as in normalize
+        QuantileTable[] tables = null;
+        if (method == NormalizationMethod.EMPIRICAL_CDF || method == NormalizationMethod.MEDIAN_NORMALIZATION) {
+            tables = getQuantileTables(1).tables;
+        }
 
+        for (int i = 0; i < dimensions; i++) {
+            CoordinateStats stats = coordinateStats.get(i);
+            double min = stats.min;
+            double max = stats.max;
             switch (method) {
                 case MIN_MAX_SCALING:
-                    double min = stats.min;
-                    double max = stats.max;
-                    result[i] = max != min ? (value - min) / (max - min) : 0.0;
+                    if (max != min) {
+                        scale[i] = 1 / (max - min);
+                        offset[i] = -min / (max - min);
+                    }
                     break;
                 case MEAN_NORMALIZATION:
-                    double mean = stats.getMean();
-                    min = stats.min;
-                    max = stats.max;
-                    result[i] = max != min ? (value - mean) / (max - min) : 0.0;
+                    if (max != min) {
+                        scale[i] = 1 / (max - min);
+                        offset[i] = -stats.getMean() / (max - min);
+                    }
                     break;
                 case MAX_ABSOLUTE_SCALING:
-                    double maxAbs = stats.maxAbs;
-                    result[i] = maxAbs != 0.0 ? value / maxAbs : 0.0;
+                    if (stats.maxAbs != 0.0) {
+                        scale[i] = 1 / stats.maxAbs;
+                    }
                     break;
                 case MEDIAN_NORMALIZATION:
-                    double median = stats.getMedian();
-                    result[i] = median != 0.0 ? value / median : 0.0;
+                    double median = tables[i] != null ? tables[i].getMedian() : Double.NaN;
+                    if (median != 0.0) {
+                        scale[i] = 1 / median;
+                    }
                     break;
                 case DECIMAL_SCALING:
-                    int j = stats.maxDigits;
-                    double scalingFactor = Math.pow(10, j);
-                    result[i] = scalingFactor != 0.0 ? value / scalingFactor : 0.0;
+                    scale[i] = 1 / Math.pow(10, stats.maxDigits);
                     break;
                 case TANH_ESTIMATOR:
-                    mean = stats.getMean();
-                    double stddev = stats.getStddev();
-                    result[i] = stddev != 0.0 ? 0.5 * (Math.tanh(0.01 * ((value - mean) / stddev))) + 0.5 : 0.5;
-                    break;
                 case Z_NORMALIZATION:
-                    mean = stats.getMean();
-                    stddev = stats.getStddev();
-                    result[i] = stddev != 0.0 ? (value - mean) / stddev : 0.0;
-                    break;
-                case EMPIRICAL_CDF:
-                    if (stats.count > 0) {
-                        result[i] = stats.getCDF(value);
-                    } else {
-                        result[i] = 0.0;
+                    double stddev = stats.getStddev();
+                    if (stddev != 0.0) {
+                        scale[i] = 1 / stddev;
+                        offset[i] = -stats.getMean() / stddev;
                     }
                     break;
-
                 default:
-                    result[i] = value; // No normalization applied
+                    scale[i] = 1;
                     break;
             }
-        });
+        }
+        return new NormalizationSnapshot(method, version, scale, offset,
+                method == NormalizationMethod.EMPIRICAL_CDF ? tables : null);
+    }
 
-        return result;
+    /**
+     * @param rebuildInterval The largest number of changes of the statistics the
+     *                        tables may lag behind.
+     * @return The quantile tables of the coordinates, built again if they are
+     *         too old.
+     */
+    private QuantileTables getQuantileTables(int rebuildInterval) {
+        QuantileTables current = quantiles;
+        if (isFresh(current, rebuildInterval)) {
+            return current;
+        }
+        synchronized (this) {
+            if (!isFresh(quantiles, rebuildInterval)) {
+                // The digests reorganize themselves when they are read
+                QuantileTable[] tables = new QuantileTable[dimensions];
+                for (int i = 0; i < dimensions; i++) {
+                    tables[i] = QuantileTable.of(coordinateStats.get(i).tDigest,
+                            QuantileTable.DEFAULT_NB_BREAKPOINTS);
+                }
+                quantiles = new QuantileTables(version, tables);
+            }
+            return quantiles;
+        }
     }
 
-    private int countDigits(double value) {
+    /**
+     * @return True if the tables lag behind the statistics by fewer changes than
+     *         a tenth of the changes they were built from, capped by the rebuild
+     *         interval.
+     */
+    private boolean isFresh(QuantileTables tables, int rebuildInterval) {
+        if (tables == null || tables.tables.length != dimensions) {
+            return false;
+        }
+        long maxLag = Math.min(rebuildInterval, tables.version / QUANTILE_STALENESS_RATIO);
+        return version - tables.version < Math.max(maxLag, 1);
+    }
+
+    /**
+     * Fixes the number of coordinates on the first vector and checks the
+     * following ones against it.
+     */
+    private void checkDimensions(double[] vector) {
+        if (dimensions == 0 && vector.length > 0) {
+            synchronized (this) {
+                if (dimensions == 0) {
+                    while (coordinateStats.size() < vector.length) {
+                        coordinateStats.add(new CoordinateStats());
+                    }
+                    publishChange();
+                    dimensions = vector.length;
+                }
+            }
+        }
+        if (vector.length != dimensions) {
+            throw new IllegalArgumentException("Vector length must be consistent.");
+        }
+    }
+
+    /**
+     * Increments the version of the statistics and publishes the values read by
+     * the affine methods at this version. Must be called holding the lock.
+     */
+    private void publishChange() {
+        version++;
+        affine = new AffineStats(version, coordinateStats);
+    }
+
+    private static int countDigits(double value) {
         value = Math.abs(value);
         return value == 0 ? 1 : (int) Math.floor(Math.log10(value)) + 1;
     }
 
+    /**
+     * @return A copy of the shared statistics of each coordinate, taken under the
+     *         lock, which later updates leave untouched. The updates not merged
+     *         yet by their thread are not included.
+     */
     public List<CoordinateStats> getCoordinateStats() {
-        return coordinateStats;
+        synchronized (this) {
+            List<CoordinateStats> copy = new ArrayList<>(coordinateStats.size());
+            for (CoordinateStats stats : coordinateStats) {
+                CoordinateStats statsCopy = new CoordinateStats();
+                statsCopy.merge(stats);
+                copy.add(statsCopy);
+            }
+            return Collections.unmodifiableList(copy);
+        }
     }
 }
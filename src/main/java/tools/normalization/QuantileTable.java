@@ -0,0 +1,89 @@
+package tools.normalization;
+
+import java.util.Arrays;
+
+import com.tdunning.math.stats.TDigest;
+
+/**
+ * Compact approximation of the cumulative distribution of a coordinate: a
+ * sorted table of breakpoints, the values at evenly spaced quantiles of a
+ * t-digest, with the value of the distribution at each of them. The CDF of a
+ * value is then a binary search and a linear interpolation instead of a walk
+ * over the centroids of the digest.
+ */
+public final class QuantileTable {
+
+    public static final int DEFAULT_NB_BREAKPOINTS = 101;
+
+    private final double[] values; // Non-decreasing
+    private final double[] probabilities; // The CDF at each value, non-decreasing
+    private final double median;
+
+    private QuantileTable(double[] values, double[] probabilities, double median) {
+        this.values = values;
+        this.probabilities = probabilities;
+        this.median = median;
+    }
+
+    /**
+     * Builds the table of a digest, which may reorganize itself while it is read.
+     *
+     * @param digest        The digest of the coordinate.
+     * @param nbBreakpoints The number of breakpoints, at least 2.
+     * @return The table, or null if the digest is empty.
+     */
+    public static QuantileTable of(TDigest digest, int nbBreakpoints) {
+        if (digest.size() == 0) {
+            return null;
+        }
+        double[] values = new double[nbBreakpoints];
+        double[] probabilities = new double[nbBreakpoints];
+        for (int k = 0; k < nbBreakpoints; k++) {
+            values[k] = digest.quantile((double) k / (nbBreakpoints - 1));
+            if (k > 0 && values[k] < values[k - 1]) {
+                values[k] = values[k - 1];
+            }
+        }
+        for (int k = 0; k < nbBreakpoints; k++) {
+            probabilities[k] = digest.cdf(values[k]);
+            if (k > 0 && probabilities[k] < probabilities[k - 1]) {
+                probabilities[k] = probabilities[k - 1];
+            }
+        }
+        return new QuantileTable(values, probabilities, digest.quantile(0.5));
+    }
+
+    /**
+     * @param value The value.
+     * @return The approximate proportion of the values of the coordinate below the
+     *         value, interpolated between the breakpoints around it.
+     */
+    public double cdf(double value) {
+        int last = values.length - 1;
+        if (value < values[0]) {
+            return 0.0;
+        }
+        if (value >= values[last]) {
+            return value > values[last] ? 1.0 : probabilities[last];
+        }
+        // The last breakpoint not above the value
+        int k = Arrays.binarySearch(values, value);
+        if (k < 0) {
+            k = -k - 2;
+        } else {
+            while (k < last && values[k + 1] == value) {
+                k++;
+            }
+            return probabilities[k];
+        }
+        double width = values[k + 1] - values[k];
+        return probabilities[k] + (probabilities[k + 1] - probabilities[k]) * (value - values[k]) / width;
+    }
+
+    /**
+     * @return The median of the digest when the table was built.
+     */
+    public double getMedian() {
+        return median;
+    }
+}
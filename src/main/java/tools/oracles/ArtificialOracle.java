@@ -3,6 +3,7 @@ package tools.oracles;
 import org.apache.commons.math3.distribution.NormalDistribution;
 
 import lombok.Getter;
+import lombok.Setter;
 import tools.functions.singlevariate.ISinglevariateFunction;
 import tools.rules.DecisionRule;
 import tools.utils.RandomUtil;
@@ -11,7 +12,7 @@ import tools.utils.RandomUtil;
  * Abstract class representing a score-based oracle for comparing alternatives.
  */
 public abstract class ArtificialOracle implements Oracle{
-    private @Getter RandomUtil random = new RandomUtil();
+    private @Getter @Setter RandomUtil random = RandomUtil.newStream();
 
     /**
      * Compares two alternatives based on their computed scores.
@@ -12,6 +12,7 @@ import lombok.Setter;
 import tools.alternatives.Alternative;
 import tools.alternatives.IAlternative;
 import tools.functions.singlevariate.ISinglevariateFunction;
+import tools.normalization.NormalizationSnapshot;
 import tools.normalization.Normalizer;
 import tools.normalization.Normalizer.NormalizationMethod;
 import tools.oracles.ArtificialOracle;
@@ -51,13 +52,18 @@ public class MinGapsRankingsProvider implements RankingsProvider {
     private DecisionRule[] sample;
     private Normalizer normalizer = new Normalizer();
 
+    // The normalization of the sample, which does not change once it is built
+    private NormalizationSnapshot normalization;
+    private double[] normA = new double[0], normB = new double[0];
+
     // The list of all selected pairs of alternatives from all the iterations
     // and their respective ranking given by the oracle.
     private Set<IAlternative[]> selectedPairs = new HashSet<>();
     private List<Ranking<IAlternative>> rankings = new ArrayList<>();
 
-    // The random instance used for random sampling
-    private RandomUtil random = RandomUtil.getInstance();
+    // The stream of this provider used for random sampling, split off the master
+    // stream since the providers of the folds run on several threads
+    private RandomUtil random = RandomUtil.newStream();
 
     public MinGapsRankingsProvider(ArtificialOracle oracle,
             DecisionRule[] sample) {
@@ -65,7 +71,8 @@ public class MinGapsRankingsProvider implements RankingsProvider {
         this.sample = sample;
 
         for (DecisionRule rule : sample)
-            normalizer.normalize(rule.getAlternative().getVector(), NormalizationMethod.NO_NORMALIZATION, true);
+            normalizer.update(rule.getAlternative().getVector());
+        this.normalization = normalizer.freeze(NormalizationMethod.MIN_MAX_SCALING);
     }
 
     /**
@@ -77,12 +84,14 @@ public class MinGapsRankingsProvider implements RankingsProvider {
      * @return The computed gap between the two alternatives.
      */
     private double measureGap(IAlternative a, IAlternative b) {
-        IAlternative norm_a = new Alternative(
-                normalizer.normalize(a.getVector(), NormalizationMethod.MIN_MAX_SCALING, false));
-        IAlternative norm_b = new Alternative(
-                normalizer.normalize(b.getVector(), NormalizationMethod.MIN_MAX_SCALING, false));
+        if (normA.length != a.getVector().length) {
+            normA = new double[a.getVector().length];
+            normB = new double[a.getVector().length];
+        }
+        normalization.normalize(a.getVector(), normA);
+        normalization.normalize(b.getVector(), normB);
 
-        double num = abs(scoreFunction.computeScore(norm_a) - scoreFunction.computeScore(norm_b));
+        double num = abs(scoreFunction.computeScore(normA) - scoreFunction.computeScore(normB));
         double denom = 0d;
         for (int i = 0; i < a.getVector().length; i++) {
             denom += abs(a.getVector()[i] - b.getVector()[i]);
@@ -136,10 +145,8 @@ public class MinGapsRankingsProvider implements RankingsProvider {
         }
 
         // Add the selected pair to the set of selected pairs
-        IAlternative norm_a = new Alternative(normalizer.normalize(sample[a1Index].getAlternative().getVector(),
-                NormalizationMethod.MIN_MAX_SCALING, false));
-        IAlternative norm_b = new Alternative(normalizer.normalize(sample[a2Index].getAlternative().getVector(),
-                NormalizationMethod.MIN_MAX_SCALING, false));
+        IAlternative norm_a = new Alternative(normalization.normalize(sample[a1Index].getAlternative().getVector()));
+        IAlternative norm_b = new Alternative(normalization.normalize(sample[a2Index].getAlternative().getVector()));
 
         IAlternative[] alternativePair = new IAlternative[] { norm_a, norm_b };
         List<DecisionRule> rulePair = new ArrayList<>();
@@ -15,7 +15,7 @@ import tools.functions.multivariate.CertaintyFunction;
 import tools.functions.multivariate.outRankingCertainties.BradleyTerry;
 import tools.functions.singlevariate.ISinglevariateFunction;
 import tools.functions.singlevariate.LinearScoreFunction;
-import tools.normalization.Normalizer;
+import tools.normalization.NormalizationSnapshot;
 import tools.normalization.Normalizer.NormalizationMethod;
 import tools.oracles.ArtificialOracle;
 import tools.oracles.Oracle;
@@ -96,10 +96,10 @@ public class TopTwoRules implements RankingsProvider {
         // Sample new alternatives from the test dataset
         List<DecisionRule> sample = sampler.sample();
 
-        Normalizer normalizer = sampler.getNormalizer();
+        NormalizationSnapshot normalization = sampler.getNormalizer().freeze(NormalizationMethod.MIN_MAX_SCALING);
 
-        Alternative normalized0 = new Alternative(normalizer.normalize(sample.get(0).getAlternative().getVector(), NormalizationMethod.MIN_MAX_SCALING, false));
-        Alternative normalized1 = new Alternative(normalizer.normalize(sample.get(1).getAlternative().getVector(), NormalizationMethod.MIN_MAX_SCALING, false));
+        Alternative normalized0 = new Alternative(normalization.normalize(sample.get(0).getAlternative().getVector()));
+        Alternative normalized1 = new Alternative(normalization.normalize(sample.get(1).getAlternative().getVector()));
 
         // Add the selected pair to the set of selected pairs
         IAlternative[] alternativePair = new IAlternative[] { normalized0, normalized1 };
@@ -18,7 +18,7 @@ import tools.functions.multivariate.outRankingCertainties.ScoreDifference;
 import tools.functions.multivariate.outRankingCertainties.Thurstone;
 import tools.functions.singlevariate.ISinglevariateFunction;
 import tools.functions.singlevariate.LinearScoreFunction;
-import tools.normalization.Normalizer;
+import tools.normalization.NormalizationSnapshot;
 import tools.normalization.Normalizer.NormalizationMethod;
 import tools.oracles.ArtificialOracle;
 import tools.oracles.Oracle;
@@ -125,12 +125,12 @@ public class UncertaintySampling implements RankingsProvider {
         listSample.add(sample.get(0)[0]);
         listSample.add(sample.get(0)[1]);
 
-        Normalizer normalizer = sampler.getNormalizer();
+        NormalizationSnapshot normalization = sampler.getNormalizer().freeze(NormalizationMethod.MIN_MAX_SCALING);
 
-        Alternative normalized0 = new Alternative(normalizer.normalize(listSample.get(0).getAlternative().getVector(),
-                NormalizationMethod.MIN_MAX_SCALING, false));
-        Alternative normalized1 = new Alternative(normalizer.normalize(listSample.get(1).getAlternative().getVector(),
-                NormalizationMethod.MIN_MAX_SCALING, false));
+        Alternative normalized0 = new Alternative(
+                normalization.normalize(listSample.get(0).getAlternative().getVector()));
+        Alternative normalized1 = new Alternative(
+                normalization.normalize(listSample.get(1).getAlternative().getVector()));
 
         // Add the selected pair to the set of selected pairs
         IAlternative[] alternativePair = new IAlternative[] { normalized0, normalized1 };
@@ -0,0 +1,69 @@
+package tools.rules;
+
+import lombok.Getter;
+
+/**
+ * Contingency table of a rule X -> Y, from which all the interestingness
+ * measures are computed. The table is mutable so that a single instance can be
+ * filled again after each change of the rule instead of being reallocated.
+ */
+@Getter
+public class ContingencyTable {
+
+    private double n; // Number of transactions
+    private double n11; // Transactions with X and Y
+    private double n1x; // Transactions with X
+    private double nx1; // Transactions with Y
+    private double n0x; // Transactions without X
+    private double nx0; // Transactions without Y
+    private double n10; // Transactions with X but without Y
+    private double n01; // Transactions with Y but without X
+    private double n00; // Transactions with neither X nor Y
+
+    /**
+     * Fills the table from the frequencies of a rule.
+     *
+     * @param rule           The rule.
+     * @param nbTransactions The total number of transactions in the dataset.
+     * @param smoothCounts   The smoothing factor for the counts.
+     * @return This table.
+     */
+    public ContingencyTable set(IRule rule, int nbTransactions, double smoothCounts) {
+        return set(nbTransactions, rule.getFreqX(), rule.getFreqY(), rule.getFreqZ(), smoothCounts);
+    }
+
+    /**
+     * Fills the table from the frequencies of X, Y and Z = X U Y.
+     *
+     * @param nbTransactions The total number of transactions in the dataset.
+     * @param freqX          The frequency of the antecedent.
+     * @param freqY          The frequency of the consequent.
+     * @param freqZ          The frequency of the rule.
+     * @param smoothCounts   The smoothing factor for the counts.
+     * @return This table.
+     */
+    public ContingencyTable set(int nbTransactions, int freqX, int freqY, int freqZ, double smoothCounts) {
+        n = nbTransactions;
+        n11 = freqZ;
+        n1x = freqX;
+        nx1 = freqY;
+        n0x = n - n1x; // Frequency of transactions without antecedent (X)
+        nx0 = n - nx1; // Frequency of transactions without consequent (Y)
+        n10 = n1x - n11; // Frequency of transactions with antecedent but without consequent
+        n01 = nx1 - n11; // Frequency of transactions with consequent but without antecedent
+        n00 = n0x - n01; // Frequency of transactions without both antecedent and consequent
+
+        if (smoothCounts > 0) {
+            n = n + 4 * smoothCounts;
+            n11 = n11 + smoothCounts;
+            n10 = n10 + smoothCounts;
+            n01 = n01 + smoothCounts;
+            n00 = n00 + smoothCounts;
+            n0x = n0x + 2 * smoothCounts;
+            nx0 = nx0 + 2 * smoothCounts;
+            n1x = n1x + 2 * smoothCounts;
+            nx1 = nx1 + 2 * smoothCounts;
+        }
+        return this;
+    }
+}
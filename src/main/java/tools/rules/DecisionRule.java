@@ -1,22 +1,23 @@
 package tools.rules;
 
-import java.util.HashSet;
-import java.util.LinkedHashMap;
-import java.util.Map;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.Objects;
 import java.util.Set;
-import java.util.function.IntConsumer;
-
-import com.zaxxer.sparsebits.SparseBitSet;
+import java.util.function.Supplier;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
+import tools.alternatives.Alternative;
 import tools.alternatives.IAlternative;
+import tools.covers.ICover;
+import tools.covers.ItemsetKey;
 import tools.data.Dataset;
+import tools.data.ItemDictionary;
 import tools.utils.AlternativeUtil;
-import tools.utils.SetUtil;
+import tools.utils.CoverUtil;
 
 /**
  * <p>
@@ -31,6 +32,10 @@ import tools.utils.SetUtil;
  * the
  * dataset.
  * </p>
+ * <p>
+ * The items are kept as their ids in the dataset dictionary, the values only
+ * being looked up to read or write rules.
+ * </p>
  *
  * @param x       The antecedent of the rule.
  * @param y       The consequent of the rule.
@@ -40,9 +45,16 @@ import tools.utils.SetUtil;
 @Builder(toBuilder = true)
 @AllArgsConstructor
 public class DecisionRule implements IRule {
+    // The id of the consequent of a rule without one
+    public static final int NO_ITEM = ItemDictionary.UNKNOWN_ITEM;
+
+    private static final int[] NO_ITEMS = new int[0];
+
+    // Scratch of countFrequenciesWith, one per thread
+    private static final ThreadLocal<int[]> COUNT_STAMPS = ThreadLocal.withInitial(() -> new int[0]);
+
     // Transactional dataset
     private Dataset dataset;
-    private Map<String, SparseBitSet> itemsMap;
 
     // Frequency variables for X, Y, and Z and smoothing factor
     private @Setter int freqX, freqY, freqZ;
@@ -51,248 +63,290 @@ public class DecisionRule implements IRule {
     // Variables regarding feature vectors computation
     private @Setter @Getter String[] measureNames;
     private @Getter IAlternative alternative;
+    private MeasureEvaluator measureEvaluator; // The measure names compiled once
+    private ContingencyTable contingencyTable; // Filled again on each change of the rule
 
     // Covers for X, Y, and Z
-    private SparseBitSet coverX;
-    private SparseBitSet coverY;
-    private SparseBitSet coverZ;
-
-    // Memoization maps for covers of X and Z
-    private Map<Set<String>, SparseBitSet> memoizedCoverX;
-    private Map<Set<String>, SparseBitSet> memoizedCoverZ;
-    private @Getter @Setter int maxSizeX, maxSizeZ;
-
-    // Object for parallel cover computation
-    private CoverParallelCompute coverComputer;
-
-    // Variable representing the consequent
-    private String Y;
-
-    // Set of items in X and Z respectively
-    private Set<String> itemsInX;
-    private Set<String> itemsInZ;
+    private ICover coverX;
+    private ICover coverY;
+    private ICover coverZ;
+
+    // The ids of the items in X in increasing order, the array being replaced
+    // rather than modified on each change, and the id of the consequent
+    @Builder.Default
+    private int[] itemIdsInX = NO_ITEMS;
+    @Builder.Default
+    private int itemIdY = NO_ITEM;
+
+    // Pending proposal, scored from counts only into the scratch vector, the
+    // items and covers being only changed if it is accepted
+    private ICover proposedItemCover;
+    private int proposedItemId;
+    private boolean proposalOnY;
+    private int savedFreqX, savedFreqY, savedFreqZ; // The counts before the proposal
+    private IAlternative savedAlternative;
+    private Alternative scratchAlternative; // Reused by the proposals of the rule
 
+    /**
+     * @deprecated The maximum sizes of X and Z were never enforced and are
+     *             ignored, use
+     *             {@link #DecisionRule(Set, String, Dataset, double, String[])}.
+     */
+    @Deprecated
     public DecisionRule(Set<String> itemsInX, String Y, Dataset dataset, int maxSizeX, int maxSizeZ,
             double smoothCounts, String[] measureNames) {
+        this(itemsInX, Y, dataset, smoothCounts, measureNames);
+    }
+
+    public DecisionRule(Set<String> itemsInX, String Y, Dataset dataset, double smoothCounts,
+            String[] measureNames) {
         // Initializing the transactional dataset
         this.dataset = dataset;
-        this.itemsMap = this.dataset.getItemsMap();
         this.smoothCounts = smoothCounts;
 
         // Initializing all the item sets
-        this.itemsInX = itemsInX;
-        this.Y = Y;
-        computeItemsInZ();
-
-        // Initializing the memoized covers
-        setMaxSizeX(maxSizeX);
-        setMaxSizeZ(maxSizeZ);
-        initializeMemoization(getMaxSizeX(), getMaxSizeZ());
-
-        // Initializing the parallel computer
-        this.coverComputer = new CoverParallelCompute(getDataset());
+        this.itemIdsInX = toItemIds(itemsInX);
+        this.itemIdY = toItemId(Y);
 
         // Initializing the covers for the antecedent, consequent and their union
-        computeNewCover(new String[] { "x", "y", "z" });
+        updateCoverX();
+        updateCoverY();
+        updateCoverZ();
 
         // Initializing all the atomic frequencies
-        updateFrequencies(new String[] { "x", "y", "z" });
+        updateFrequencies();
 
         // Computing the corresponding feature vector
         setMeasureNames(measureNames);
-        this.alternative = AlternativeUtil.computeAlternativeOrZero(this, getDataset().getNbTransactions(),
-                smoothCounts, getMeasureNames());
+        updateAlternative();
     }
 
     public void expandSimpleCopy(DecisionRule originalRule) {
         // Initializing the transactional dataset
         this.dataset = originalRule.getDataset();
-        this.itemsMap = getDataset().getItemsMap();
-
-        // Initializing all the item sets
-        computeItemsInZ();
-
-        // Initializing the memoized covers
-        setMaxSizeX(originalRule.getMaxSizeX());
-        setMaxSizeZ(originalRule.getMaxSizeZ());
-        initializeMemoization(getMaxSizeX(), getMaxSizeZ());
-
-        // Initializing the parallel computer
-        this.coverComputer = new CoverParallelCompute(getDataset());
 
         // Initializing the covers for the antecedent, consequent and their union
-        computeNewCover(new String[] { "x", "y", "z" });
+        updateCoverX();
+        updateCoverY();
+        updateCoverZ();
 
         // Initializing all the atomic frequencies
-        updateFrequencies(new String[] { "x", "y", "z" });
+        updateFrequencies();
 
         // Computing the corresponding feature vector
         setMeasureNames(originalRule.getMeasureNames());
-        this.alternative = AlternativeUtil.computeAlternativeOrZero(this, getDataset().getNbTransactions(),
-                smoothCounts, getMeasureNames());
+        updateAlternative();
     }
 
     /**
-     * Initializes memoization for coverX and coverZ with the specified maximum
-     * sizes.
-     *
-     * @param maxSizeX Maximum size for memoizedCoverX
-     * @param maxSizeZ Maximum size for memoizedCoverZ
-     */
-    private void initializeMemoization(int maxSizeX, int maxSizeZ) {
-        // Initializing memoizedCoverX with a maximum size of maxSizeX
-        this.memoizedCoverX = new LinkedHashMap<Set<String>, SparseBitSet>(maxSizeX, 1.0f, true) {
-            @Override
-            protected boolean removeEldestEntry(Map.Entry<Set<String>, SparseBitSet> eldest) {
-                return size() > maxSizeX;
-            }
-        };
+     * @param itemValues The values of items of the dataset.
+     * @return The ids of the items in increasing order.
+     */
+    private int[] toItemIds(Set<String> itemValues) {
+        int[] itemIds = new int[itemValues.size()];
+        int count = 0;
+        for (String itemValue : itemValues) {
+            itemIds[count++] = toItemId(itemValue);
+        }
+        Arrays.sort(itemIds);
+        return itemIds;
+    }
 
-        // Initializing memoizedCoverZ with a maximum size of maxSizeZ
-        this.memoizedCoverZ = new LinkedHashMap<Set<String>, SparseBitSet>(maxSizeZ, 1.0f, true) {
-            @Override
-            protected boolean removeEldestEntry(Map.Entry<Set<String>, SparseBitSet> eldest) {
-                return size() > maxSizeZ;
-            }
-        };
+    /**
+     * @param itemValue The value of an item of the dataset, or an empty value.
+     * @return The id of the item, or {@link #NO_ITEM} for an empty value.
+     * @throws IllegalArgumentException If the item does not appear in the dataset.
+     */
+    private int toItemId(String itemValue) {
+        if (itemValue.isEmpty()) {
+            return NO_ITEM;
+        }
+        int itemId = this.dataset.getItemId(itemValue);
+        if (itemId == ItemDictionary.UNKNOWN_ITEM) {
+            throw new IllegalArgumentException("Item " + itemValue + " does not appear in the dataset.");
+        }
+        return itemId;
     }
 
     /**
-     * Computes the union of sets X and Y and updates the set Z.
-     * <p>
-     * The union set Z contains all distinct elements present in sets X and Y.
-     * </p>
+     * @param itemIds The ids of items in increasing order.
+     * @param itemId  The id of an item.
+     * @return The ids with the item in increasing order, the same array if it was
+     *         already there.
      */
-    private void computeItemsInZ() {
-        this.itemsInZ = new HashSet<>(this.itemsInX);
-        if (!this.Y.isEmpty()) {
-            this.itemsInZ.add(this.Y);
+    private static int[] withItem(int[] itemIds, int itemId) {
+        int position = Arrays.binarySearch(itemIds, itemId);
+        if (position >= 0) {
+            return itemIds;
         }
+        position = -position - 1;
+        int[] extended = new int[itemIds.length + 1];
+        System.arraycopy(itemIds, 0, extended, 0, position);
+        extended[position] = itemId;
+        System.arraycopy(itemIds, position, extended, position + 1, itemIds.length - position);
+        return extended;
     }
 
     /**
-     * Updates the frequencies based on the specified directions.
-     *
-     * @param directions An array of strings representing the directions for which
-     *                   frequencies should be updated.
-     */
-    private void updateFrequencies(String[] directions) {
-        for (String direction : directions) {
-            switch (direction) {
-                case "x":
-                    updateFrequency(this.itemsInX, this.coverX, this::setFreqX);
-                    break;
-                case "y":
-                    updateFrequency(this.Y, this.coverY, this::setFreqY);
-                    break;
-                case "z":
-                    updateFrequency(this.itemsInZ, this.coverZ, this::setFreqZ);
-                    break;
-            }
+     * @param itemIds The ids of items in increasing order, among which the item.
+     * @param itemId  The id of the item to remove.
+     * @return The ids without the item in increasing order.
+     */
+    private static int[] withoutItem(int[] itemIds, int itemId) {
+        int position = Arrays.binarySearch(itemIds, itemId);
+        int[] reduced = new int[itemIds.length - 1];
+        System.arraycopy(itemIds, 0, reduced, 0, position);
+        System.arraycopy(itemIds, position + 1, reduced, position, reduced.length - position);
+        return reduced;
+    }
+
+    /**
+     * @param itemId The id of an item.
+     * @return True if the item is in X.
+     */
+    public boolean containsInX(int itemId) {
+        return Arrays.binarySearch(this.itemIdsInX, itemId) >= 0;
+    }
+
+    /**
+     * @return True if X is not empty, counting the item of a pending proposal.
+     */
+    @Override
+    public boolean hasAntecedent() {
+        return this.itemIdsInX.length > 0 || (this.proposedItemCover != null && !this.proposalOnY);
+    }
+
+    /**
+     * @return True if the rule has a consequent, counting the item of a pending
+     *         proposal.
+     */
+    @Override
+    public boolean hasConsequent() {
+        return this.itemIdY != NO_ITEM || (this.proposedItemCover != null && this.proposalOnY);
+    }
+
+    /**
+     * @return The values of the items in X, looked up in the dataset dictionary.
+     */
+    @Override
+    public Set<String> getItemsInX() {
+        Set<String> itemValues = new LinkedHashSet<>();
+        for (int itemId : this.itemIdsInX) {
+            itemValues.add(this.dataset.getItemValue(itemId));
         }
+        return itemValues;
     }
 
     /**
-     * Updates the frequency based on the provided items and their corresponding
-     * cover.
-     * 
-     * @param items           The set of items to consider for frequency
-     *                        calculation.
-     * @param cover           The BitSet representing the cover for the items.
-     * @param frequencySetter A consumer to set the calculated frequency.
+     * @return The values of the items in Z = X U {Y}, looked up in the dataset
+     *         dictionary.
      */
-    private void updateFrequency(Set<?> items, SparseBitSet cover, IntConsumer frequencySetter) {
-        int cardinality = cover.cardinality();
-        frequencySetter.accept(items.isEmpty() ? 0 : cardinality);
+    public Set<String> getItemsInZ() {
+        Set<String> itemValues = getItemsInX();
+        if (this.itemIdY != NO_ITEM) {
+            itemValues.add(getY());
+        }
+        return itemValues;
     }
 
     /**
-     * Updates the frequency based on the provided item and its corresponding cover.
-     *
-     * @param item            The single item to consider for frequency calculation.
-     * @param cover           The BitSet representing the cover for the item.
-     * @param frequencySetter A consumer to set the calculated frequency.
+     * @return The value of the consequent, empty if there is none.
      */
-    private void updateFrequency(String item, SparseBitSet cover, IntConsumer frequencySetter) {
-        frequencySetter.accept(item.isEmpty() ? 0 : cover.cardinality());
+    @Override
+    public String getY() {
+        return this.itemIdY != NO_ITEM ? this.dataset.getItemValue(this.itemIdY) : "";
+    }
+
+    /**
+     * @return The key of the itemset Z = X U {Y}.
+     */
+    private ItemsetKey getKeyZ() {
+        return ItemsetKey.ofSorted(
+                this.itemIdY != NO_ITEM ? withItem(this.itemIdsInX, this.itemIdY) : this.itemIdsInX);
+    }
+
+    /**
+     * Updates the frequencies of X, Y and Z from their covers, the frequency of an
+     * empty itemset being zero.
+     */
+    private void updateFrequencies() {
+        updateFrequencyX();
+        setFreqY(hasConsequent() ? this.coverY.cardinality() : 0);
+        updateFrequencyZ();
+    }
+
+    private void updateFrequencyX() {
+        setFreqX(hasAntecedent() ? this.coverX.cardinality() : 0);
+    }
+
+    private void updateFrequencyZ() {
+        setFreqZ(hasAntecedent() || hasConsequent() ? this.coverZ.cardinality() : 0);
     }
 
     /** Updates the rule's feature vector in \mathcal{D} after each change */
     private void updateAlternative() {
         IAlternative modified = AlternativeUtil.computeAlternativeOrZero(this, getDataset().getNbTransactions(),
-                smoothCounts, getMeasureNames());
+                smoothCounts, getMeasureEvaluator(), getContingencyTable());
         this.alternative = modified;
     }
 
     /**
-     * Computes covers from present items based on the specified directions.
-     *
-     * @param directions An array of strings representing the directions for which
-     *                   frequencies should be updated.
-     */
-    private void computeNewCover(String[] directions) {
-        for (String direction : directions) {
-            switch (direction) {
-                case "x":
-                    updateCoverX();
-                    break;
-                case "y":
-                    updateCoverY();
-                    break;
-                case "z":
-                    updateCoverZ();
-                    break;
-                default:
-                    throw new IllegalArgumentException("Unexpected direction: " + direction);
-            }
+     * @return The evaluator of the measure names, compiled again if the names
+     *         were changed.
+     */
+    public MeasureEvaluator getMeasureEvaluator() {
+        if (this.measureEvaluator == null || this.measureEvaluator.getMeasureNames() != getMeasureNames()) {
+            this.measureEvaluator = MeasureEvaluator.compile(getMeasureNames());
         }
+        return this.measureEvaluator;
+    }
+
+    private ContingencyTable getContingencyTable() {
+        if (this.contingencyTable == null) {
+            this.contingencyTable = new ContingencyTable();
+        }
+        return this.contingencyTable;
     }
 
     /**
-     * Updates coverX based on the items in itemsInX.
+     * Updates coverX based on the items in X.
      */
     private void updateCoverX() {
-        if (!this.itemsInX.isEmpty()) {
-            SparseBitSet fromMemory = memoizedCoverX.get(this.itemsInX);
-            if (fromMemory != null) {
-                this.coverX = SetUtil.copyCover(fromMemory);
-            } else {
-                // Compute cover in parallel
-                this.coverX = coverComputer.compute(itemsInX);
-                memoizedCoverX.put(SetUtil.copySet(this.itemsInX), SetUtil.copyCover(this.coverX));
-            }
-        } else {
-            this.coverX = SetUtil.createSparseBitSetAllOnes(this.dataset.getNbTransactions());
-        }
-
+        // Derived from the longest prefix of X computed by any rule
+        this.coverX = this.dataset.getItemsetCover(ItemsetKey.ofSorted(this.itemIdsInX));
     }
 
     /**
-     * Updates coverY based on the items in Y.
+     * Updates coverY based on the consequent.
      */
     private void updateCoverY() {
-        if (!this.Y.isEmpty()) {
-            SparseBitSet mapCover = this.itemsMap.get(this.Y);
-            this.coverY = (mapCover != null) ? mapCover : new SparseBitSet();
+        if (hasConsequent()) {
+            this.coverY = this.dataset.getItemCover(this.itemIdY);
         }
     }
 
     /**
-     * Updates coverZ based on the items in itemsInZ.
+     * Updates coverZ based on the items in X and Y.
      */
     private void updateCoverZ() {
-        if (!this.itemsInZ.isEmpty()) {
-            SparseBitSet fromMemory = memoizedCoverZ.get(this.itemsInZ);
-            if (fromMemory != null) {
-                this.coverZ = SetUtil.copyCover(fromMemory);
-            } else {
-                // Compute cover in parallel
-                this.coverZ = coverComputer.compute(itemsInZ);
-                memoizedCoverZ.put(SetUtil.copySet(this.itemsInZ), SetUtil.copyCover(this.coverZ));
-            }
-        } else {
-            this.coverZ = SetUtil.createSparseBitSetAllOnes(this.dataset.getNbTransactions());
+        // Derived from the longest prefix of Z computed by any rule
+        this.coverZ = this.dataset.getItemsetCover(getKeyZ());
+    }
+
+    /**
+     * Returns the cover of an itemset from the cover cache of the dataset,
+     * computing it on a miss. The covers of the empty itemset and of single items
+     * are taken from the dataset, without computing or caching them.
+     *
+     * @param key         The key of the itemset.
+     * @param computation The computation of the cover.
+     * @return The cover of the itemset.
+     */
+    private ICover getCover(ItemsetKey key, Supplier<ICover> computation) {
+        if (key.size() <= 1) {
+            return this.dataset.getItemsetCover(key);
         }
+        return this.dataset.getCoverCache().get(key, computation);
     }
 
     /**
@@ -301,13 +355,14 @@ public class DecisionRule implements IRule {
      * @param X The new set X to be set.
      */
     public void setX(Set<String> itemsInX) {
-        // Sets the items in X and Z accordingly
-        this.itemsInX = itemsInX;
-        computeItemsInZ();
+        // Sets the items in X
+        this.itemIdsInX = toItemIds(itemsInX);
 
         // Updates covers and frequencies for directions X and Z
-        computeNewCover(new String[] { "x", "z" });
-        updateFrequencies(new String[] { "x", "z" });
+        updateCoverX();
+        updateCoverZ();
+        updateFrequencyX();
+        updateFrequencyZ();
         updateAlternative();
     }
 
@@ -317,73 +372,342 @@ public class DecisionRule implements IRule {
      * @param itemValue The item index to be added to set X.
      */
     public void addToX(String itemValue) {
+        addToX(toItemId(itemValue));
+    }
+
+    /**
+     * Adds an item to set X using its id in the dataset dictionary and updates
+     * set Z and frequencies accordingly.
+     *
+     * @param itemId The id of the item to be added to set X.
+     */
+    public void addToX(int itemId) {
         // Add the item to the antecedent cover and item set
-        this.itemsInX.add(itemValue);
-        SparseBitSet fromMemoryX = memoizedCoverX.get(this.itemsInX);
-        if (fromMemoryX != null) {
-            this.coverX = SetUtil.copyCover(fromMemoryX);
-        } else {
-            // Compute cover using and operation
-            this.coverX.and(this.itemsMap.get(itemValue));
-            memoizedCoverX.put(SetUtil.copySet(this.itemsInX), SetUtil.copyCover(this.coverX));
-        }
+        ICover itemCover = this.dataset.getItemCover(itemId);
+        this.itemIdsInX = withItem(this.itemIdsInX, itemId);
+        ICover previousCoverX = this.coverX;
+        this.coverX = getCover(ItemsetKey.ofSorted(this.itemIdsInX), () -> previousCoverX.and(itemCover));
 
         // Compute the new union
-        computeItemsInZ();
-        SparseBitSet fromMemoryZ = memoizedCoverZ.get(this.itemsInZ);
-        if (fromMemoryZ != null) {
-            this.coverZ = SetUtil.copyCover(fromMemoryZ);
-        } else {
-            // Compute cover using and operation
-            this.coverZ.and(this.itemsMap.get(itemValue));
-            memoizedCoverZ.put(SetUtil.copySet(this.itemsInZ), SetUtil.copyCover(this.coverZ));
-        }
+        ICover previousCoverZ = this.coverZ;
+        this.coverZ = getCover(getKeyZ(), () -> previousCoverZ.and(itemCover));
 
         // Update frequencies for sets X and Z
-        updateFrequencies(new String[] { "x", "z" });
+        updateFrequencyX();
+        updateFrequencyZ();
         updateAlternative();
     }
 
     /**
-     * Removes an item index from set X and updates set Z and frequencies
+     * Removes an item value from set X and updates set Z and frequencies
      * accordingly.
      *
      * @param itemValue The itemValue to be removed from set X.
      * @throws RuntimeException If the specified itemValue is not present in set X.
      */
     public void removeFromX(String itemValue) {
-        // Check if the itemValue is present in item set X
-        if (this.itemsInX.contains(itemValue)) {
-            // Remove the index from X and Z
-            this.itemsInX.remove(itemValue);
-            computeItemsInZ();
-
-            // Update covers and frequencies for directions X and Z
-            computeNewCover(new String[] { "x", "z" });
-            updateFrequencies(new String[] { "x", "z" });
-            updateAlternative();
-        } else {
-            // Throw a RuntimeException if the itemValue is not in set X
+        int itemId = this.dataset.getItemId(itemValue);
+        if (itemId == ItemDictionary.UNKNOWN_ITEM || !containsInX(itemId)) {
             throw new RuntimeException("Item index " + itemValue + " not found in item set X.");
         }
+        removeFromX(itemId);
+    }
+
+    /**
+     * Removes an item from set X using its id in the dataset dictionary.
+     *
+     * @param itemId The id of the item to be removed from set X.
+     * @throws RuntimeException If the specified item is not present in set X.
+     */
+    public void removeFromX(int itemId) {
+        // Check if the item is present in item set X
+        if (!containsInX(itemId)) {
+            throw new RuntimeException("Item index " + itemId + " not found in item set X.");
+        }
+        // Remove the item from X and Z
+        this.itemIdsInX = withoutItem(this.itemIdsInX, itemId);
+
+        // Update covers and frequencies for directions X and Z
+        updateCoverX();
+        updateCoverZ();
+        updateFrequencyX();
+        updateFrequencyZ();
+        updateAlternative();
     }
 
     /**
      * Sets the value of set Y and updates set Z and frequencies accordingly.
      *
-     * @param Y The new set Y to be set.
+     * @param Y The new set Y to be set, empty to remove the consequent.
      */
     public void setY(String Y) {
+        setY(toItemId(Y));
+    }
+
+    /**
+     * Sets the consequent using its id in the dataset dictionary, which avoids
+     * looking up its cover by value.
+     *
+     * @param itemId The id of the new consequent item, or {@link #NO_ITEM}.
+     */
+    public void setY(int itemId) {
         // Sets the items in Y and Z accordingly
-        this.Y = Y;
-        computeItemsInZ();
+        this.itemIdY = itemId;
 
-        // Updates covers and frequencies for directions Y and Z
-        computeNewCover(new String[] { "y", "z" });
-        updateFrequencies(new String[] { "y", "z" });
+        // The cover of Y is directly the cover of the item
+        updateCoverY();
+        updateCoverZ();
+        setFreqY(hasConsequent() ? this.coverY.cardinality() : 0);
+        updateFrequencyZ();
         updateAlternative();
     }
 
+    /**
+     * Counts the transactions of X with an additional item, without computing the
+     * new cover.
+     *
+     * @param itemId The id of the item.
+     * @return The cardinality of the cover of X intersected with the item cover.
+     */
+    public int getFreqXWith(int itemId) {
+        return this.coverX.andCardinality(this.dataset.getItemCover(itemId));
+    }
+
+    /**
+     * Counts the transactions of Z with an additional item, without computing the
+     * new cover.
+     *
+     * @param itemId The id of the item.
+     * @return The cardinality of the cover of Z intersected with the item cover.
+     */
+    public int getFreqZWith(int itemId) {
+        return this.coverZ.andCardinality(this.dataset.getItemCover(itemId));
+    }
+
+    /**
+     * Proposes to add an item to X. Only the frequencies and feature vector of the
+     * rule follow the proposal, the vector being computed from counts into a
+     * scratch array, so that it can be scored. The items and covers are left
+     * untouched until {@link #acceptProposal()} is called, and
+     * {@link #rejectProposal()} restores the counts without computing anything.
+     *
+     * @param itemId The id of the item to be added to set X.
+     */
+    public void proposeAddToX(int itemId) {
+        proposeAddToX(itemId, getFreqXWith(itemId), getFreqZWith(itemId));
+    }
+
+    /**
+     * Proposes to add an item to X whose counts are already known (ex: from
+     * {@link #countFrequenciesWith(int[], int[])}).
+     *
+     * @param itemId    The id of the item to be added to set X.
+     * @param freqXWith The frequency of X with the item.
+     * @param freqZWith The frequency of Z with the item.
+     */
+    public void proposeAddToX(int itemId, int freqXWith, int freqZWith) {
+        startProposal(itemId, false);
+        setFreqX(freqXWith);
+        setFreqZ(freqZWith);
+        scoreProposal();
+    }
+
+    /**
+     * Counts, for every item at once, the frequencies X and Z would have with this
+     * additional item. The transactions covered by X and Z are scanned once and
+     * the counter of each of their items is incremented, instead of intersecting
+     * the covers once per item. An item repeated in a transaction is counted once,
+     * as in its cover.
+     *
+     * @param freqXWith The array, indexed by item id, receiving the frequency of X
+     *                  with each item.
+     * @param freqZWith The array, indexed by item id, receiving the frequency of Z
+     *                  with each item.
+     */
+    public void countFrequenciesWith(int[] freqXWith, int[] freqZWith) {
+        int[] offsets = this.dataset.getTransactionOffsets();
+        int[] items = this.dataset.getTransactionItems();
+
+        // The last transaction that counted each item, +1 for X and -1 for Z
+        int[] stamps = COUNT_STAMPS.get();
+        if (stamps.length < freqXWith.length) {
+            stamps = new int[freqXWith.length];
+            COUNT_STAMPS.set(stamps);
+        } else {
+            Arrays.fill(stamps, 0, freqXWith.length, 0);
+        }
+        int[] lastTransactions = stamps;
+
+        Arrays.fill(freqXWith, 0);
+        this.coverX.forEach(transaction -> {
+            for (int k = offsets[transaction]; k < offsets[transaction + 1]; k++) {
+                int itemId = items[k];
+                if (lastTransactions[itemId] != transaction + 1) {
+                    lastTransactions[itemId] = transaction + 1;
+                    freqXWith[itemId]++;
+                }
+            }
+        });
+
+        Arrays.fill(freqZWith, 0);
+        this.coverZ.forEach(transaction -> {
+            for (int k = offsets[transaction]; k < offsets[transaction + 1]; k++) {
+                int itemId = items[k];
+                if (lastTransactions[itemId] != -transaction - 1) {
+                    lastTransactions[itemId] = -transaction - 1;
+                    freqZWith[itemId]++;
+                }
+            }
+        });
+    }
+
+    /**
+     * Proposes a new consequent. As for {@link #proposeAddToX(int)}, only the
+     * frequencies and feature vector follow the proposal until
+     * {@link #acceptProposal()} is called.
+     *
+     * @param itemId The id of the new consequent item.
+     */
+    public void proposeSetY(int itemId) {
+        startProposal(itemId, true);
+        setFreqY(this.proposedItemCover.cardinality());
+        setFreqZ(getFreqXWith(itemId));
+        scoreProposal();
+    }
+
+    /**
+     * Saves the counts and feature vector of the rule before a proposal.
+     */
+    private void startProposal(int itemId, boolean onY) {
+        if (this.proposedItemCover != null) {
+            throw new IllegalStateException("A proposal is already pending on this rule.");
+        }
+        this.proposedItemCover = this.dataset.getItemCover(itemId);
+        this.proposedItemId = itemId;
+        this.proposalOnY = onY;
+        this.savedFreqX = getFreqX();
+        this.savedFreqY = getFreqY();
+        this.savedFreqZ = getFreqZ();
+        this.savedAlternative = this.alternative;
+    }
+
+    /**
+     * Computes the feature vector of the proposed rule from its counts into the
+     * scratch alternative of the rule.
+     */
+    private void scoreProposal() {
+        MeasureEvaluator evaluator = getMeasureEvaluator();
+        if (this.scratchAlternative == null || this.scratchAlternative.getVector().length != evaluator.size()) {
+            this.scratchAlternative = new Alternative(evaluator.size());
+        }
+        double[] vector = this.scratchAlternative.getVector();
+        if (hasAntecedent() && hasConsequent()) {
+            evaluator.evaluate(getContingencyTable().set(this, getDataset().getNbTransactions(), smoothCounts),
+                    vector);
+        } else {
+            Arrays.fill(vector, 0);
+        }
+        // The order of the previous proposal no longer holds
+        this.scratchAlternative.setVector(vector);
+        this.alternative = this.scratchAlternative;
+    }
+
+    /**
+     * Accepts the pending proposal by changing the items and materializing the
+     * covers of the new rule.
+     */
+    public void acceptProposal() {
+        checkProposal();
+        int itemId = this.proposedItemId;
+        if (this.proposalOnY) {
+            // Z = X U {Y}, so its cover is the cover of X restricted to Y
+            this.itemIdY = itemId;
+            this.coverY = this.proposedItemCover;
+            this.coverZ = getCover(getKeyZ(), () -> this.coverX.and(this.coverY));
+        } else if (!containsInX(itemId)) {
+            ICover itemCover = this.proposedItemCover;
+            this.itemIdsInX = withItem(this.itemIdsInX, itemId);
+            ICover previousCoverX = this.coverX;
+            this.coverX = getCover(ItemsetKey.ofSorted(this.itemIdsInX), () -> previousCoverX.and(itemCover));
+            ICover previousCoverZ = this.coverZ;
+            this.coverZ = getCover(getKeyZ(), () -> previousCoverZ.and(itemCover));
+        }
+        // The scratch vector is overwritten by the next proposal
+        this.alternative = this.scratchAlternative.deepCopy();
+        clearProposal();
+    }
+
+    /**
+     * Rejects the pending proposal, restoring the rule as it was before.
+     */
+    public void rejectProposal() {
+        checkProposal();
+        int itemId = this.proposedItemId;
+        boolean removeFromX = !this.proposalOnY && containsInX(itemId);
+
+        // Only the counts and feature vector followed the proposal
+        setFreqX(this.savedFreqX);
+        setFreqY(this.savedFreqY);
+        setFreqZ(this.savedFreqZ);
+        this.alternative = this.savedAlternative;
+        clearProposal();
+
+        // As with addToX followed by removeFromX, an item that was already in X
+        // leaves it
+        if (removeFromX) {
+            removeFromX(itemId);
+        }
+    }
+
+    private void checkProposal() {
+        if (this.proposedItemCover == null) {
+            throw new IllegalStateException("No proposal is pending on this rule.");
+        }
+    }
+
+    private void clearProposal() {
+        this.proposedItemCover = null;
+        this.proposedItemId = NO_ITEM;
+        this.savedAlternative = null;
+    }
+
+    /**
+     * Saves the items, covers, frequencies and feature vector of the rule before
+     * a move.
+     *
+     * @return The state of the rule.
+     */
+    RuleState saveState() {
+        RuleState state = new RuleState();
+        state.itemIdsInX = this.itemIdsInX;
+        state.itemIdY = this.itemIdY;
+        state.coverX = this.coverX;
+        state.coverY = this.coverY;
+        state.coverZ = this.coverZ;
+        state.freqX = getFreqX();
+        state.freqY = getFreqY();
+        state.freqZ = getFreqZ();
+        state.alternative = this.alternative;
+        return state;
+    }
+
+    /**
+     * Restores the rule as it was when the state was saved.
+     *
+     * @param state The state saved before the move to undo.
+     */
+    void restoreState(RuleState state) {
+        this.itemIdsInX = state.itemIdsInX;
+        this.itemIdY = state.itemIdY;
+        this.coverX = state.coverX;
+        this.coverY = state.coverY;
+        this.coverZ = state.coverZ;
+        setFreqX(state.freqX);
+        setFreqY(state.freqY);
+        setFreqZ(state.freqZ);
+        this.alternative = state.alternative;
+    }
+
     /**
      * @param obj
      * @return boolean
@@ -396,8 +720,8 @@ public class DecisionRule implements IRule {
             return false;
         DecisionRule rule = (DecisionRule) obj;
     
-        // First, check if itemsInX and Y are equal
-        if (Objects.equals(itemsInX, rule.itemsInX) && Objects.equals(Y, rule.Y)) {
+        // First, check if X and Y are equal
+        if (Arrays.equals(itemIdsInX, rule.itemIdsInX) && itemIdY == rule.itemIdY) {
             return true;
         }
         
@@ -409,7 +733,7 @@ public class DecisionRule implements IRule {
 
     @Override
     public int hashCode() {
-        return Objects.hash(itemsInX, Y, freqX, freqY, freqZ);
+        return Objects.hash(Arrays.hashCode(itemIdsInX), itemIdY, freqX, freqY, freqZ);
     }
 
 }
\ No newline at end of file
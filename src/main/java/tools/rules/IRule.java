@@ -21,6 +21,20 @@ public interface IRule {
 
     String getY();
 
+    /**
+     * @return True if the antecedent is not empty.
+     */
+    default boolean hasAntecedent() {
+        return !getItemsInX().isEmpty();
+    }
+
+    /**
+     * @return True if the rule has a consequent.
+     */
+    default boolean hasConsequent() {
+        return !getY().isEmpty();
+    }
+
     int getFreqX();
 
     int getFreqY();
@@ -0,0 +1,301 @@
+package tools.rules;
+
+import static java.lang.Math.max;
+import static java.lang.Math.sqrt;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The interestingness measures of a rule, computed from its contingency table
+ * (inspired by R code : <a href=
+ * "https://github.com/mhahsler/arules/blob/master/R/interestMeasures.R">arules</a>).
+ * Each measure checks that its value is within its bounds, up to
+ * {@link RuleMeasures#epsilon}.
+ */
+public enum Measure {
+
+    CONFIDENCE(RuleMeasures.confidence, 0, 1) {
+        @Override
+        double value(double n, double n11, double n1x, double nx1, double n0x, double nx0, double n10, double n01,
+                double n00) {
+            return confidence(n11, n1x);
+        }
+
+        @Override
+        void values(RuleBatch b, double[] out) {
+            for (int r = 0; r < b.getSize(); r++) {
+                out[r] = confidence(b.n11[r], b.n1x[r]);
+            }
+        }
+    },
+    LIFT(RuleMeasures.lift, 0, Double.MAX_VALUE) {
+        @Override
+        double value(double n, double n11, double n1x, double nx1, double n0x, double nx0, double n10, double n01,
+                double n00) {
+            return lift(n, n11, n1x, nx1);
+        }
+
+        @Override
+        void values(RuleBatch b, double[] out) {
+            for (int r = 0; r < b.getSize(); r++) {
+                out[r] = lift(b.n, b.n11[r], b.n1x[r], b.nx1[r]);
+            }
+        }
+    },
+    COSINE(RuleMeasures.cosine, 0, 1) {
+        @Override
+        double value(double n, double n11, double n1x, double nx1, double n0x, double nx0, double n10, double n01,
+                double n00) {
+            return cosine(n11, n1x, nx1);
+        }
+
+        @Override
+        void values(RuleBatch b, double[] out) {
+            for (int r = 0; r < b.getSize(); r++) {
+                out[r] = cosine(b.n11[r], b.n1x[r], b.nx1[r]);
+            }
+        }
+    },
+    PHI(RuleMeasures.phi, -1, 1) {
+        @Override
+        double value(double n, double n11, double n1x, double nx1, double n0x, double nx0, double n10, double n01,
+                double n00) {
+            return phi(n, n11, n1x, nx1, n0x, nx0);
+        }
+
+        @Override
+        void values(RuleBatch b, double[] out) {
+            for (int r = 0; r < b.getSize(); r++) {
+                out[r] = phi(b.n, b.n11[r], b.n1x[r], b.nx1[r], b.n0x[r], b.nx0[r]);
+            }
+        }
+    },
+    KRUSKAL(RuleMeasures.kruskal, 0, 1) {
+        @Override
+        double value(double n, double n11, double n1x, double nx1, double n0x, double nx0, double n10, double n01,
+                double n00) {
+            return kruskal(n, n11, nx1, nx0, n10, n01, n00);
+        }
+
+        @Override
+        void values(RuleBatch b, double[] out) {
+            for (int r = 0; r < b.getSize(); r++) {
+                out[r] = kruskal(b.n, b.n11[r], b.nx1[r], b.nx0[r], b.n10[r], b.n01[r], b.n00[r]);
+            }
+        }
+    },
+    YULE_Q(RuleMeasures.yuleQ, -1, 1) {
+        @Override
+        double value(double n, double n11, double n1x, double nx1, double n0x, double nx0, double n10, double n01,
+                double n00) {
+            return yuleQ(n11, n10, n01, n00);
+        }
+
+        @Override
+        void values(RuleBatch b, double[] out) {
+            for (int r = 0; r < b.getSize(); r++) {
+                out[r] = yuleQ(b.n11[r], b.n10[r], b.n01[r], b.n00[r]);
+            }
+        }
+    },
+    ADDED_VALUE(RuleMeasures.addedValue, -0.5, 1) {
+        @Override
+        double value(double n, double n11, double n1x, double nx1, double n0x, double nx0, double n10, double n01,
+                double n00) {
+            return addedValue(n, n11, n1x, nx1);
+        }
+
+        @Override
+        void values(RuleBatch b, double[] out) {
+            for (int r = 0; r < b.getSize(); r++) {
+                out[r] = addedValue(b.n, b.n11[r], b.n1x[r], b.nx1[r]);
+            }
+        }
+    },
+    CERTAINTY(RuleMeasures.certainty, -1, 1) {
+        @Override
+        double value(double n, double n11, double n1x, double nx1, double n0x, double nx0, double n10, double n01,
+                double n00) {
+            return certainty(n, n11, n1x, nx1);
+        }
+
+        @Override
+        void values(RuleBatch b, double[] out) {
+            for (int r = 0; r < b.getSize(); r++) {
+                out[r] = certainty(b.n, b.n11[r], b.n1x[r], b.nx1[r]);
+            }
+        }
+    },
+    SUPPORT(RuleMeasures.support, 0, 1) {
+        @Override
+        double value(double n, double n11, double n1x, double nx1, double n0x, double nx0, double n10, double n01,
+                double n00) {
+            return support(n, n11);
+        }
+
+        @Override
+        void values(RuleBatch b, double[] out) {
+            for (int r = 0; r < b.getSize(); r++) {
+                out[r] = support(b.n, b.n11[r]);
+            }
+        }
+    },
+    REVSUPPORT(RuleMeasures.revsupport, 0, 1) {
+        @Override
+        double value(double n, double n11, double n1x, double nx1, double n0x, double nx0, double n10, double n01,
+                double n00) {
+            return revsupport(n, n11);
+        }
+
+        @Override
+        void values(RuleBatch b, double[] out) {
+            for (int r = 0; r < b.getSize(); r++) {
+                out[r] = revsupport(b.n, b.n11[r]);
+            }
+        }
+    };
+
+    private static final Map<String, Measure> BY_NAME = new HashMap<>();
+
+    static {
+        for (Measure measure : values()) {
+            BY_NAME.put(measure.measureName, measure);
+        }
+    }
+
+    // The formulas of the measures, each being the only definition of its
+    // measure, shared by the single rule and the batch paths
+
+    private static double confidence(double n11, double n1x) {
+        return n11 / n1x;
+    }
+
+    private static double lift(double n, double n11, double n1x, double nx1) {
+        return n * n11 / (n1x * nx1);
+    }
+
+    private static double cosine(double n11, double n1x, double nx1) {
+        return n11 / sqrt(n1x * nx1);
+    }
+
+    private static double phi(double n, double n11, double n1x, double nx1, double n0x, double nx0) {
+        return (n * n11 - n1x * nx1) / sqrt(n1x * nx1 * n0x * nx0);
+    }
+
+    private static double kruskal(double n, double n11, double nx1, double nx0, double n10, double n01,
+            double n00) {
+        double max_x0x1 = max(nx1, nx0);
+        return (max(n11, n10) + max(n01, n00) - max_x0x1) / (n - max_x0x1);
+    }
+
+    private static double yuleQ(double n11, double n10, double n01, double n00) {
+        double OR = n11 * n00 / (n10 * n01);
+        return (OR - 1) / (OR + 1);
+    }
+
+    private static double addedValue(double n, double n11, double n1x, double nx1) {
+        return n11 / n1x - nx1 / n;
+    }
+
+    private static double certainty(double n, double n11, double n1x, double nx1) {
+        double value1 = (n11 / n1x - nx1 / n) / (1 - nx1 / n);
+        double value2 = (n11 / nx1 - n1x / n) / (1 - n1x / n);
+        return max(value1, value2);
+    }
+
+    private static double support(double n, double n11) {
+        return n11 / n;
+    }
+
+    private static double revsupport(double n, double n11) {
+        return 1 - support(n, n11);
+    }
+
+    private final String measureName;
+    private final double lb, ub;
+
+    Measure(String measureName, double lb, double ub) {
+        this.measureName = measureName;
+        this.lb = lb;
+        this.ub = ub;
+    }
+
+    /**
+     * Computes the value of the measure from the cells of a contingency table,
+     * without checking it.
+     */
+    abstract double value(double n, double n11, double n1x, double nx1, double n0x, double nx0, double n10,
+            double n01, double n00);
+
+    /**
+     * Computes the value of the measure without checking it.
+     */
+    double value(ContingencyTable t) {
+        return value(t.getN(), t.getN11(), t.getN1x(), t.getNx1(), t.getN0x(), t.getNx0(), t.getN10(), t.getN01(),
+                t.getN00());
+    }
+
+    /**
+     * Computes the values of the measure for a batch whose contingency columns
+     * are filled, without checking them. Each measure has its own loop, so that
+     * the formula called in it is always the same.
+     */
+    abstract void values(RuleBatch b, double[] out);
+
+    /**
+     * Computes the value of the measure.
+     *
+     * @param t The contingency table of the rule.
+     * @return The value of the measure.
+     * @throws IllegalArgumentException If the value is outside the bounds of the
+     *                                  measure.
+     */
+    public double compute(ContingencyTable t) {
+        double value = value(t);
+        if (value > (ub + RuleMeasures.epsilon) || value < (lb - RuleMeasures.epsilon)) {
+            throw new IllegalArgumentException("Illegal value for measure " + measureName +
+                    ": value=" + value + ", should be between " + lb + " and " + ub);
+        }
+        return value;
+    }
+
+    /**
+     * Computes the values of the measure for each rule of a batch whose
+     * contingency columns are filled.
+     *
+     * @param batch The batch of rules.
+     * @param out   The array receiving the value of each rule.
+     * @throws IllegalArgumentException If a value is outside the bounds of the
+     *                                  measure.
+     */
+    void compute(RuleBatch batch, double[] out) {
+        values(batch, out);
+        for (int r = 0; r < batch.getSize(); r++) {
+            if (out[r] > (ub + RuleMeasures.epsilon) || out[r] < (lb - RuleMeasures.epsilon)) {
+                throw new IllegalArgumentException("Illegal value for measure " + measureName +
+                        ": value=" + out[r] + ", should be between " + lb + " and " + ub);
+            }
+        }
+    }
+
+    /**
+     * @return The name of the measure, as used in the measure name arrays.
+     */
+    public String getMeasureName() {
+        return measureName;
+    }
+
+    /**
+     * @param measureName The name of a measure.
+     * @return The measure.
+     * @throws RuntimeException If there is no measure with this name.
+     */
+    public static Measure fromName(String measureName) {
+        Measure measure = BY_NAME.get(measureName);
+        if (measure == null) {
+            throw new RuntimeException("This measure doesn't exist : " + measureName);
+        }
+        return measure;
+    }
+}
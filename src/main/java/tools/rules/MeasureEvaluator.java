@@ -0,0 +1,91 @@
+package tools.rules;
+
+import lombok.Getter;
+
+/**
+ * List of measures compiled once from their names, which computes the feature
+ * vector of a rule from its contingency table without any name lookup.
+ * Evaluators are immutable and can be shared between rules and threads.
+ */
+public class MeasureEvaluator {
+
+    private final @Getter String[] measureNames;
+    private final Measure[] measures;
+
+    private MeasureEvaluator(String[] measureNames, Measure[] measures) {
+        this.measureNames = measureNames;
+        this.measures = measures;
+    }
+
+    /**
+     * @param measureNames The names of the measures, in the order of the feature
+     *                     vector.
+     * @return The compiled evaluator.
+     * @throws RuntimeException If an unknown measure name is encountered.
+     */
+    public static MeasureEvaluator compile(String[] measureNames) {
+        Measure[] measures = new Measure[measureNames.length];
+        for (int i = 0; i < measures.length; i++) {
+            measures[i] = Measure.fromName(measureNames[i]);
+        }
+        return new MeasureEvaluator(measureNames, measures);
+    }
+
+    /**
+     * @return The number of measures, i.e. the length of the feature vectors.
+     */
+    public int size() {
+        return measures.length;
+    }
+
+    /**
+     * Computes the measures into a caller-provided array.
+     *
+     * @param table    The contingency table of the rule.
+     * @param measures The array receiving the measures, of length at least
+     *                 {@link #size()}.
+     */
+    public void evaluate(ContingencyTable table, double[] measures) {
+        for (int i = 0; i < this.measures.length; i++) {
+            measures[i] = this.measures[i].compute(table);
+        }
+    }
+
+    /**
+     * Computes the measures of a batch of rules, one measure at a time over all
+     * the rules.
+     *
+     * @param batch        The batch of rules.
+     * @param smoothCounts The smoothing factor for the counts.
+     * @param measures     The matrix receiving the measures, measures[m][r] being
+     *                     the measure m of the rule r.
+     */
+    public void evaluate(RuleBatch batch, double smoothCounts, double[][] measures) {
+        batch.fillContingency(smoothCounts);
+        for (int m = 0; m < this.measures.length; m++) {
+            this.measures[m].compute(batch, measures[m]);
+        }
+    }
+
+    /**
+     * @param batch        The batch of rules.
+     * @param smoothCounts The smoothing factor for the counts.
+     * @return A new matrix with the measures, measures[m][r] being the measure m
+     *         of the rule r.
+     */
+    public double[][] evaluate(RuleBatch batch, double smoothCounts) {
+        double[][] measures = new double[this.measures.length][batch.getSize()];
+        evaluate(batch, smoothCounts, measures);
+        return measures;
+    }
+
+    /**
+     * @param table The contingency table of the rule.
+     * @return A new array with the measures.
+     */
+    public double[] evaluate(ContingencyTable table) {
+        double[] measures = new double[this.measures.length];
+        evaluate(table, measures);
+        return measures;
+    }
+}
@@ -0,0 +1,91 @@
+package tools.rules;
+
+import java.util.List;
+
+import lombok.Getter;
+
+/**
+ * Batch of rules stored as columns of frequencies rather than as rule objects,
+ * so that their measures are computed in tight loops over contiguous arrays.
+ * The contingency table of the batch is stored the same way, one column per
+ * cell.
+ */
+public class RuleBatch {
+
+    private final @Getter int size; // The number of rules
+    private final @Getter int nbTransactions;
+    private final @Getter int[] freqX, freqY, freqZ;
+
+    // Contingency columns, filled for a given smoothing by fillContingency
+    double n;
+    final double[] n11, n1x, nx1, n0x, nx0, n10, n01, n00;
+
+    /**
+     * @param freqX          The frequencies of the antecedents, which are not
+     *                       copied.
+     * @param freqY          The frequencies of the consequents.
+     * @param freqZ          The frequencies of the rules.
+     * @param nbTransactions The total number of transactions in the dataset.
+     */
+    public RuleBatch(int[] freqX, int[] freqY, int[] freqZ, int nbTransactions) {
+        if (freqY.length != freqX.length || freqZ.length != freqX.length) {
+            throw new IllegalArgumentException("The frequency columns must have the same length.");
+        }
+        this.size = freqX.length;
+        this.nbTransactions = nbTransactions;
+        this.freqX = freqX;
+        this.freqY = freqY;
+        this.freqZ = freqZ;
+
+        this.n11 = new double[size];
+        this.n1x = new double[size];
+        this.nx1 = new double[size];
+        this.n0x = new double[size];
+        this.nx0 = new double[size];
+        this.n10 = new double[size];
+        this.n01 = new double[size];
+        this.n00 = new double[size];
+    }
+
+    /**
+     * @param rules          The rules of the batch.
+     * @param nbTransactions The total number of transactions in the dataset.
+     * @return The batch of the frequencies of the rules, in the order of the list.
+     */
+    public static RuleBatch of(List<? extends IRule> rules, int nbTransactions) {
+        int[] freqX = new int[rules.size()];
+        int[] freqY = new int[rules.size()];
+        int[] freqZ = new int[rules.size()];
+        for (int r = 0; r < freqX.length; r++) {
+            IRule rule = rules.get(r);
+            freqX[r] = rule.getFreqX();
+            freqY[r] = rule.getFreqY();
+            freqZ[r] = rule.getFreqZ();
+        }
+        return new RuleBatch(freqX, freqY, freqZ, nbTransactions);
+    }
+
+    /**
+     * Fills the contingency columns, as {@link ContingencyTable#set} does for a
+     * single rule.
+     *
+     * @param smoothCounts The smoothing factor for the counts.
+     */
+    void fillContingency(double smoothCounts) {
+        double smooth = smoothCounts > 0 ? smoothCounts : 0;
+        n = nbTransactions + 4 * smooth;
+        for (int r = 0; r < size; r++) {
+            double z = freqZ[r];
+            double x = freqX[r];
+            double y = freqY[r];
+            n11[r] = z + smooth;
+            n1x[r] = x + 2 * smooth;
+            nx1[r] = y + 2 * smooth;
+            n0x[r] = nbTransactions - x + 2 * smooth;
+            nx0[r] = nbTransactions - y + 2 * smooth;
+            n10[r] = x - z + smooth;
+            n01[r] = y - z + smooth;
+            n00[r] = nbTransactions - x - (y - z) + smooth;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package tools.rules;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import lombok.Getter;
+
+/**
+ * Cursor moving a decision rule one item at a time while keeping an undo log of
+ * its previous states. Each move saves the covers, frequencies and feature
+ * vector of the rule before applying it, so {@link #revert()} restores the
+ * rule in constant time instead of recomputing its covers and feature vector.
+ *
+ * Example: evaluating a rule with an additional item without keeping it
+ * <pre>
+ * cursor.addToX(itemId);
+ * double score = scoringFunction.computeScore(cursor.getRule().getAlternative(), cursor.getRule());
+ * cursor.revert();
+ * </pre>
+ */
+public class RuleCursor {
+
+    private final @Getter DecisionRule rule;
+    private final Deque<RuleState> undoLog = new ArrayDeque<>();
+
+    /**
+     * @param rule The rule moved by the cursor.
+     */
+    public RuleCursor(DecisionRule rule) {
+        this.rule = rule;
+    }
+
+    /**
+     * Adds an item to the antecedent of the rule.
+     *
+     * @param itemId The id of the item in the dataset dictionary.
+     */
+    public void addToX(int itemId) {
+        RuleState state = rule.saveState();
+        rule.addToX(itemId);
+        undoLog.push(state);
+    }
+
+    /**
+     * Adds an item to the antecedent of the rule.
+     *
+     * @param itemValue The value of the item.
+     */
+    public void addToX(String itemValue) {
+        RuleState state = rule.saveState();
+        rule.addToX(itemValue);
+        undoLog.push(state);
+    }
+
+    /**
+     * Removes an item from the antecedent of the rule.
+     *
+     * @param itemId The id of the item in the dataset dictionary.
+     * @throws RuntimeException If the item is not in the antecedent.
+     */
+    public void removeFromX(int itemId) {
+        RuleState state = rule.saveState();
+        rule.removeFromX(itemId);
+        undoLog.push(state);
+    }
+
+    /**
+     * Removes an item from the antecedent of the rule.
+     *
+     * @param itemValue The value of the item.
+     * @throws RuntimeException If the item is not in the antecedent.
+     */
+    public void removeFromX(String itemValue) {
+        RuleState state = rule.saveState();
+        rule.removeFromX(itemValue);
+        undoLog.push(state);
+    }
+
+    /**
+     * Sets the consequent of the rule.
+     *
+     * @param itemId The id of the item in the dataset dictionary.
+     */
+    public void setY(int itemId) {
+        RuleState state = rule.saveState();
+        rule.setY(itemId);
+        undoLog.push(state);
+    }
+
+    /**
+     * Sets the consequent of the rule.
+     *
+     * @param itemValue The value of the item.
+     */
+    public void setY(String itemValue) {
+        RuleState state = rule.saveState();
+        rule.setY(itemValue);
+        undoLog.push(state);
+    }
+
+    /**
+     * Adds an item to the antecedent or consequent of the rule.
+     *
+     * @param itemValue The value of the item.
+     * @param type      Indicates if the item is a consequent or antecedent item.
+     */
+    public void addItem(String itemValue, String type) {
+        if (type.equals("antecedent")) {
+            addToX(itemValue);
+        } else if (type.equals("consequent")) {
+            setY(itemValue);
+        }
+    }
+
+    /**
+     * Undoes the last move.
+     *
+     * @throws IllegalStateException If there is no move to undo.
+     */
+    public void revert() {
+        if (undoLog.isEmpty()) {
+            throw new IllegalStateException("No move to revert.");
+        }
+        rule.restoreState(undoLog.pop());
+    }
+
+    /**
+     * Undoes all the moves since the creation of the cursor or the last commit.
+     */
+    public void revertAll() {
+        while (!undoLog.isEmpty()) {
+            rule.restoreState(undoLog.pop());
+        }
+    }
+
+    /**
+     * Keeps the moves done so far, which can no longer be undone.
+     */
+    public void commit() {
+        undoLog.clear();
+    }
+
+    /**
+     * @return The number of moves that can be undone.
+     */
+    public int getDepth() {
+        return undoLog.size();
+    }
+}
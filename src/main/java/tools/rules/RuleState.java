@@ -0,0 +1,17 @@
+package tools.rules;
+
+import tools.alternatives.IAlternative;
+import tools.covers.ICover;
+
+/**
+ * State of a decision rule before a move, from which the move is undone
+ * without computing any cover or feature vector.
+ */
+final class RuleState {
+    // The array of X is replaced on each move, so the previous one is kept as is
+    int[] itemIdsInX;
+    int itemIdY;
+    ICover coverX, coverY, coverZ;
+    int freqX, freqY, freqZ;
+    IAlternative alternative;
+}
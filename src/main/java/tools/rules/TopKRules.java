@@ -0,0 +1,142 @@
+package tools.rules;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import lombok.Getter;
+
+/**
+ * Bounded set of the best rules offered by several threads, for instance the
+ * chains of a parallel sampler. Each rule is kept with the score it was offered
+ * with, so that the order does not change when the statistics the scores depend
+ * on do. The rules are identified by their antecedent and consequent items, and
+ * a rule offered again keeps its best score.
+ */
+public class TopKRules {
+
+    /**
+     * The items of a rule, which identify it whatever its frequencies.
+     */
+    private static final class RuleKey {
+        private final int[] itemIdsInX; // Sorted, never modified
+        private final int itemIdY;
+
+        private RuleKey(DecisionRule rule) {
+            this.itemIdsInX = rule.getItemIdsInX();
+            this.itemIdY = rule.getItemIdY();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof RuleKey)) {
+                return false;
+            }
+            RuleKey other = (RuleKey) obj;
+            return itemIdY == other.itemIdY && Arrays.equals(itemIdsInX, other.itemIdsInX);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Arrays.hashCode(itemIdsInX) + itemIdY;
+        }
+    }
+
+    private static final class ScoredRule {
+        private final RuleKey key;
+        private final DecisionRule rule;
+        private final double score;
+        private final long rank; // The order of the offers, to break the ties
+
+        private ScoredRule(RuleKey key, DecisionRule rule, double score, long rank) {
+            this.key = key;
+            this.rule = rule;
+            this.score = score;
+            this.rank = rank;
+        }
+    }
+
+    private final @Getter int capacity;
+    private final TreeSet<ScoredRule> ranking = new TreeSet<>(Comparator
+            .comparingDouble((ScoredRule scored) -> scored.score).reversed()
+            .thenComparingLong(scored -> scored.rank));
+    private final Map<RuleKey, ScoredRule> scoredRules = new HashMap<>();
+    private long nbOffers;
+
+    /**
+     * @param capacity The number of rules kept, none if it is not positive.
+     */
+    public TopKRules(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Offers a rule, kept if it is among the best ones offered so far.
+     *
+     * @param rule  The rule, which must not be modified afterwards.
+     * @param score The score of the rule.
+     * @return True if the rule was kept.
+     */
+    public synchronized boolean offer(DecisionRule rule, double score) {
+        if (capacity <= 0) {
+            return false;
+        }
+        RuleKey key = new RuleKey(rule);
+        ScoredRule previous = scoredRules.get(key);
+        if (previous != null) {
+            if (previous.score >= score) {
+                return false;
+            }
+            ranking.remove(previous);
+        } else if (ranking.size() >= capacity && score <= ranking.last().score) {
+            return false;
+        }
+
+        ScoredRule scored = new ScoredRule(key, rule, score, nbOffers++);
+        ranking.add(scored);
+        scoredRules.put(key, scored);
+        if (ranking.size() > capacity) {
+            ScoredRule evicted = ranking.pollLast();
+            scoredRules.remove(evicted.key);
+            return evicted != scored;
+        }
+        return true;
+    }
+
+    /**
+     * @param rule A rule.
+     * @return True if a rule with the same items is kept.
+     */
+    public synchronized boolean contains(DecisionRule rule) {
+        return scoredRules.containsKey(new RuleKey(rule));
+    }
+
+    /**
+     * @return The rules kept, from the best to the worst.
+     */
+    public synchronized List<DecisionRule> getRules() {
+        List<DecisionRule> rules = new ArrayList<>(ranking.size());
+        for (ScoredRule scored : ranking) {
+            rules.add(scored.rule);
+        }
+        return rules;
+    }
+
+    /**
+     * @return The scores of the rules kept, from the best to the worst.
+     */
+    public synchronized double[] getScores() {
+        return ranking.stream().mapToDouble(scored -> scored.score).toArray();
+    }
+
+    public synchronized int size() {
+        return ranking.size();
+    }
+}
@@ -7,11 +7,17 @@ import java.util.Set;
 
 import tools.alternatives.Alternative;
 import tools.alternatives.IAlternative;
+import tools.rules.ContingencyTable;
 import tools.rules.DecisionRule;
 import tools.rules.IRule;
+import tools.rules.MeasureEvaluator;
 import tools.rules.RuleMeasures;
 
 public class AlternativeUtil {
+
+    // Permutation buffer of each scoring thread, grown on demand
+    private static final ThreadLocal<int[]> SCRATCH_PERMUTATION = ThreadLocal.withInitial(() -> new int[16]);
+
     /**
      * This method computes an alternative given a rule.
      * The measures of which the alternative is made of are the measures
@@ -58,7 +64,7 @@ public class AlternativeUtil {
             double smoothCounts,
             String[] measureNames) {
 
-        if (rule.getItemsInX().isEmpty() || rule.getY().isEmpty()) {
+        if (!rule.hasAntecedent() || !rule.hasConsequent()) {
             // In the case of a rule with no antecedent or consequent, initialize
             // the alternative to zero
             return new Alternative(measureNames.length);
@@ -69,6 +75,35 @@ public class AlternativeUtil {
         }
     }
 
+    /**
+     * This method computes an alternative given a rule, with measures compiled
+     * beforehand and a reusable contingency table, so that no measure is looked
+     * up by name.
+     * If the rule has no antecedent or consequent, it returns an alternative with a
+     * vector full of zeros.
+     *
+     * @param rule           A rule
+     * @param nbTransactions The total number of transactions in the dataset
+     * @param smoothCounts   The smoothing factor for the counts
+     * @param evaluator      The compiled measures that constitute the alternative
+     * @param table          The contingency table to fill with the rule counts
+     * @return The alternative of the rule
+     */
+    public static IAlternative computeAlternativeOrZero(
+            IRule rule,
+            int nbTransactions,
+            double smoothCounts,
+            MeasureEvaluator evaluator,
+            ContingencyTable table) {
+
+        if (!rule.hasAntecedent() || !rule.hasConsequent()) {
+            return new Alternative(evaluator.size());
+        }
+        double[] measures = new double[evaluator.size()];
+        evaluator.evaluate(table.set(rule, nbTransactions, smoothCounts), measures);
+        return new Alternative(measures);
+    }
+
     /**
      * This method computes a list of alternatives given a set of rules.
      * The measures of which the alternatives are made of are the measures
@@ -137,4 +172,48 @@ public class AlternativeUtil {
             }
         }
     }
+
+    /**
+     * Orders the indexes of a vector by increasing value with an insertion sort,
+     * which beats the general sorts on the few criteria of an alternative and
+     * boxes nothing. Values are compared with {@link Double#compare}, as the
+     * comparator-based sort did, so -0.0 comes before 0.0 and NaN comes last.
+     * Equal values keep the order of their indexes.
+     *
+     * @param values      The array holding the vector.
+     * @param offset      The index of the first value of the vector.
+     * @param length      The number of values of the vector.
+     * @param permutation The array receiving the ordered indexes, relative to the
+     *                    offset, of length at least {@code length}.
+     * @return The permutation array.
+     */
+    public static int[] orderPermutation(double[] values, int offset, int length, int[] permutation) {
+        for (int i = 0; i < length; i++) {
+            double value = values[offset + i];
+            int j = i;
+            while (j > 0 && Double.compare(values[offset + permutation[j - 1]], value) > 0) {
+                permutation[j] = permutation[j - 1];
+                j--;
+            }
+            permutation[j] = i;
+        }
+        return permutation;
+    }
+
+    /**
+     * Returns the permutation buffer of the calling thread, so that a score can
+     * order a vector without allocating. The buffer is overwritten by the next
+     * call from the same thread.
+     *
+     * @param length The minimal length of the buffer.
+     * @return The permutation buffer of the thread.
+     */
+    public static int[] getScratchPermutation(int length) {
+        int[] permutation = SCRATCH_PERMUTATION.get();
+        if (permutation.length < length) {
+            permutation = new int[Math.max(length, 2 * permutation.length)];
+            SCRATCH_PERMUTATION.set(permutation);
+        }
+        return permutation;
+    }
 }
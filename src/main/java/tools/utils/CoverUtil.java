@@ -0,0 +1,224 @@
+package tools.utils;
+
+import java.util.Arrays;
+
+import tools.covers.DenseCover;
+import tools.covers.ICover;
+import tools.covers.RunLengthCover;
+import tools.covers.SparseCover;
+
+/**
+ * Factory of covers. Each cover is stored in the container taking the least
+ * memory for its density: a bitmap for frequent items, a sorted array for rare
+ * ones and runs for transactions grouped together.
+ */
+public class CoverUtil {
+
+    private static final int[] EMPTY_INTS = new int[0];
+
+    /**
+     * Creates the cover of the empty itemset, containing all the transactions.
+     *
+     * @param length The number of transactions.
+     * @return A cover containing all the transactions.
+     */
+    public static ICover createAllOnes(int length) {
+        if (length == 0) {
+            return createEmpty(0);
+        }
+        return new RunLengthCover(new int[] { 0 }, new int[] { length }, length);
+    }
+
+    /**
+     * Creates a cover containing no transaction.
+     *
+     * @param length The number of transactions.
+     * @return An empty cover.
+     */
+    public static ICover createEmpty(int length) {
+        return new SparseCover(EMPTY_INTS, length);
+    }
+
+    /**
+     * Creates a cover from the sorted indexes of its transactions.
+     *
+     * @param indexes The indexes in increasing order, which are copied.
+     * @param count   The number of indexes to take from the array.
+     * @param length  The number of transactions.
+     * @return The cover in its most compact container.
+     */
+    public static ICover fromSortedIndexes(int[] indexes, int count, int length) {
+        int nbRuns = 0;
+        for (int k = 0; k < count; k++) {
+            if (k == 0 || indexes[k] != indexes[k - 1] + 1) {
+                nbRuns++;
+            }
+        }
+
+        switch (chooseContainer(length, count, nbRuns)) {
+            case DENSE:
+                long[] words = new long[wordCount(length)];
+                for (int k = 0; k < count; k++) {
+                    words[indexes[k] >>> 6] |= 1L << indexes[k];
+                }
+                return new DenseCover(words, length, count);
+            case RUNS:
+                int[] starts = new int[nbRuns];
+                int[] ends = new int[nbRuns];
+                int run = -1;
+                for (int k = 0; k < count; k++) {
+                    if (k == 0 || indexes[k] != indexes[k - 1] + 1) {
+                        starts[++run] = indexes[k];
+                    }
+                    ends[run] = indexes[k] + 1;
+                }
+                return new RunLengthCover(starts, ends, length);
+            default:
+                return new SparseCover(Arrays.copyOf(indexes, count), length);
+        }
+    }
+
+    /**
+     * Creates a cover from a bitmap.
+     *
+     * @param words  The bitmap, which may be kept by the cover.
+     * @param length The number of transactions.
+     * @return The cover in its most compact container.
+     */
+    public static ICover fromWords(long[] words, int length) {
+        int cardinality = 0;
+        int nbRuns = 0;
+        long carry = 0; // Last bit of the previous word
+        for (long word : words) {
+            cardinality += Long.bitCount(word);
+            // A run starts at each set bit whose predecessor is not set
+            nbRuns += Long.bitCount(word & ~((word << 1) | carry));
+            carry = word >>> 63;
+        }
+
+        switch (chooseContainer(length, cardinality, nbRuns)) {
+            case DENSE:
+                return new DenseCover(words, length, cardinality);
+            case RUNS:
+                int[] starts = new int[nbRuns];
+                int[] ends = new int[nbRuns];
+                int run = -1;
+                int previous = -2;
+                for (int wordIndex = 0; wordIndex < words.length; wordIndex++) {
+                    long word = words[wordIndex];
+                    while (word != 0) {
+                        int index = (wordIndex << 6) + Long.numberOfTrailingZeros(word);
+                        if (index != previous + 1) {
+                            starts[++run] = index;
+                        }
+                        ends[run] = index + 1;
+                        previous = index;
+                        word &= word - 1;
+                    }
+                }
+                return new RunLengthCover(starts, ends, length);
+            default:
+                int[] indexes = new int[cardinality];
+                int k = 0;
+                for (int wordIndex = 0; wordIndex < words.length; wordIndex++) {
+                    long word = words[wordIndex];
+                    while (word != 0) {
+                        indexes[k++] = (wordIndex << 6) + Long.numberOfTrailingZeros(word);
+                        word &= word - 1;
+                    }
+                }
+                return new SparseCover(indexes, length);
+        }
+    }
+
+    /**
+     * Creates a cover from disjoint sorted runs of transactions.
+     *
+     * @param starts The first transaction of each run, which may be kept.
+     * @param ends   The transaction following each run, which may be kept.
+     * @param nbRuns The number of runs to take from the arrays.
+     * @param length The number of transactions.
+     * @return The cover in its most compact container.
+     */
+    public static ICover fromRuns(int[] starts, int[] ends, int nbRuns, int length) {
+        int cardinality = 0;
+        for (int run = 0; run < nbRuns; run++) {
+            cardinality += ends[run] - starts[run];
+        }
+
+        switch (chooseContainer(length, cardinality, nbRuns)) {
+            case DENSE:
+                long[] words = new long[wordCount(length)];
+                for (int run = 0; run < nbRuns; run++) {
+                    setRange(words, starts[run], ends[run]);
+                }
+                return new DenseCover(words, length, cardinality);
+            case RUNS:
+                if (starts.length != nbRuns) {
+                    starts = Arrays.copyOf(starts, nbRuns);
+                    ends = Arrays.copyOf(ends, nbRuns);
+                }
+                return new RunLengthCover(starts, ends, length);
+            default:
+                int[] indexes = new int[cardinality];
+                int k = 0;
+                for (int run = 0; run < nbRuns; run++) {
+                    for (int i = starts[run]; i < ends[run]; i++) {
+                        indexes[k++] = i;
+                    }
+                }
+                return new SparseCover(indexes, length);
+        }
+    }
+
+    /**
+     * Sets the bits of the range [from, to) in a bitmap.
+     *
+     * @param words The bitmap.
+     * @param from  The first bit to set.
+     * @param to    The bit following the last one to set.
+     */
+    public static void setRange(long[] words, int from, int to) {
+        if (from >= to) {
+            return;
+        }
+        int firstWord = from >>> 6;
+        int lastWord = (to - 1) >>> 6;
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> -to;
+        if (firstWord == lastWord) {
+            words[firstWord] |= firstMask & lastMask;
+        } else {
+            words[firstWord] |= firstMask;
+            Arrays.fill(words, firstWord + 1, lastWord, -1L);
+            words[lastWord] |= lastMask;
+        }
+    }
+
+    /**
+     * @param length A number of bits.
+     * @return The number of words of a bitmap of this length.
+     */
+    public static int wordCount(int length) {
+        return (length + 63) >>> 6;
+    }
+
+    private enum Container {
+        DENSE, SPARSE, RUNS
+    }
+
+    /**
+     * Chooses the container taking the least memory, the bitmap being preferred
+     * on ties as it has the fastest kernels.
+     */
+    private static Container chooseContainer(int length, int cardinality, int nbRuns) {
+        long denseBytes = 8L * wordCount(length);
+        long sparseBytes = 4L * cardinality;
+        long runsBytes = 8L * nbRuns;
+
+        if (denseBytes <= sparseBytes && denseBytes <= runsBytes) {
+            return Container.DENSE;
+        }
+        return runsBytes < sparseBytes ? Container.RUNS : Container.SPARSE;
+    }
+}
@@ -0,0 +1,63 @@
+package tools.utils;
+
+/**
+ * Random permutation of the integers from 0 to n-1 drawn one element at a time
+ * by a partial Fisher-Yates shuffle over a reusable buffer. Drawing k elements
+ * costs O(k) whatever n, and the buffer is only allocated again when n grows.
+ *
+ * The buffer is not restored between permutations: it always holds a
+ * permutation of 0..n-1, and swapping each position with a uniformly chosen
+ * later one gives a uniform permutation whatever the starting order.
+ */
+public class LazyPermutation {
+
+    private int[] buffer = new int[0];
+    private int size;
+    private int position; // The number of elements drawn
+    private RandomUtil random;
+
+    /**
+     * Starts a new permutation.
+     *
+     * @param size   The number of integers to permute.
+     * @param random The stream the permutation is drawn from.
+     */
+    public void reset(int size, RandomUtil random) {
+        if (size != this.size) {
+            if (buffer.length < size) {
+                buffer = new int[size];
+            }
+            for (int i = 0; i < size; i++) {
+                buffer[i] = i;
+            }
+            this.size = size;
+        }
+        this.position = 0;
+        this.random = random;
+    }
+
+    /**
+     * @return True if some integers have not been drawn yet.
+     */
+    public boolean hasNext() {
+        return position < size;
+    }
+
+    /**
+     * @return The next integer of the permutation.
+     */
+    public int next() {
+        int j = position + random.nextInt(size - position);
+        int value = buffer[j];
+        buffer[j] = buffer[position];
+        buffer[position++] = value;
+        return value;
+    }
+
+    /**
+     * @return The number of integers permuted.
+     */
+    public int size() {
+        return size;
+    }
+}
@@ -5,31 +5,75 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Random;
 import java.util.Set;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.SplittableRandom;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 /**
- * Utility class for generating random values using the Java Random class.
+ * Utility class for generating random values from a SplittableRandom stream.
+ *
+ * An instance is not thread-safe and is meant to be used by a single thread at
+ * a time. A thread, a chain or a fold of an experiment takes its own child
+ * stream with {@link #split()}, so that the children of a seeded instance are
+ * reproducible and never contend on a shared generator. Components without a
+ * parent stream take theirs from the master stream of the application with
+ * {@link #newStream()}; the master stream is never drawn from directly.
  */
 
 public class RandomUtil {
 
-    private Random random = new Random();
-    private static RandomUtil INSTANCE;
+    // The master stream of the application, guarded by the class
+    private static SplittableRandom master = new SplittableRandom();
+
+    private SplittableRandom random;
+
+    /**
+     * Creates a stream seeded from the default seed generator.
+     */
+    public RandomUtil() {
+        this(new SplittableRandom());
+    }
+
+    /**
+     * @param seed The seed of the stream.
+     */
+    public RandomUtil(long seed) {
+        this(new SplittableRandom(seed));
+    }
+
+    private RandomUtil(SplittableRandom random) {
+        this.random = random;
+    }
 
     /**
-     * Returns the singleton instance of the RandomUtil class.
+     * Splits a new stream off the master stream of the application. It can be
+     * called from any thread.
      *
-     * @return The singleton instance of the RandomUtil class.
+     * @return The new stream, to be used by a single thread at a time.
      */
-    public static RandomUtil getInstance() {
-        if (INSTANCE == null) {
-            INSTANCE = new RandomUtil();
-        }
-        return INSTANCE;
+    public static synchronized RandomUtil newStream() {
+        return new RandomUtil(master.split());
+    }
+
+    /**
+     * Seeds the master stream of the application, so that the streams split off
+     * it afterwards are reproducible.
+     *
+     * @param seed The seed of the master stream.
+     */
+    public static synchronized void setMasterSeed(long seed) {
+        master = new SplittableRandom(seed);
+    }
+
+    /**
+     * Splits a child stream off this one. The children of a stream seeded the
+     * same way are the same, in the same order.
+     *
+     * @return The child stream.
+     */
+    public RandomUtil split() {
+        return new RandomUtil(random.split());
     }
 
     /**
@@ -42,7 +86,7 @@ public class RandomUtil {
      */
     public int[][] kFolds(int k, int size) {
         List<Integer> idx = IntStream.range(0, size).boxed().collect(Collectors.toList());
-        Collections.shuffle(idx, random);
+        shuffle(idx);
         int foldSize = size / k;
         int[][] folds = new int[k][];
         for (int i = 0; i < k; i++) {
@@ -67,7 +111,7 @@ public class RandomUtil {
         List<Integer> idx = IntStream.range(0, size).boxed().collect(Collectors.toList());
         int[][] folds = new int[k][];
         for (int i = 0; i < k; i++) {
-            Collections.shuffle(idx, random);
+            shuffle(idx);
             folds[i] = new int[foldSize];
             for (int j = 0; j < foldSize; j++) {
                 folds[i][j] = idx.get(j);
@@ -180,7 +224,7 @@ public class RandomUtil {
      * @param seed The initial seed.
      */
     public void setSeed(long seed) {
-        random.setSeed(seed);
+        random = new SplittableRandom(seed);
     }
 
     /**
@@ -229,7 +273,38 @@ public class RandomUtil {
      * @param l The List to be shuffled.
      */
     public void shuffle(List<?> l) {
-        Collections.shuffle(l, random);
+        for (int i = l.size() - 1; i > 0; i--) {
+            Collections.swap(l, i, random.nextInt(i + 1));
+        }
+    }
+
+    /**
+     * Shuffles an array of integers in place.
+     *
+     * @param values The array to be shuffled.
+     */
+    public void shuffle(int[] values) {
+        for (int i = values.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int temp = values[i];
+            values[i] = values[j];
+            values[j] = temp;
+        }
+    }
+
+    /**
+     * Generates a random shuffle of integers from 0 to n-1 from this stream.
+     *
+     * @param n the number of integers to shuffle
+     * @return a shuffled array of integers
+     */
+    public int[] permutation(int n) {
+        int[] arr = new int[n];
+        for (int i = 0; i < n; i++) {
+            arr[i] = i;
+        }
+        shuffle(arr);
+        return arr;
     }
 
     /**
@@ -256,37 +331,14 @@ public class RandomUtil {
     }
 
     /**
-     * Generates a random shuffle of integers from 0 to n-1.
-     *
-     * @param n the number of integers to shuffle
-     * @return a shuffled array of integers
-     */
-    public static int[] randomShuffle(int n) {
-        int[] arr = new int[n];
-        for (int i = 0; i < n; i++) {
-            arr[i] = i;
-        }
-
-        Random rand = new Random();
-        for (int i = n - 1; i > 0; i--) {
-            int j = rand.nextInt(i + 1);
-            int temp = arr[i];
-            arr[i] = arr[j];
-            arr[j] = temp;
-        }
-
-        return arr;
-    }
-
-    /**
-     * Chooses a value randomly.
+     * Chooses a value randomly from this stream.
      *
      * @param values The set of possible values.
      * @return The randomly chosen value.
      */
-    public static String chooseUniformRandom(Set<String> values) {
+    public String chooseUniformRandom(Set<String> values) {
         int size = values.size();
-        int item = ThreadLocalRandom.current().nextInt(size);
+        int item = random.nextInt(size);
         int i = 0;
         for (String value : values) {
             if (i == item) {
@@ -4,7 +4,6 @@ import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -24,14 +23,12 @@ public class RuleUtil {
      * @return A saved copy of the original rule.
      */
     public static DecisionRule simpleCopy(DecisionRule originalRule) {
-        // Copy the contents of the sets to new sets
-        Set<String> newX = new HashSet<>(originalRule.getItemsInX());
-        String newY = originalRule.getY();
-
-        // Create a new Rule with the copied sets
+        // The item arrays are never modified, so they are shared with the copy,
+        // whose values are looked up in the dataset
         DecisionRule copiedRule = DecisionRule.builder()
-                .itemsInX(newX)
-                .Y(newY)
+                .dataset(originalRule.getDataset())
+                .itemIdsInX(originalRule.getItemIdsInX())
+                .itemIdY(originalRule.getItemIdY())
                 .alternative(originalRule.getAlternative() != null ? originalRule.getAlternative().deepCopy() : null)
                 .freqX(originalRule.getFreqX())
                 .freqY(originalRule.getFreqY())
@@ -51,25 +48,21 @@ public class RuleUtil {
     public static DecisionRule deepCopy(DecisionRule originalRule) {
         return originalRule.toBuilder()
                 .dataset(originalRule.getDataset())
-                .itemsMap(new HashMap<>(originalRule.getItemsMap()))
                 .freqX(originalRule.getFreqX())
                 .freqY(originalRule.getFreqY())
                 .freqZ(originalRule.getFreqZ())
                 .smoothCounts(originalRule.getSmoothCounts())
                 .measureNames(originalRule.getMeasureNames() != null ? originalRule.getMeasureNames().clone() : null)
                 .alternative(originalRule.getAlternative() != null ? originalRule.getAlternative().deepCopy() : null)
-                .coverX(originalRule.getCoverX() != null ? originalRule.getCoverX().clone() : null)
-                .coverY(originalRule.getCoverY() != null ? originalRule.getCoverY().clone() : null)
-                .coverZ(originalRule.getCoverZ() != null ? originalRule.getCoverZ().clone() : null)
-                .memoizedCoverX(
-                        originalRule.getMemoizedCoverX() != null ? new HashMap<>(originalRule.getMemoizedCoverX())
-                                : null)
-                .memoizedCoverZ(
-                        originalRule.getMemoizedCoverZ() != null ? new HashMap<>(originalRule.getMemoizedCoverZ())
-                                : null)
-                .Y(new String(originalRule.getY()))
-                .itemsInX(SetUtil.copySet(originalRule.getItemsInX()))
-                .itemsInZ(SetUtil.copySet(originalRule.getItemsInZ()))
+                // Covers are immutable and can be shared with the copy
+                .coverX(originalRule.getCoverX())
+                .coverY(originalRule.getCoverY())
+                .coverZ(originalRule.getCoverZ())
+                // The contingency table is filled on each change, so it is not shared
+                .contingencyTable(null)
+                // The item arrays are never modified, so they are shared with the copy
+                .itemIdsInX(originalRule.getItemIdsInX())
+                .itemIdY(originalRule.getItemIdY())
                 .build();
     }
 
@@ -81,8 +74,8 @@ public class RuleUtil {
      */
     public static boolean isValid(IRule rule) {
         // Check if frequencies are not zero and X and Y are not empty
-        if ((rule.getFreqZ() > 0 && rule.getFreqX() > 0 && rule.getFreqY() > 0) && !rule.getItemsInX().isEmpty()
-                && rule.getY() != null) {
+        if ((rule.getFreqZ() > 0 && rule.getFreqX() > 0 && rule.getFreqY() > 0) && rule.hasAntecedent()
+                && rule.hasConsequent()) {
             return true;
         }
 
@@ -134,7 +127,7 @@ public class RuleUtil {
     }
 
     private static int[] randomSample(int size, int sampleSize) {
-        RandomUtil random = RandomUtil.getInstance();
+        RandomUtil random = RandomUtil.newStream();
         return random.kFolds(1, size, sampleSize)[0];
     }
 
@@ -180,7 +173,7 @@ public class RuleUtil {
                 String consequent = consequentItems[0].trim();
 
                 // Create and configure the decision rule
-                DecisionRule rule = new DecisionRule(itemsInX, consequent, dataset, 100, 100, 1e-6, measureNames);
+                DecisionRule rule = new DecisionRule(itemsInX, consequent, dataset, 1e-6, measureNames);
 
                 // Add the decision rule to the list
                 decisionRules.add(rule);
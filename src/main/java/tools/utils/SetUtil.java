@@ -4,8 +4,6 @@ import java.util.BitSet;
 import java.util.HashSet;
 import java.util.Set;
 
-import com.zaxxer.sparsebits.SparseBitSet;
-
 public class SetUtil {
 
     /**
@@ -60,6 +58,21 @@ public class SetUtil {
         return bitSet;
     }
 
+    /**
+     * Converts a BitSet to the integer whose bits are set at the same positions,
+     * the inverse of {@link #intToBitSet(int, int)}.
+     *
+     * @param bitSet The BitSet to convert, whose bits are all below 31.
+     * @return The corresponding integer.
+     */
+    public static int bitSetToInt(BitSet bitSet) {
+        int value = 0;
+        for (int i = bitSet.nextSetBit(0); i > -1; i = bitSet.nextSetBit(i + 1)) {
+            value |= 1 << i;
+        }
+        return value;
+    }
+
     /**
      * Computes the union of two sets.
      *
@@ -74,32 +87,6 @@ public class SetUtil {
         return unionSet;
     }
 
-    /**
-     * Creates a new SparseBitSet with all bits set to 1.
-     *
-     * @param length The length of the SparseBitSet.
-     * @return A SparseBitSet with all bits set to 1.
-     */
-    public static SparseBitSet createSparseBitSetAllOnes(int length) {
-        SparseBitSet bitSet = new SparseBitSet(length);
-        bitSet.set(0, length);
-        bitSet.cardinality(); // Updating the sets statistics
-        return bitSet;
-    }
-
-    /**
-     * Copies the elements of the original cover to a new SparseBitSet.
-     * 
-     * @param originalCover The original cover to be copied.
-     * @return A copy of the original cover.
-     */
-    public static SparseBitSet copyCover(SparseBitSet originalCover) {
-        SparseBitSet copiedCover = new SparseBitSet(originalCover.size());
-        copiedCover.or(originalCover); // Copy elements from the original cover
-        copiedCover.cardinality(); // Updating the set statistics
-        return copiedCover;
-    }
-
     /**
      * Copies the elements of the original set to a new HashSet.
      * 
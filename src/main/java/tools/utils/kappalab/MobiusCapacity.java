@@ -3,7 +3,6 @@ package tools.utils.kappalab;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.BitSet;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
@@ -14,11 +13,15 @@ import tools.utils.SetUtil;
 /**
  * This class represents Möbius capacities constructed from linear capacities
  * FIXME: Is this the correct term linear?
+ *
+ * The values are stored in an array indexed by the bitmask of the capacity set,
+ * bit i standing for criterion i. A capacity set without a value holds NaN, and
+ * looking it up throws.
  */
 public class MobiusCapacity {
 
-    // Map to store capacity values for each capacity set
-    private Map<BitSet, Double> capacities = new HashMap<>();
+    // Capacity values indexed by the bitmask of each capacity set
+    private double[] capacities;
 
     // Number of criteria
     private @Getter int nbCriteria;
@@ -29,6 +32,9 @@ public class MobiusCapacity {
     // Ordered array of capacity sets
     private @Getter BitSet[] orderedCapacitySets;
 
+    // Bitmasks of the ordered capacity sets
+    private int[] orderedCapacityMasks;
+
     /**
      * Constructs a MobiusCapacity instance using a pre-defined capacity map.
      *
@@ -39,7 +45,10 @@ public class MobiusCapacity {
     public MobiusCapacity(int nbCriteria, int kAdditivity, Map<BitSet, Double> capacities) {
         this.nbCriteria = nbCriteria;
         this.kAdditivity = kAdditivity;
-        this.capacities = capacities;
+        this.capacities = emptyCapacities(nbCriteria);
+        for (Map.Entry<BitSet, Double> entry : capacities.entrySet()) {
+            this.capacities[SetUtil.bitSetToInt(entry.getKey())] = entry.getValue();
+        }
         orderCapacitySets(capacities.keySet());
     }
 
@@ -68,13 +77,23 @@ public class MobiusCapacity {
 
         }
 
-        // Order the capacity sets and populate capacities map
+        // Order the capacity sets and fill the capacity values
         orderCapacitySets(selectedCapacitySets);
-        for (int i = 0; i < orderedCapacitySets.length; i++) {
-            capacities.put(orderedCapacitySets[i], capacityArray[i]);
+        capacities = emptyCapacities(nbCriteria);
+        for (int i = 0; i < orderedCapacityMasks.length; i++) {
+            capacities[orderedCapacityMasks[i]] = capacityArray[i];
         }
     }
 
+    /**
+     * @return An array with one NaN entry per subset of the criteria.
+     */
+    private static double[] emptyCapacities(int nbCriteria) {
+        double[] capacities = new double[1 << nbCriteria];
+        Arrays.fill(capacities, Double.NaN);
+        return capacities;
+    }
+
     /**
      * Checks if BitSet a is lexicographically before BitSet b.
      *
@@ -116,6 +135,7 @@ public class MobiusCapacity {
             }
             return 0;
         }).toArray(BitSet[]::new);
+        orderedCapacityMasks = Arrays.stream(orderedCapacitySets).mapToInt(SetUtil::bitSetToInt).toArray();
     }
 
     /**
@@ -123,9 +143,33 @@ public class MobiusCapacity {
      *
      * @param capacitySet The BitSet representing a capacity set.
      * @return The corresponding capacity value.
+     * @throws IllegalArgumentException If the capacity set has no value.
      */
     public double getCapacityValue(BitSet capacitySet) {
-        return capacities.get(capacitySet);
+        return getCapacityValue(SetUtil.bitSetToInt(capacitySet));
+    }
+
+    /**
+     * Retrieves the capacity value associated with the given capacity bitmask.
+     *
+     * @param capacityMask The bitmask of the capacity set.
+     * @return The corresponding capacity value.
+     * @throws IllegalArgumentException If the capacity set has no value.
+     */
+    public double getCapacityValue(int capacityMask) {
+        double value = capacities[capacityMask];
+        if (Double.isNaN(value)) {
+            throw new IllegalArgumentException("No capacity value for the set " + capacityMask + ".");
+        }
+        return value;
+    }
+
+    /**
+     * @return The bitmasks of the capacity sets, in the order of
+     *         orderedCapacitySets.
+     */
+    public int[] getOrderedCapacityMasks() {
+        return orderedCapacityMasks.clone();
     }
 
     /**
@@ -137,8 +181,8 @@ public class MobiusCapacity {
     @Override
     public String toString() {
         StringBuilder str = new StringBuilder();
-        for (BitSet capacitySet : orderedCapacitySets) {
-            str.append(capacitySet).append(" ").append(capacities.get(capacitySet)).append("\n");
+        for (int i = 0; i < orderedCapacitySets.length; i++) {
+            str.append(orderedCapacitySets[i]).append(" ").append(capacities[orderedCapacityMasks[i]]).append("\n");
         }
         return str.toString();
     }
@@ -151,6 +195,10 @@ public class MobiusCapacity {
      *         orderedCapacitySets.
      */
     public double[] getOrderedCapacityValues() {
-        return Arrays.stream(orderedCapacitySets).mapToDouble(b -> getCapacityValue(b)).toArray();
+        double[] values = new double[orderedCapacityMasks.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = capacities[orderedCapacityMasks[i]];
+        }
+        return values;
     }
 }
@@ -5,79 +5,97 @@ import tools.utils.SetUtil;
 
 import java.util.Arrays;
 import java.util.BitSet;
-import java.util.HashMap;
-import java.util.Map;
 
+/**
+ * Capacity over the subsets of the criteria. The values are stored in an array
+ * indexed by the bitmask of the capacity set, bit i standing for criterion i, so
+ * that a lookup neither hashes a set nor unboxes a value. A capacity set without
+ * a value holds NaN, and looking it up throws.
+ */
 public class NormalizedCapacity {
 
-    private Map<BitSet, Double> capacities = new HashMap<>();
+    private double[] capacities;
     private @Getter int nbCriteria;
     private @Getter int nbCapacitySets;
 
     public NormalizedCapacity(int nbCriteria) {
         this.nbCriteria = nbCriteria;
         nbCapacitySets = (int) Math.pow(2, nbCriteria);
-        capacities.put(SetUtil.intToBitSet(0, nbCriteria), 0.0);
-        capacities.put(SetUtil.intToBitSet(nbCapacitySets - 1, nbCriteria), 1.0);
+        capacities = emptyCapacities(nbCriteria);
+        capacities[0] = 0.0;
+        capacities[nbCapacitySets - 1] = 1.0;
     }
 
     public NormalizedCapacity(int nbCriteria, double[] weights) {
         this.nbCriteria = nbCriteria;
         nbCapacitySets = (int) Math.pow(2, nbCriteria);
-        for (int i = 0; i < nbCapacitySets; i++) {
-            capacities.put(SetUtil.intToBitSet(i, nbCriteria), weights[i]);
-        }
+        capacities = Arrays.copyOf(weights, nbCapacitySets);
     }
 
     // In NormalizedCapacity class
     public NormalizedCapacity(int nbCriteria, double equalWeight) {
         this.nbCriteria = nbCriteria;
         nbCapacitySets = (int) Math.pow(2, nbCriteria) - 1; // Exclude the empty set from counting
-        double[] weights = new double[nbCapacitySets];
-        Arrays.fill(weights, equalWeight);
+        capacities = emptyCapacities(nbCriteria);
+        capacities[0] = 0.0;
         for (int i = 1; i < nbCapacitySets; i++) { // Start from 1 to exclude the empty set
-            capacities.put(SetUtil.intToBitSet(i, nbCriteria), weights[i - 1]);
+            capacities[i] = equalWeight;
         }
+        capacities[nbCapacitySets] = 1.0; // The full set
+    }
+
+    /**
+     * @return An array with one NaN entry per subset of the criteria.
+     */
+    private static double[] emptyCapacities(int nbCriteria) {
+        double[] capacities = new double[1 << nbCriteria];
+        Arrays.fill(capacities, Double.NaN);
+        return capacities;
     }
 
     public double getCapacityValue(BitSet capacitySet) {
-        return capacities.get(capacitySet);
+        return getCapacityValue(SetUtil.bitSetToInt(capacitySet));
     }
 
+    /**
+     * @param capacitySetIndex The bitmask of the capacity set.
+     * @return The value of the capacity set.
+     * @throws IllegalArgumentException If the capacity set has no value.
+     */
     public double getCapacityValue(int capacitySetIndex) {
-        return capacities.get(SetUtil.intToBitSet(capacitySetIndex, nbCriteria));
+        double value = capacities[capacitySetIndex];
+        if (Double.isNaN(value)) {
+            throw new IllegalArgumentException("No capacity value for the set " + capacitySetIndex + ".");
+        }
+        return value;
     }
 
     public void addCapacitySet(BitSet capacitySet, double value) {
-        assert value >= 0 && value <= 1;
-        capacities.put(capacitySet, value);
+        addCapacitySet(SetUtil.bitSetToInt(capacitySet), value);
     }
 
     public void addCapacitySet(int capacitySetIndex, double value) {
-        addCapacitySet(SetUtil.intToBitSet(capacitySetIndex, nbCriteria), value);
+        assert value >= 0 && value <= 1;
+        capacities[capacitySetIndex] = value;
     }
 
     public boolean containsCapacitySet(BitSet capacitySet) {
-        return capacities.containsKey(capacitySet);
+        return containsCapacitySet(SetUtil.bitSetToInt(capacitySet));
     }
 
     public boolean containsCapacitySet(int capacitySetIndex) {
-        return containsCapacitySet(SetUtil.intToBitSet(capacitySetIndex, nbCriteria));
+        return !Double.isNaN(capacities[capacitySetIndex]);
     }
 
     public double[] getWeights() {
-        double[] weights = new double[nbCapacitySets];
-        for (int i = 0; i < nbCapacitySets; i++) {
-            weights[i] = capacities.get(SetUtil.intToBitSet(i, nbCriteria));
-        }
-        return weights;
+        return Arrays.copyOf(capacities, nbCapacitySets);
     }
 
     public String toString() {
         StringBuilder str = new StringBuilder();
         for (int i = 0; i < nbCapacitySets; i++) {
             BitSet currentCapacitySet = SetUtil.intToBitSet(i, nbCriteria);
-            str.append(currentCapacitySet + " : " + capacities.get(currentCapacitySet) + "\n");
+            str.append(currentCapacitySet + " : " + capacities[i] + "\n");
         }
         return str.toString();
     }
@@ -0,0 +1,72 @@
+package experiments;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+import tools.data.Dataset;
+import tools.functions.singlevariate.ISinglevariateFunction;
+import tools.functions.singlevariate.OWA.OWAScoreFunction;
+import tools.utils.RandomUtil;
+
+class SamplingMethodExperimentTest {
+
+    @Test
+    void testSeededFoldIsReproducible() throws IOException {
+        Dataset dataset = new Dataset("adult.dat", "src/test/resources/", new HashSet<>(Arrays.asList("145", "146")));
+        String[] measureNames = new String[] { "lift", "confidence", "support", "yuleQ", "kruskal" };
+        double[] weights = new double[measureNames.length];
+        Arrays.fill(weights, 1.0 / measureNames.length);
+        ISinglevariateFunction scoreFunction = new OWAScoreFunction(weights);
+
+        // The same fold runs twice from the same seeded master stream
+        List<List<String>> runs = new ArrayList<>();
+        for (int run = 0; run < 2; run++) {
+            Path outputDirectory = Files.createTempDirectory("sampling_experiment");
+            RandomUtil.setMasterSeed(2024);
+            RandomUtil parent = RandomUtil.newStream();
+            SamplingMethodExperiment.runOnFold(dataset, scoreFunction, measureNames, "adult", 0, 50,
+                    outputDirectory + "/", parent.split());
+            runs.add(readSamples(outputDirectory.resolve("50")));
+            deleteRecursively(outputDirectory);
+        }
+
+        // One sample per out-ranking certainty and one of the batch sampler
+        assertEquals(4, runs.get(0).size());
+        assertEquals(runs.get(0), runs.get(1));
+    }
+
+    /**
+     * @return The content of each sample written in the directory, in the order
+     *         of their file names.
+     */
+    private static List<String> readSamples(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> sorted = files.sorted(Comparator.comparing(Path::toString)).collect(Collectors.toList());
+            List<String> samples = new ArrayList<>();
+            for (Path file : sorted) {
+                samples.add(new String(Files.readAllBytes(file)));
+            }
+            return samples;
+        }
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package sampling;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import sampling.diagnostics.StableTopKCriterion;
+import tools.data.Dataset;
+import tools.functions.singlevariate.ISinglevariateFunction;
+import tools.functions.singlevariate.OWA.OWAScoreFunction;
+import tools.rules.DecisionRule;
+import tools.rules.TopKRules;
+import tools.utils.RandomUtil;
+import tools.utils.RuleUtil;
+
+class ParallelSMASTest {
+
+    private static Dataset dataset;
+    private static ISinglevariateFunction scoringFunction;
+    private static String[] measureNames;
+
+    @BeforeAll
+    static void setUp() throws IOException {
+        Set<String> classItemValues = new HashSet<>();
+        classItemValues.add("145");
+        classItemValues.add("146");
+
+        dataset = new Dataset("adult.dat", "src/test/resources/", classItemValues);
+
+        measureNames = new String[] { "lift", "confidence", "support", "yuleQ", "kruskal" };
+        double[] weights = new double[measureNames.length];
+        Arrays.fill(weights, 1.0 / measureNames.length);
+        scoringFunction = new OWAScoreFunction(weights);
+    }
+
+    @Test
+    void testChainsShareIterationsAndNormalizer() {
+        ParallelSMAS sampler = new ParallelSMAS(50, dataset, scoringFunction, measureNames, 3);
+        sampler.setNbChains(4);
+        sampler.setRecordScoreHistory(true);
+
+        List<DecisionRule> rules = sampler.sample();
+
+        assertTrue(rules.size() >= 1 && rules.size() <= 3);
+        assertEquals(4, sampler.getChains().size());
+        assertEquals(50, sampler.getChains().stream().mapToInt(SMAS::getMaximumIterations).sum());
+        assertEquals(50, sampler.getScoreHistory().size());
+        for (SMAS chain : sampler.getChains()) {
+            assertTrue(chain.getNormalizer() == sampler.getNormalizer());
+        }
+        // Each chain seeds the shared statistics with 100 rules, and all its updates
+        // are merged once it is done
+        assertTrue(sampler.getNormalizer().getCoordinateStats().get(0).getCount() >= 4 * 100);
+
+        // The merge interval of the normalizer is only changed for the run
+        assertEquals(1, sampler.getNormalizer().getMergeInterval());
+    }
+
+    @Test
+    void testChainsStopOnceTopKIsStable() {
+        ParallelSMAS sampler = new ParallelSMAS(4_000, dataset, scoringFunction, measureNames, 1);
+        sampler.setNbChains(2);
+        sampler.setStoppingCriterion(new StableTopKCriterion(20, 10));
+
+        sampler.sample();
+
+        for (SMAS chain : sampler.getChains()) {
+            long iterations = chain.getDiagnostics().getCount();
+            assertTrue(iterations >= 20 && iterations < 2_000);
+            assertTrue(chain.getDiagnostics().getIterationsSinceTopKChange() >= 10);
+        }
+    }
+
+    @Test
+    void testDeadlineKeepsBestRulesSoFar() {
+        SMAS sampler = new SMAS(1_000_000, dataset, scoringFunction, measureNames, 3);
+        sampler.setCancellationToken(CancellationToken.withTimeout(200, TimeUnit.MILLISECONDS));
+
+        long start = System.nanoTime();
+        List<DecisionRule> rules = sampler.sample();
+
+        assertTrue(sampler.isTruncated());
+        assertFalse(rules.isEmpty());
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(30));
+    }
+
+    @Test
+    void testCancelledChains() {
+        ParallelSMAS sampler = new ParallelSMAS(1_000, dataset, scoringFunction, measureNames, 3);
+        sampler.setNbChains(2);
+        CancellationToken token = new CancellationToken();
+        token.cancel();
+        sampler.setCancellationToken(token);
+
+        List<DecisionRule> rules = sampler.sample();
+
+        assertTrue(sampler.isTruncated());
+        assertFalse(rules.isEmpty());
+        assertEquals(0, sampler.getScoreHistory().size());
+    }
+
+    @Test
+    void testSeededRunsAreReproducible() {
+        List<List<String>> runs = new ArrayList<>();
+        for (int run = 0; run < 2; run++) {
+            BatchSampler sampler = new BatchSampler(30, dataset, scoringFunction, measureNames, 3);
+            sampler.setRandom(new RandomUtil(2024));
+            List<String> rules = new ArrayList<>();
+            for (DecisionRule rule : sampler.sample()) {
+                rules.add(rule.getItemsInX() + "=>" + rule.getY());
+            }
+            runs.add(rules);
+        }
+        assertEquals(runs.get(0), runs.get(1));
+
+        // The child streams of a seeded stream are the same
+        RandomUtil first = new RandomUtil(7);
+        RandomUtil second = new RandomUtil(7);
+        for (int chain = 0; chain < 3; chain++) {
+            assertArrayEquals(first.split().permutation(20), second.split().permutation(20));
+        }
+
+        // So are the streams split off the seeded master stream
+        RandomUtil.setMasterSeed(7);
+        int[] fromMaster = RandomUtil.newStream().permutation(20);
+        RandomUtil.setMasterSeed(7);
+        assertArrayEquals(fromMaster, RandomUtil.newStream().permutation(20));
+    }
+
+    @Test
+    void testTopKRulesKeepsBestScores() {
+        List<DecisionRule> candidates = dataset.getRandomValidRules(20, 1e-6, measureNames);
+        TopKRules best = new TopKRules(3);
+        for (int i = 0; i < candidates.size(); i++) {
+            best.offer(candidates.get(i), i % 7);
+        }
+
+        double[] scores = best.getScores();
+        assertTrue(best.size() <= 3);
+        for (int i = 1; i < scores.length; i++) {
+            assertTrue(scores[i - 1] >= scores[i]);
+        }
+        assertEquals(6, scores[0]);
+    }
+
+    @Test
+    void testTopKRulesIdentifiesRulesByItems() {
+        DecisionRule rule = dataset.getRandomValidRules(1, 1e-6, measureNames).get(0);
+        TopKRules best = new TopKRules(3);
+        assertTrue(best.offer(RuleUtil.simpleCopy(rule), 1));
+
+        // A copy of the same rule is the same entry, kept with its best score
+        assertTrue(best.contains(rule));
+        assertFalse(best.offer(RuleUtil.simpleCopy(rule), 0.5));
+        assertTrue(best.offer(RuleUtil.simpleCopy(rule), 2));
+        assertEquals(1, best.size());
+        assertArrayEquals(new double[] { 2 }, best.getScores());
+    }
+
+    @Test
+    void testTopKRulesWithoutCapacity() {
+        DecisionRule rule = dataset.getRandomValidRules(1, 1e-6, measureNames).get(0);
+        TopKRules best = new TopKRules(0);
+        assertFalse(best.offer(rule, 1));
+        assertFalse(best.contains(rule));
+        assertEquals(0, best.size());
+    }
+}
@@ -76,6 +76,7 @@ class SMASTest {
         for (SMAS smas : samplerList) {
             smas.setScoringFunction(scoringFunction);
             smas.setNormalizationTechnique(NormalizationMethod.NO_NORMALIZATION);
+            smas.setRecordScoreHistory(true);
 
             // Run the SMAS algorithm
             DecisionRule resultRule = smas.sample().get(0);
@@ -133,6 +134,7 @@ class SMASTest {
                     smoothCounts, 1);
             smas.setScoringFunction(scoringFunction);
             smas.setNormalizationTechnique(method);
+            smas.setRecordScoreHistory(true);
 
             // Run the SMAS algorithm
             DecisionRule resultRule = smas.sample().get(0);
@@ -0,0 +1,99 @@
+package sampling.diagnostics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class ChainDiagnosticsTest {
+
+    @Test
+    void testMeanAndVarianceAcrossBatchMerges() {
+        ChainDiagnostics diagnostics = new ChainDiagnostics();
+        for (int k = 1; k <= 1000; k++) {
+            diagnostics.update(k, false);
+        }
+
+        assertEquals(1000, diagnostics.getCount());
+        assertEquals(500.5, diagnostics.getMean(), 1e-9);
+        assertEquals(1000 * 1001 / 12.0, diagnostics.getVariance(), 1e-6);
+        assertEquals(1000, diagnostics.getIterationsSinceTopKChange());
+    }
+
+    @Test
+    void testIndependentScores() {
+        Random random = new Random(42);
+        ChainDiagnostics diagnostics = new ChainDiagnostics();
+        for (int k = 0; k < 10_000; k++) {
+            diagnostics.update(random.nextDouble(), false);
+        }
+
+        assertTrue(diagnostics.getEffectiveSampleSize() > 3_000);
+        assertTrue(Math.abs(diagnostics.getGewekeZScore()) < 4);
+    }
+
+    @Test
+    void testCorrelatedScores() {
+        Random random = new Random(42);
+        ChainDiagnostics diagnostics = new ChainDiagnostics();
+        double score = 0;
+        for (int k = 0; k < 10_000; k++) {
+            score = 0.99 * score + random.nextGaussian();
+            diagnostics.update(score, false);
+        }
+
+        // An AR(1) chain of coefficient 0.99 is worth about n / 199 independent draws
+        assertTrue(diagnostics.getEffectiveSampleSize() < 1_000);
+    }
+
+    @Test
+    void testTrendFailsGeweke() {
+        Random random = new Random(42);
+        ChainDiagnostics diagnostics = new ChainDiagnostics();
+        for (int k = 0; k < 10_000; k++) {
+            diagnostics.update(k / 1000.0 + random.nextDouble(), false);
+        }
+
+        assertTrue(Math.abs(diagnostics.getGewekeZScore()) > 4);
+    }
+
+    @Test
+    void testSplitRHat() {
+        Random random = new Random(42);
+        ChainDiagnostics first = new ChainDiagnostics();
+        ChainDiagnostics second = new ChainDiagnostics();
+        ChainDiagnostics shifted = new ChainDiagnostics();
+        for (int k = 0; k < 5_000; k++) {
+            first.update(random.nextDouble(), false);
+            second.update(random.nextDouble(), false);
+            shifted.update(random.nextDouble() + 1, false);
+        }
+
+        assertEquals(1.0, ChainDiagnostics.getSplitRHat(Arrays.asList(first, second)), 0.1);
+        assertTrue(ChainDiagnostics.getSplitRHat(Arrays.asList(first, shifted)) > 1.5);
+        assertTrue(Double.isNaN(ChainDiagnostics.getSplitRHat(Arrays.asList(new ChainDiagnostics()))));
+    }
+
+    @Test
+    void testStableTopKCriterion() {
+        StableTopKCriterion criterion = new StableTopKCriterion(10, 5);
+        ChainDiagnostics diagnostics = new ChainDiagnostics();
+        for (int k = 0; k < 8; k++) {
+            diagnostics.update(1.0, k == 2);
+        }
+        // Stable for five iterations, but fewer than ten iterations
+        assertFalse(criterion.shouldStop(diagnostics));
+
+        diagnostics.update(1.0, true);
+        diagnostics.update(1.0, false);
+        assertFalse(criterion.shouldStop(diagnostics));
+        for (int k = 0; k < 4; k++) {
+            diagnostics.update(1.0, false);
+        }
+        assertTrue(criterion.shouldStop(diagnostics));
+    }
+}
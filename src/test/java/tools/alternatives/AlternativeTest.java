@@ -0,0 +1,41 @@
+package tools.alternatives;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import tools.utils.AlternativeUtil;
+
+public class AlternativeTest {
+
+    @Test
+    public void getOrderedPermutation() {
+        Alternative alternative = new Alternative(new double[] { 0.5, 0.1, 0.5, 0.0, 0.3 });
+
+        // Equal values keep the order of their indexes
+        assertArrayEquals(new int[] { 3, 1, 4, 0, 2 }, alternative.getOrderedPermutation());
+        assertEquals(0.0, alternative.getOrderedValue(0), 0d);
+        assertEquals(0.5, alternative.getOrderedValue(4), 0d);
+    }
+
+    @Test
+    public void orderPermutationWithOffset() {
+        double[] rows = { 0.9, 0.8, 0.2, 0.7, 0.1 };
+        int[] permutation = AlternativeUtil.getScratchPermutation(3);
+
+        AlternativeUtil.orderPermutation(rows, 2, 3, permutation);
+        assertArrayEquals(new int[] { 2, 0, 1 }, Arrays.copyOf(permutation, 3));
+        assertSame(permutation, AlternativeUtil.getScratchPermutation(3));
+    }
+
+    @Test
+    public void orderPermutationLikeDoubleCompare() {
+        double[] values = { Double.NaN, 0.0, -0.0, 0.4 };
+        int[] permutation = AlternativeUtil.orderPermutation(values, 0, 4, new int[4]);
+        assertArrayEquals(new int[] { 2, 1, 3, 0 }, permutation);
+    }
+}
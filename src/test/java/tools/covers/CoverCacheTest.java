@@ -0,0 +1,127 @@
+package tools.covers;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import tools.data.Dataset;
+import tools.rules.DecisionRule;
+import tools.utils.CoverUtil;
+
+class CoverCacheTest {
+
+    @Test
+    public void testKeysAreCanonical() {
+        ItemsetKey key = ItemsetKey.of(new int[] { 3, 1, 2 }, 3);
+        assertEquals(ItemsetKey.of(new int[] { 1, 2, 3 }, 3), key);
+        assertEquals(ItemsetKey.of(new int[] { 2, 3, 1, 7 }, 3).hashCode(), key.hashCode());
+        assertEquals(1, key.getItemId(0));
+        assertTrue(!key.equals(ItemsetKey.of(new int[] { 1, 2 }, 2)));
+    }
+
+    @Test
+    public void testHitsMissesAndEviction() {
+        ICover cover = CoverUtil.createAllOnes(100);
+        CoverCache cache = new CoverCache(10_000);
+        AtomicInteger nbComputations = new AtomicInteger();
+
+        ItemsetKey key = ItemsetKey.of(new int[] { 0, 1 }, 2);
+        assertSame(cover, cache.get(key, () -> {
+            nbComputations.incrementAndGet();
+            return cover;
+        }));
+        assertSame(cover, cache.get(ItemsetKey.of(new int[] { 1, 0 }, 2), () -> {
+            nbComputations.incrementAndGet();
+            return cover;
+        }));
+        assertEquals(1, nbComputations.get());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+
+        // The least recently used covers leave the cache once it is full
+        for (int itemId = 2; itemId < 1000; itemId++) {
+            cache.put(ItemsetKey.of(new int[] { itemId }, 1), cover);
+            assertTrue(cache.getWeight() <= cache.getMaxWeight());
+        }
+        assertTrue(cache.getEvictionCount() > 0);
+        assertNull(cache.get(key));
+        cache.get(ItemsetKey.of(new int[] { 999 }, 1));
+        assertEquals(2, cache.getHitCount());
+    }
+
+    @Test
+    public void testCoversAreDerivedFromTheLongestCachedPrefix() {
+        ICover[] itemCovers = {
+                CoverUtil.fromSortedIndexes(new int[] { 0, 1, 2, 3 }, 4, 8),
+                CoverUtil.fromSortedIndexes(new int[] { 1, 2, 3, 5 }, 4, 8),
+                CoverUtil.fromSortedIndexes(new int[] { 2, 3, 6 }, 3, 8),
+                CoverUtil.fromSortedIndexes(new int[] { 3, 7 }, 2, 8) };
+        AtomicInteger nbItemCovers = new AtomicInteger();
+        CoverCache cache = new CoverCache();
+
+        ICover abc = cache.get(ItemsetKey.of(new int[] { 2, 0, 1 }, 3), itemId -> {
+            nbItemCovers.incrementAndGet();
+            return itemCovers[itemId];
+        });
+        assertArrayEquals(new int[] { 2, 3 }, abc.toArray());
+        assertEquals(3, nbItemCovers.get());
+        // Only {0, 1} and {0, 1, 2} are cached, the cover of item 0 is not
+        assertEquals(2, cache.size());
+
+        // {0, 1, 3} only needs the cover of item 3 on top of the cached {0, 1}
+        ICover abd = cache.get(ItemsetKey.of(new int[] { 3, 1, 0 }, 3), itemId -> {
+            nbItemCovers.incrementAndGet();
+            return itemCovers[itemId];
+        });
+        assertArrayEquals(new int[] { 3 }, abd.toArray());
+        assertEquals(4, nbItemCovers.get());
+        assertEquals(1, cache.getPrefixHitCount());
+        assertSame(abc, cache.get(ItemsetKey.of(new int[] { 0, 1, 2 }, 3)));
+    }
+
+    @Test
+    public void testRulesShareTheCacheOfTheDataset() {
+        String[][] transactions = { { "a", "b", "y" }, { "a", "b" }, { "a", "c", "y" }, { "b", "c" } };
+        Dataset dataset = new Dataset(transactions, new HashSet<>(Arrays.asList("y")));
+        String[] measureNames = new String[] { "confidence" };
+
+        DecisionRule first = new DecisionRule(new HashSet<>(Arrays.asList("a", "b")), "y", dataset, 10, 10, 0.01d,
+                measureNames);
+        long nbHits = dataset.getCoverCache().getHitCount();
+
+        // The second rule builds the same itemsets in another order
+        DecisionRule second = new DecisionRule(new HashSet<>(Arrays.asList("b")), "y", dataset, 10, 10, 0.01d,
+                measureNames);
+        second.addToX("a");
+        assertTrue(dataset.getCoverCache().getHitCount() >= nbHits + 2);
+        assertSame(first.getCoverX(), second.getCoverX());
+        assertSame(first.getCoverZ(), second.getCoverZ());
+        assertEquals(1, second.getFreqZ());
+    }
+
+    @Test
+    public void testSingleItemCoversAreNotCached() {
+        String[][] transactions = { { "a", "b", "y" }, { "a", "b" }, { "a", "c", "y" }, { "b", "c" } };
+        Dataset dataset = new Dataset(transactions, new HashSet<>(Arrays.asList("y")));
+        DecisionRule rule = new DecisionRule(new HashSet<>(), "y", dataset, 0.01d, new String[] { "confidence" });
+        rule.addToX("a");
+
+        // Only {a, y} is cached, {a} and {y} being the covers of the dataset
+        CoverCache cache = dataset.getCoverCache();
+        int a = dataset.getItemId("a");
+        int y = dataset.getItemId("y");
+        assertNull(cache.get(ItemsetKey.of(new int[] { a }, 1)));
+        assertNull(cache.get(ItemsetKey.of(new int[] { y }, 1)));
+        assertSame(dataset.getItemCover(a), rule.getCoverX());
+        assertEquals(1, cache.size());
+        assertEquals(2, rule.getFreqZ());
+    }
+}
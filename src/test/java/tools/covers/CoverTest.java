@@ -0,0 +1,154 @@
+package tools.covers;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import tools.utils.CoverUtil;
+
+class CoverTest {
+
+    private static final int LENGTH = 1000;
+
+    /**
+     * Builds the same random set of transactions in the three containers.
+     */
+    private static ICover[] createCovers(BitSet bits) {
+        int[] indexes = bits.stream().toArray();
+
+        long[] words = new long[CoverUtil.wordCount(LENGTH)];
+        for (int index : indexes) {
+            words[index >>> 6] |= 1L << index;
+        }
+
+        int[] starts = new int[indexes.length];
+        int[] ends = new int[indexes.length];
+        int nbRuns = 0;
+        for (int k = 0; k < indexes.length; k++) {
+            if (k == 0 || indexes[k] != indexes[k - 1] + 1) {
+                starts[nbRuns++] = indexes[k];
+            }
+            ends[nbRuns - 1] = indexes[k] + 1;
+        }
+
+        return new ICover[] {
+                new DenseCover(words, LENGTH, indexes.length),
+                new SparseCover(indexes, LENGTH),
+                new RunLengthCover(Arrays.copyOf(starts, nbRuns), Arrays.copyOf(ends, nbRuns), LENGTH) };
+    }
+
+    private static BitSet randomBits(Random random, double density, boolean grouped) {
+        BitSet bits = new BitSet(LENGTH);
+        for (int i = 0; i < LENGTH; i++) {
+            // Grouped covers are made of blocks of 50 transactions
+            if (random.nextDouble() < density) {
+                if (grouped) {
+                    bits.set(i / 50 * 50, Math.min(LENGTH, i / 50 * 50 + 50));
+                } else {
+                    bits.set(i);
+                }
+            }
+        }
+        return bits;
+    }
+
+    @Test
+    public void testAndAllContainerPairs() {
+        Random random = new Random(42);
+        double[] densities = { 0.005, 0.1, 0.5, 0.95 };
+
+        for (double densityA : densities) {
+            for (double densityB : densities) {
+                BitSet bitsA = randomBits(random, densityA, random.nextBoolean());
+                BitSet bitsB = randomBits(random, densityB, random.nextBoolean());
+                BitSet expected = (BitSet) bitsA.clone();
+                expected.and(bitsB);
+
+                for (ICover coverA : createCovers(bitsA)) {
+                    for (ICover coverB : createCovers(bitsB)) {
+                        ICover result = coverA.and(coverB);
+                        assertEquals(expected.cardinality(), result.cardinality());
+                        assertEquals(expected.cardinality(), coverA.andCardinality(coverB));
+                        assertArrayEquals(expected.stream().toArray(), result.toArray());
+                        assertEquals(coverB.and(coverA), result);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testReduceMatchesPairwiseAnd() {
+        Random random = new Random(11);
+        double[] densities = { 0.005, 0.5, 0.8, 0.95 };
+        ICover[] covers = new ICover[densities.length];
+        BitSet expected = new BitSet();
+        expected.set(0, LENGTH);
+        for (int i = 0; i < covers.length; i++) {
+            BitSet bits = randomBits(random, densities[i], false);
+            covers[i] = createCovers(bits)[i % 3];
+            expected.and(bits);
+        }
+
+        for (int count = 1; count <= covers.length; count++) {
+            ICover pairwise = covers[0];
+            for (int i = 1; i < count; i++) {
+                pairwise = pairwise.and(covers[i]);
+            }
+            assertEquals(pairwise, CoverReducer.reduce(covers, count, LENGTH));
+        }
+        assertArrayEquals(expected.stream().toArray(), CoverReducer.reduce(covers, covers.length, LENGTH).toArray());
+        assertEquals(LENGTH, CoverReducer.reduce(covers, 0, LENGTH).cardinality());
+
+        // Bitmaps large enough to be split between threads
+        int length = 64 * CoverReducer.PARALLEL_THRESHOLD_WORDS + 13;
+        long[][] words = new long[3][CoverUtil.wordCount(length)];
+        ICover[] large = new ICover[3];
+        for (int k = 0; k < 3; k++) {
+            for (int i = 0; i < words[k].length; i++) {
+                words[k][i] = random.nextLong() | random.nextLong();
+            }
+            words[k][words[k].length - 1] &= -1L >>> -length;
+            large[k] = CoverUtil.fromWords(words[k], length);
+        }
+        ICover reduced = CoverReducer.reduce(large, 3, length);
+        assertEquals(large[0].and(large[1]).and(large[2]), reduced);
+        assertEquals(large[0].and(large[1]), CoverReducer.and(large[0], large[1]));
+    }
+
+    @Test
+    public void testContainersAreEquivalent() {
+        Random random = new Random(7);
+        BitSet bits = randomBits(random, 0.3, false);
+        ICover[] covers = createCovers(bits);
+
+        for (ICover cover : covers) {
+            assertEquals(covers[0], cover);
+            assertEquals(covers[0].hashCode(), cover.hashCode());
+            for (int i = 0; i < LENGTH; i++) {
+                assertEquals(bits.get(i), cover.contains(i));
+                assertEquals(bits.nextSetBit(i), cover.nextSetBit(i));
+            }
+        }
+    }
+
+    @Test
+    public void testFactoryChoosesContainerByDensity() {
+        Random random = new Random(3);
+
+        // Frequent items are stored as bitmaps, rare ones as arrays and grouped
+        // ones as runs
+        int[] frequent = randomBits(random, 0.5, false).stream().toArray();
+        int[] rare = randomBits(random, 0.005, false).stream().toArray();
+        assertTrue(CoverUtil.fromSortedIndexes(frequent, frequent.length, LENGTH) instanceof DenseCover);
+        assertTrue(CoverUtil.fromSortedIndexes(rare, rare.length, LENGTH) instanceof SparseCover);
+        assertTrue(CoverUtil.createAllOnes(LENGTH) instanceof RunLengthCover);
+        assertEquals(LENGTH, CoverUtil.createAllOnes(LENGTH).cardinality());
+    }
+}
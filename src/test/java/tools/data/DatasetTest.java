@@ -6,7 +6,12 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Map;
@@ -14,8 +19,8 @@ import java.util.Set;
 
 import org.junit.Test;
 
-import com.zaxxer.sparsebits.SparseBitSet;
-
+import tools.covers.ICover;
+import tools.utils.CoverUtil;
 import tools.utils.TestUtils;
 
 public class DatasetTest {
@@ -146,7 +151,7 @@ public class DatasetTest {
         String[][] irisTransactions = irisDataset.getTransactionalDataset();
 
         for (String itemValue : irisDataset.getItemsMap().keySet()) {
-            SparseBitSet cover = irisDataset.getItemsMap().get(itemValue);
+            ICover cover = irisDataset.getItemsMap().get(itemValue);
             assertNotNull(cover);
 
             // Perform assertions on the computed cover
@@ -163,7 +168,7 @@ public class DatasetTest {
 
             Dataset Dataset = new Dataset("dataset_test_file.dat", "src/test/resources/", classItemValues);
 
-            Map<String, SparseBitSet> items = Dataset.getItemsMap();
+            Map<String, ICover> items = Dataset.getItemsMap();
 
             assertNotNull("Items should not be null", items);
             assertEquals("Number of items should match", 6, items.size());
@@ -177,27 +182,128 @@ public class DatasetTest {
             int[] occurrencesForItemValue6 = { 2 };
 
             // Example assertions
-            assertItem("1", createSparseBitSet(occurrencesForItemValue1), items);
-            assertItem("2", createSparseBitSet(occurrencesForItemValue2), items);
-            assertItem("3", createSparseBitSet(occurrencesForItemValue3), items);
-            assertItem("4", createSparseBitSet(occurrencesForItemValue4), items);
-            assertItem("5", createSparseBitSet(occurrencesForItemValue5), items);
-            assertItem("9", createSparseBitSet(occurrencesForItemValue6), items);
+            assertItem("1", createCover(occurrencesForItemValue1), items);
+            assertItem("2", createCover(occurrencesForItemValue2), items);
+            assertItem("3", createCover(occurrencesForItemValue3), items);
+            assertItem("4", createCover(occurrencesForItemValue4), items);
+            assertItem("5", createCover(occurrencesForItemValue5), items);
+            assertItem("9", createCover(occurrencesForItemValue6), items);
 
         } catch (IOException e) {
             fail("IOException not expected during test");
         }
     }
 
-    private static SparseBitSet createSparseBitSet(int[] values) {
-        SparseBitSet bitSet = new SparseBitSet();
-        for (int value : values) {
-            bitSet.set(value);
+    @Test
+    public void testDictionaryEncoding() throws IOException {
+        Set<String> classItemValues = new HashSet<>(Arrays.asList("young", "adult", "senior"));
+        Dataset dataset = new Dataset("groceries_test_file.dat", "src/test/resources/", classItemValues);
+        String[][] transactions = dataset.getTransactionalDataset();
+        ItemDictionary dictionary = dataset.getItemDictionary();
+
+        // The transactions are stored as rows of item ids
+        int[] offsets = dataset.getTransactionOffsets();
+        assertEquals(transactions.length + 1, offsets.length);
+        for (int t = 0; t < transactions.length; t++) {
+            assertEquals(transactions[t].length, offsets[t + 1] - offsets[t]);
+            for (int k = 0; k < transactions[t].length; k++) {
+                assertEquals(transactions[t][k], dictionary.getLabel(dataset.getTransactionItems()[offsets[t] + k]));
+            }
+        }
+
+        // The covers indexed by id are the ones indexed by value
+        for (String itemValue : dataset.getItemsMap().keySet()) {
+            int itemId = dictionary.getId(itemValue);
+            assertEquals(itemValue, dataset.getItemValue(itemId));
+            assertEquals(dataset.getItemsMap().get(itemValue), dataset.getItemCover(itemId));
+        }
+
+        // The id arrays follow the order of the value arrays
+        for (int i = 0; i < dataset.getAntecedentItemIds().length; i++) {
+            assertEquals(dataset.getAntecedentItemsArray()[i], dataset.getItemValue(dataset.getAntecedentItemIds()[i]));
+            assertTrue(!dataset.isConsequentItem(dataset.getAntecedentItemIds()[i]));
+        }
+        for (int i = 0; i < dataset.getConsequentItemIds().length; i++) {
+            assertEquals(dataset.getConsequentItemsArray()[i], dataset.getItemValue(dataset.getConsequentItemIds()[i]));
+            assertTrue(dataset.isConsequentItem(dataset.getConsequentItemIds()[i]));
+        }
+    }
+
+    @Test
+    public void testParallelDatParser() throws IOException {
+        Dataset dataset = new Dataset(new Dataset("groceries_test_file.dat", "src/test/resources/",
+                new HashSet<>()).getTransactionalDataset(), new HashSet<>());
+
+        // Splitting the file into many chunks gives the same encoding as the
+        // sequential one
+        for (int nbChunks : new int[] { 1, 3, 64 }) {
+            ParallelDatParser parser = ParallelDatParser.parse(new File("src/test/resources/groceries_test_file.dat"),
+                    nbChunks);
+            assertArrayEquals(dataset.getItemDictionary().getLabels(), parser.getItemDictionary().getLabels());
+            assertArrayEquals(dataset.getTransactionOffsets(), parser.getTransactionOffsets());
+            assertArrayEquals(dataset.getTransactionItems(), parser.getTransactionItems());
+            assertArrayEquals(dataset.getItemCovers(), parser.getItemCovers());
         }
-        return bitSet;
     }
 
-    private void assertItem(String valueToTest, SparseBitSet expectedOccurrences, Map<String, SparseBitSet> items) {
+    @Test
+    public void testSnapshotRoundTrip() throws IOException {
+        Set<String> classItemValues = new HashSet<>(Arrays.asList("young", "adult", "senior"));
+        Dataset dataset = new Dataset("groceries_test_file.dat", "src/test/resources/", classItemValues);
+
+        File snapshotFile = File.createTempFile("groceries_test_file", DatasetSnapshot.EXTENSION);
+        snapshotFile.deleteOnExit();
+        DatasetSnapshot.write(dataset, snapshotFile);
+        Dataset snapshot = DatasetSnapshot.read(snapshotFile, classItemValues);
+
+        assertEquals(dataset.getNbTransactions(), snapshot.getNbTransactions());
+        assertEquals(dataset.getItemsMap(), snapshot.getItemsMap());
+        assertArrayEquals(dataset.getTransactionalDataset(), snapshot.getTransactions());
+        assertArrayEquals(dataset.getTransactionOffsets(), snapshot.getTransactionOffsets());
+        assertArrayEquals(dataset.getTransactionItems(), snapshot.getTransactionItems());
+        assertArrayEquals(dataset.getItemCovers(), snapshot.getItemCovers());
+        for (int itemId = 0; itemId < dataset.getItemCovers().length; itemId++) {
+            // The covers are read back in the container they were written from
+            assertEquals(dataset.getItemCovers()[itemId].getClass(), snapshot.getItemCovers()[itemId].getClass());
+        }
+        assertEquals(dataset.getAntecedentItemsSet(), snapshot.getAntecedentItemsSet());
+        assertArrayEquals(dataset.getAntecedentItemIds(), snapshot.getAntecedentItemIds());
+        assertArrayEquals(dataset.getConsequentItemIds(), snapshot.getConsequentItemIds());
+        assertEquals(dataset.getEquivalenceClasses().countClasses(), snapshot.getEquivalenceClasses().countClasses());
+    }
+
+    @Test
+    public void testSnapshotReaderCrossesWindows() throws IOException {
+        File file = File.createTempFile("snapshot_windows", DatasetSnapshot.EXTENSION);
+        file.deleteOnExit();
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(file))) {
+            out.writeInt(7);
+            for (int i = 0; i < 10; i++) {
+                out.writeInt(i);
+            }
+            for (long i = 0; i < 5; i++) {
+                out.writeLong(i << 40);
+            }
+        }
+
+        // Windows of 12 bytes split both arrays and force unaligned remappings
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+            DatasetSnapshot.MappedReader reader = new DatasetSnapshot.MappedReader(channel, 12);
+            assertEquals(7, reader.readInt());
+            int[] ints = new int[10];
+            reader.readInts(ints, ints.length);
+            assertArrayEquals(new int[] { 0, 1, 2, 3, 4, 5, 6, 7, 8, 9 }, ints);
+            long[] longs = new long[5];
+            reader.readLongs(longs, longs.length);
+            assertArrayEquals(new long[] { 0, 1L << 40, 2L << 40, 3L << 40, 4L << 40 }, longs);
+        }
+    }
+
+    private static ICover createCover(int[] values) {
+        return CoverUtil.fromSortedIndexes(values, values.length, 3);
+    }
+
+    private void assertItem(String valueToTest, ICover expectedOccurrences, Map<String, ICover> items) {
         assertEquals("Occurrences should match", expectedOccurrences, items.get(valueToTest));
     }
 
@@ -0,0 +1,88 @@
+package tools.functions.singlevariate.Choquet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+import org.junit.Test;
+
+import tools.alternatives.Alternative;
+import tools.functions.singlevariate.ISinglevariateFunction;
+import tools.utils.kappalab.MobiusCapacity;
+import tools.utils.kappalab.NormalizedCapacity;
+
+public class ChoquetScoreFunctionTest {
+
+    private static final double[][] ROWS = {
+            { 0.2, 0.5, 0.1 },
+            { 1.0, 0.0, 0.3 },
+            { 0.7, 0.7, 0.7 },
+            { 0.4, 0.9, 0.4 }
+    };
+
+    @Test
+    public void computeScores() {
+        double[] weights = { 0.0, 0.1, 0.2, 0.5, 0.3, 0.6, 0.4, 1.0 };
+        assertBatchMatchesScalar(new ChoquetScoreFunction(new NormalizedCapacity(3, weights)));
+    }
+
+    @Test
+    public void computeScoreFromCapacityMasks() {
+        // Capacities indexed by bitmask, bit i standing for criterion i
+        double[] weights = { 0.0, 0.1, 0.2, 0.5, 0.3, 0.6, 0.4, 1.0 };
+        ChoquetScoreFunction scoreFunction = new ChoquetScoreFunction(new NormalizedCapacity(3, weights));
+
+        // 0.1 * mu({0, 1, 2}) + (0.2 - 0.1) * mu({0, 1}) + (0.5 - 0.2) * mu({1})
+        assertEquals(0.1 * 1.0 + 0.1 * 0.5 + 0.3 * 0.2, scoreFunction.computeScore(new double[] { 0.2, 0.5, 0.1 }),
+                1e-12);
+    }
+
+    @Test
+    public void computeScoresWithEqualWeights() {
+        ChoquetScoreFunction scoreFunction = new ChoquetScoreFunction(3);
+        assertBatchMatchesScalar(scoreFunction);
+
+        // The full set weighs 1, so equal values score that value
+        assertEquals(0.7, scoreFunction.computeScore(new double[] { 0.7, 0.7, 0.7 }), 1e-12);
+    }
+
+    @Test
+    public void absentCapacitySetThrows() {
+        assertThrows(IllegalArgumentException.class, () -> new NormalizedCapacity(3).getCapacityValue(1));
+    }
+
+    @Test
+    public void computeMobiusScores() {
+        double[] capacityValues = { 0.0, 0.2, 0.3, 0.1, 0.15, 0.05, 0.2 };
+        assertBatchMatchesScalar(new ChoquetMobiusScoreFunction(new MobiusCapacity(3, 2, capacityValues)));
+    }
+
+    @Test
+    public void compileMobiusTerms() {
+        // Sets ordered by size then lexicographically: {}, {0}, {1}, {2}, {0, 1},
+        // {0, 2}, {1, 2}, {0, 1, 2}
+        double[] capacityValues = { 0.0, 0.1, 0.2, 0.3, 0.15, 0.0, -0.05, 0.3 };
+        MobiusEvaluator evaluator = MobiusEvaluator.compile(new MobiusCapacity(3, 3, capacityValues));
+
+        double expected = 0.1 * 0.2 + 0.2 * 0.5 + 0.3 * 0.1 + 0.15 * 0.2 - 0.05 * 0.1 + 0.3 * 0.1;
+        assertEquals(expected, evaluator.evaluate(new double[] { 0.2, 0.5, 0.1 }), 1e-12);
+    }
+
+    private static void assertBatchMatchesScalar(ISinglevariateFunction scoreFunction) {
+        double[] flatRows = new double[ROWS.length * 3];
+        for (int r = 0; r < ROWS.length; r++) {
+            System.arraycopy(ROWS[r], 0, flatRows, r * 3, 3);
+        }
+
+        double[] scores = new double[ROWS.length];
+        double[] flatScores = new double[ROWS.length];
+        scoreFunction.computeScores(ROWS, scores);
+        scoreFunction.computeScores(flatRows, 3, flatScores);
+
+        for (int r = 0; r < ROWS.length; r++) {
+            double expected = scoreFunction.computeScore(new Alternative(ROWS[r]));
+            assertEquals(expected, scoreFunction.computeScore(ROWS[r]), 1e-12);
+            assertEquals(expected, scores[r], 1e-12);
+            assertEquals(expected, flatScores[r], 1e-12);
+        }
+    }
+}
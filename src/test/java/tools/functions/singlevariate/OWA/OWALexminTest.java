@@ -1,5 +1,7 @@
 package tools.functions.singlevariate.OWA;
 
+import static org.junit.Assert.assertEquals;
+
 import org.junit.Test;
 
 import tools.alternatives.Alternative;
@@ -34,4 +36,23 @@ public class OWALexminTest {
         }
 
     }
+
+    @Test
+    public void computeScores() {
+        OWALexmin scoreFunction = new OWALexmin(0.01, 3);
+
+        double[][] rows = { { 0.2, 0.5, 0.1 }, { 1.0, 0.0, 0.3 }, { 0.7, 0.7, 0.7 } };
+        double[] flatRows = { 0.2, 0.5, 0.1, 1.0, 0.0, 0.3, 0.7, 0.7, 0.7 };
+
+        double[] scores = new double[rows.length];
+        double[] flatScores = new double[rows.length];
+        scoreFunction.computeScores(rows, scores);
+        scoreFunction.computeScores(flatRows, 3, flatScores);
+
+        for (int r = 0; r < rows.length; r++) {
+            double expected = scoreFunction.computeScore(new Alternative(rows[r]));
+            assertEquals(expected, scores[r], 0d);
+            assertEquals(expected, flatScores[r], 0d);
+        }
+    }
 }
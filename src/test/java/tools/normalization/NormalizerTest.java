@@ -112,6 +112,29 @@ public class NormalizerTest {
         }, normalized, 1e-6);
     }
 
+    @Test
+    public void testNormalizeIntoBuffer() {
+        Normalizer normalizer = new Normalizer();
+        normalizer.update(new double[]{-30, 2, 150});
+        normalizer.update(new double[]{10, 4, 350});
+        normalizer.update(new double[]{-10, 9, 250});
+
+        double[] vector = {5, 3, 300};
+        double[] buffer = new double[vector.length];
+        for (NormalizationMethod method : NormalizationMethod.values()) {
+            double[] expected = normalizer.normalize(vector, method, false);
+            assertSame(buffer, normalizer.normalize(vector, method, buffer));
+            assertArrayEquals(expected, buffer, 0d, method.name());
+        }
+
+        // Normalizing leaves the statistics untouched, updating refreshes them
+        assertArrayEquals(new double[]{0.875, 1 / 7d, 0.75},
+                normalizer.normalize(vector, NormalizationMethod.MIN_MAX_SCALING, buffer), 1e-12);
+        normalizer.update(new double[]{50, 1, 100});
+        assertArrayEquals(new double[]{35 / 80d, 2 / 8d, 0.8},
+                normalizer.normalize(vector, NormalizationMethod.MIN_MAX_SCALING, buffer), 1e-12);
+    }
+
     @Test
     public void testEmptyVector() {
         Normalizer normalizer = new Normalizer();
@@ -184,4 +207,129 @@ public class NormalizerTest {
 
         // If no exceptions occur, the test passes
     }
+
+    @Test
+    public void testMergeStatistics() {
+        Normalizer whole = new Normalizer();
+        Normalizer first = new Normalizer();
+        Normalizer second = new Normalizer();
+        for (int k = 0; k < 50; k++) {
+            double[] vector = {k, 100 - 2 * k, k % 7};
+            whole.update(vector);
+            (k % 2 == 0 ? first : second).update(vector);
+        }
+        first.merge(second.getCoordinateStats());
+
+        double[] vector = {12, 40, 3};
+        for (NormalizationMethod method : new NormalizationMethod[] { NormalizationMethod.MIN_MAX_SCALING,
+                NormalizationMethod.MEAN_NORMALIZATION, NormalizationMethod.Z_NORMALIZATION }) {
+            assertArrayEquals(whole.normalize(vector, method, false), first.normalize(vector, method, false), 1e-9);
+        }
+        assertEquals(50, first.getCoordinateStats().get(0).getCount());
+    }
+
+    @Test
+    public void testCoordinateStatsAreACopy() {
+        Normalizer normalizer = new Normalizer();
+        normalizer.update(new double[] {10, 20});
+        Normalizer.CoordinateStats stats = normalizer.getCoordinateStats().get(0);
+
+        // Later updates leave the copy untouched, and the copy is not shared
+        normalizer.update(new double[] {5, 40});
+        stats.update(100);
+        assertEquals(2, stats.getCount());
+        assertEquals(10, stats.min);
+        assertEquals(2, normalizer.getCoordinateStats().get(0).getCount());
+        assertEquals(10, normalizer.getCoordinateStats().get(0).max);
+        assertThrows(UnsupportedOperationException.class, () -> normalizer.getCoordinateStats().clear());
+    }
+
+    @Test
+    public void testConcurrentChainsWithMergeInterval() throws InterruptedException {
+        Normalizer normalizer = new Normalizer();
+        normalizer.setMergeInterval(16);
+        Thread[] chains = new Thread[4];
+        for (int t = 0; t < chains.length; t++) {
+            int chain = t;
+            chains[t] = new Thread(() -> {
+                for (int k = 0; k < 1000; k++) {
+                    normalizer.update(new double[]{chain * 1000 + k, -k});
+                    normalizer.normalize(new double[]{500, -500}, NormalizationMethod.EMPIRICAL_CDF, new double[2]);
+                }
+                normalizer.flush();
+            });
+            chains[t].start();
+        }
+        for (Thread chain : chains) {
+            chain.join();
+        }
+
+        assertEquals(4000, normalizer.getCoordinateStats().get(0).getCount());
+        assertEquals(0, normalizer.getCoordinateStats().get(0).min);
+        assertEquals(3999, normalizer.getCoordinateStats().get(0).max);
+        assertEquals(-999, normalizer.getCoordinateStats().get(1).min);
+    }
+
+    @Test
+    public void testFreeze() {
+        Normalizer normalizer = new Normalizer();
+        for (int k = 0; k < 200; k++) {
+            normalizer.update(new double[]{k, 3 - k * 0.5, (k * 37) % 11});
+        }
+
+        double[] vector = {42, -10, 5};
+        for (NormalizationMethod method : new NormalizationMethod[] { NormalizationMethod.MIN_MAX_SCALING,
+                NormalizationMethod.MEAN_NORMALIZATION, NormalizationMethod.Z_NORMALIZATION,
+                NormalizationMethod.MAX_ABSOLUTE_SCALING, NormalizationMethod.DECIMAL_SCALING,
+                NormalizationMethod.TANH_ESTIMATOR }) {
+            NormalizationSnapshot snapshot = normalizer.freeze(method);
+            assertArrayEquals(normalizer.normalize(vector, method, false), snapshot.normalize(vector), 1e-9);
+            assertSame(snapshot, normalizer.freeze(method));
+        }
+
+        NormalizationSnapshot cdf = normalizer.freeze(NormalizationMethod.EMPIRICAL_CDF);
+        double[] expected = normalizer.normalize(vector, NormalizationMethod.EMPIRICAL_CDF, false);
+        double[] frozen = cdf.normalize(vector);
+        for (int i = 0; i < vector.length; i++) {
+            assertEquals(expected[i], frozen[i], 0.05);
+        }
+
+        // A snapshot does not follow later updates
+        NormalizationSnapshot minMax = normalizer.freeze(NormalizationMethod.MIN_MAX_SCALING);
+        double[] before = minMax.normalize(vector);
+        normalizer.update(new double[]{1000, 1000, 1000});
+        assertArrayEquals(before, minMax.normalize(vector));
+        assertNotSame(minMax, normalizer.freeze(NormalizationMethod.MIN_MAX_SCALING));
+    }
+
+    @Test
+    public void testQuantileRebuildInterval() {
+        Normalizer normalizer = new Normalizer();
+        normalizer.setQuantileRebuildInterval(10);
+        for (int k = 1; k <= 100; k++) {
+            normalizer.update(new double[]{k});
+        }
+        double median = normalizer.normalize(new double[]{50}, NormalizationMethod.MEDIAN_NORMALIZATION, false)[0];
+        assertEquals(1.0, median, 0.05);
+        double cdf = normalizer.normalize(new double[]{50}, NormalizationMethod.EMPIRICAL_CDF, false)[0];
+
+        // The tables lag behind the statistics until they changed ten times
+        for (int k = 0; k < 9; k++) {
+            normalizer.update(new double[]{1000});
+        }
+        assertEquals(cdf, normalizer.normalize(new double[]{50}, NormalizationMethod.EMPIRICAL_CDF, false)[0]);
+        normalizer.update(new double[]{1000});
+        assertTrue(normalizer.normalize(new double[]{50}, NormalizationMethod.EMPIRICAL_CDF, false)[0] < cdf);
+    }
+
+    @Test
+    public void testMedianFromOneSource() {
+        Normalizer normalizer = new Normalizer();
+        for (int k = 1; k <= 1000; k++) {
+            normalizer.update(new double[]{k % 97, k});
+        }
+        double[] vector = {40, 300};
+        assertArrayEquals(normalizer.normalize(vector, NormalizationMethod.MEDIAN_NORMALIZATION, false),
+                normalizer.freeze(NormalizationMethod.MEDIAN_NORMALIZATION).normalize(vector), 1e-12);
+    }
 }
@@ -1,6 +1,8 @@
 package tools.rules;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 
 import java.io.IOException;
 import java.util.Arrays;
@@ -9,6 +11,7 @@ import java.util.Set;
 
 import org.junit.Test;
 
+import tools.covers.ICover;
 import tools.data.Dataset;
 import tools.utils.TestUtils;
 
@@ -172,6 +175,184 @@ public class DecisionRulesTest {
         assertEquals(1, rule.getFreqZ());
     }
 
+    @Test
+    public void testItemIdOperations() throws IOException {
+        // Sample transactional dataset
+        Set<String> classItemValues = new HashSet<>();
+        classItemValues.add("1");
+        Dataset dataset = new Dataset("dataset_test_file.dat", "src/test/resources/", classItemValues);
+
+        // Create Rule with initial X and no consequent
+        DecisionRule rule = new DecisionRule(new HashSet<>(Arrays.asList("2")), "", dataset, 10, 10, 0.01d,
+                new String[] { "confidence" });
+
+        // Set the consequent and grow the antecedent using item ids
+        rule.setY(dataset.getItemId("1"));
+        rule.addToX(dataset.getItemId("5"));
+        assertEquals("1", rule.getY());
+        assertEquals(1, rule.getFreqX());
+        assertEquals(3, rule.getFreqY());
+        assertEquals(1, rule.getFreqZ());
+
+        // Remove the added item using its id
+        rule.removeFromX(dataset.getItemId("5"));
+        assertEquals(2, rule.getFreqX());
+        assertEquals(2, rule.getFreqZ());
+    }
+
+    @Test
+    public void testBatchedCountsIgnoreRepeatedItems() {
+        String[][] transactions = { { "a", "a", "b", "y" }, { "a", "b", "b" }, { "b", "y", "y" }, { "a", "c" } };
+        Dataset dataset = new Dataset(transactions, new HashSet<>(Arrays.asList("y")));
+        DecisionRule rule = new DecisionRule(new HashSet<>(Arrays.asList("b")), "y", dataset, 0.01d,
+                new String[] { "confidence" });
+
+        int nbItems = dataset.getItemDictionary().size();
+        int[] freqXWith = new int[nbItems];
+        int[] freqZWith = new int[nbItems];
+        rule.countFrequenciesWith(freqXWith, freqZWith);
+        for (int itemId = 0; itemId < nbItems; itemId++) {
+            assertEquals(rule.getFreqXWith(itemId), freqXWith[itemId]);
+            assertEquals(rule.getFreqZWith(itemId), freqZWith[itemId]);
+        }
+        assertEquals(2, freqXWith[dataset.getItemId("a")]);
+        assertEquals(2, freqZWith[dataset.getItemId("y")]);
+    }
+
+    @Test
+    public void testProposals() throws IOException {
+        Set<String> classItemValues = new HashSet<>();
+        classItemValues.add("1");
+        Dataset dataset = new Dataset("dataset_test_file.dat", "src/test/resources/", classItemValues);
+
+        DecisionRule rule = new DecisionRule(new HashSet<>(Arrays.asList("2")), "", dataset, 10, 10, 0.01d,
+                new String[] { "confidence" });
+
+        // A proposal on Y updates the counts only
+        rule.proposeSetY(dataset.getItemId("1"));
+        assertEquals(3, rule.getFreqY());
+        assertEquals(2, rule.getFreqZ());
+        rule.acceptProposal();
+        assertEquals(2, rule.getCoverZ().cardinality());
+
+        // The counts with an additional item do not modify the rule
+        assertEquals(1, rule.getFreqXWith(dataset.getItemId("3")));
+        assertEquals(1, rule.getFreqZWith(dataset.getItemId("3")));
+        assertEquals(2, rule.getFreqX());
+
+        // The batched counts are the counts of each item
+        int nbItems = dataset.getItemDictionary().size();
+        int[] freqXWith = new int[nbItems];
+        int[] freqZWith = new int[nbItems];
+        rule.countFrequenciesWith(freqXWith, freqZWith);
+        for (int itemId = 0; itemId < nbItems; itemId++) {
+            assertEquals(rule.getFreqXWith(itemId), freqXWith[itemId]);
+            assertEquals(rule.getFreqZWith(itemId), freqZWith[itemId]);
+        }
+
+        // A rejected proposal restores the rule without touching the covers
+        double[] vector = rule.getAlternative().getVector();
+        ICover coverX = rule.getCoverX();
+        rule.proposeAddToX(dataset.getItemId("3"));
+        assertEquals(1, rule.getFreqX());
+        assertEquals(1, rule.getFreqZ());
+        assertSame(coverX, rule.getCoverX());
+        rule.rejectProposal();
+        assertEquals(new HashSet<>(Arrays.asList("2")), rule.getItemsInX());
+        assertEquals(2, rule.getFreqX());
+        assertEquals(2, rule.getFreqZ());
+        assertArrayEquals(vector, rule.getAlternative().getVector(), 0d);
+
+        // An accepted proposal materializes the covers
+        rule.proposeAddToX(dataset.getItemId("5"));
+        rule.acceptProposal();
+        assertEquals(new HashSet<>(Arrays.asList("2", "5")), rule.getItemsInX());
+        assertEquals(1, rule.getCoverX().cardinality());
+        assertEquals(1, rule.getCoverZ().cardinality());
+        assertEquals(1, rule.getFreqX());
+        assertEquals(1, rule.getFreqZ());
+    }
+
+    @Test
+    public void testRuleCursor() throws IOException {
+        Set<String> classItemValues = new HashSet<>(Arrays.asList("4", "9"));
+        Dataset dataset = new Dataset("dataset_test_file.dat", "src/test/resources/", classItemValues);
+        DecisionRule rule = new DecisionRule(new HashSet<>(Arrays.asList("1", "2")), "4", dataset, 10, 10, 0.01d,
+                new String[] { "confidence" });
+        ICover coverX = rule.getCoverX();
+        ICover coverZ = rule.getCoverZ();
+        double[] vector = rule.getAlternative().getVector().clone();
+
+        RuleCursor cursor = new RuleCursor(rule);
+        cursor.removeFromX("2");
+        assertEquals(3, rule.getFreqX());
+        cursor.addToX(dataset.getItemId("5"));
+        assertEquals(1, rule.getFreqX());
+        cursor.setY("9");
+        assertEquals(0, rule.getFreqZ());
+        assertEquals(3, cursor.getDepth());
+
+        // Reverting restores the previous covers themselves
+        cursor.revert();
+        assertEquals("4", rule.getY());
+        cursor.revertAll();
+        assertEquals(0, cursor.getDepth());
+        assertEquals(new HashSet<>(Arrays.asList("1", "2")), rule.getItemsInX());
+        assertEquals(new HashSet<>(Arrays.asList("1", "2", "4")), rule.getItemsInZ());
+        assertSame(coverX, rule.getCoverX());
+        assertSame(coverZ, rule.getCoverZ());
+        assertEquals(2, rule.getFreqX());
+        assertEquals(1, rule.getFreqZ());
+        assertArrayEquals(vector, rule.getAlternative().getVector(), 0);
+
+        // Adding an item already in X is reverted without removing it
+        cursor.addToX("1");
+        cursor.revert();
+        assertEquals(new HashSet<>(Arrays.asList("1", "2")), rule.getItemsInX());
+    }
+
+    @Test
+    public void testMeasureEvaluator() {
+        // 10 transactions, X in 4 of them, Y in 5 and both in 2
+        ContingencyTable table = new ContingencyTable().set(10, 4, 5, 2, 0);
+        MeasureEvaluator evaluator = MeasureEvaluator.compile(new String[] { RuleMeasures.confidence,
+                RuleMeasures.support, RuleMeasures.lift, RuleMeasures.revsupport, RuleMeasures.addedValue });
+
+        double[] measures = new double[evaluator.size()];
+        evaluator.evaluate(table, measures);
+        assertArrayEquals(new double[] { 0.5, 0.2, 1, 0.8, 0 }, measures, 1e-12);
+
+        // The rule compiles its measure names once and fills the same values
+        Set<String> classItemValues = new HashSet<>(Arrays.asList("4"));
+        Dataset dataset = new Dataset(new String[][] { { "1", "4" }, { "1" }, { "4" }, { "2" } }, classItemValues);
+        DecisionRule rule = new DecisionRule(new HashSet<>(Arrays.asList("1")), "4", dataset, 10, 10, 0,
+                evaluator.getMeasureNames());
+        assertArrayEquals(new RuleMeasures(rule, 4, 0).computeMeasures(evaluator.getMeasureNames()),
+                rule.getAlternative().getVector(), 0);
+        assertSame(rule.getMeasureEvaluator(), rule.getMeasureEvaluator());
+    }
+
+    @Test
+    public void testRuleBatch() {
+        String[] measureNames = { RuleMeasures.confidence, RuleMeasures.lift, RuleMeasures.cosine, RuleMeasures.phi,
+                RuleMeasures.kruskal, RuleMeasures.yuleQ, RuleMeasures.addedValue, RuleMeasures.certainty,
+                RuleMeasures.support, RuleMeasures.revsupport };
+        int[] freqX = { 4, 10, 7, 3 };
+        int[] freqY = { 5, 6, 7, 9 };
+        int[] freqZ = { 2, 6, 1, 3 };
+        MeasureEvaluator evaluator = MeasureEvaluator.compile(measureNames);
+
+        // The batch gives exactly the measures of each rule computed alone
+        double[][] measures = evaluator.evaluate(new RuleBatch(freqX, freqY, freqZ, 20), 0.01d);
+        ContingencyTable table = new ContingencyTable();
+        for (int r = 0; r < freqX.length; r++) {
+            double[] expected = evaluator.evaluate(table.set(20, freqX[r], freqY[r], freqZ[r], 0.01d));
+            for (int m = 0; m < measureNames.length; m++) {
+                assertEquals(expected[m], measures[m][r], 0);
+            }
+        }
+    }
+
     @Test
     public void testComputeIrisBug() throws IOException {
         // Retrieving the iris dataset
@@ -0,0 +1,43 @@
+package tools.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class LazyPermutationTest {
+
+    @Test
+    public void testDrawsEachIntegerOnce() {
+        LazyPermutation permutation = new LazyPermutation();
+        RandomUtil random = new RandomUtil(1);
+        for (int size : new int[] { 10, 10, 3, 25, 0 }) {
+            permutation.reset(size, random);
+            boolean[] drawn = new boolean[size];
+            for (int k = 0; k < size; k++) {
+                assertTrue(permutation.hasNext());
+                int value = permutation.next();
+                assertFalse(drawn[value]);
+                drawn[value] = true;
+            }
+            assertFalse(permutation.hasNext());
+        }
+    }
+
+    @Test
+    public void testFirstDrawIsUniform() {
+        LazyPermutation permutation = new LazyPermutation();
+        RandomUtil random = new RandomUtil(2);
+        int[] counts = new int[5];
+        for (int run = 0; run < 50_000; run++) {
+            // Only part of the permutation is drawn, the buffer keeps the rest
+            permutation.reset(5, random);
+            counts[permutation.next()]++;
+            permutation.next();
+        }
+        for (int count : counts) {
+            assertEquals(10_000, count, 500);
+        }
+    }
+}